@@ -0,0 +1,38 @@
+package com.example.ForumAppBackend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * In-JVM caches of hot lookups, bounded in size and age and recording hit/miss statistics.
+ * Only small immutable snapshots are cached (see EntityCache), never managed entities.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USERS = "users";
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+    public static final String QUESTIONS = "questions";
+    public static final String TAG_IDS = "tagIds";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.entities.maximum-size:10000}") long maximumSize,
+            @Value("${cache.entities.expire-after-write-seconds:300}") long expireAfterWriteSeconds) {
+        CaffeineCacheManager manager = new CaffeineCacheManager(USERS, USERS_BY_EMAIL, QUESTIONS, TAG_IDS);
+        manager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats());
+        manager.setAllowNullValues(false);
+        return manager;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.ForumAppBackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit in front of the JDBC pool. Every connection checkout takes a permit, given
+ * back when the connection is closed, so no more threads reach the pool than it has connections
+ * (by default the Hikari pool size). Waiters queue fairly for at most {@code db.bulkhead.timeout-ms};
+ * once {@code db.bulkhead.max-queue} are already waiting, further checkouts fail at once with
+ * {@link DatabaseBusyException}, which is answered with 503. Requests that never touch the
+ * database, such as cached question details and upload downloads, never take a permit. This is
+ * what bounds database load when requests run on virtual threads and Tomcat no longer does, so
+ * {@code db.bulkhead.enabled} defaults to {@code spring.threads.virtual.enabled}; on platform
+ * threads Tomcat's pool already caps concurrency.
+ */
+@Component
+public class DatabaseBulkhead implements BeanPostProcessor {
+
+    private static final int DEFAULT_PERMITS = 10;
+
+    private final boolean enabled;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long timeoutMillis;
+
+    private volatile Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public DatabaseBulkhead(@Value("${db.bulkhead.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+                            @Value("${db.bulkhead.max-concurrent:0}") int maxConcurrent,
+                            @Value("${db.bulkhead.max-queue:200}") int maxQueue,
+                            @Value("${db.bulkhead.timeout-ms:2000}") long timeoutMillis) {
+        this.enabled = enabled;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof BulkheadDataSource) {
+            return bean;
+        }
+        int size = maxConcurrent > 0 ? maxConcurrent
+                : bean instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize()
+                : DEFAULT_PERMITS;
+        permits = new Semaphore(size, true);
+        return new BulkheadDataSource(dataSource);
+    }
+
+    public Stats stats() {
+        Semaphore current = permits;
+        return new Stats(current == null ? 0 : current.availablePermits(), waiting.get(), acquired.sum(),
+                rejected.sum(), timedOut.sum());
+    }
+
+    private void acquire() throws SQLException {
+        Semaphore current = permits;
+        try {
+            // The timed variant with zero wait still respects fairness, unlike plain tryAcquire()
+            if (current.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                acquired.increment();
+                return;
+            }
+            if (waiting.incrementAndGet() > maxQueue) {
+                waiting.decrementAndGet();
+                rejected.increment();
+                throw new DatabaseBusyException(maxQueue + " requests are already waiting for a database connection");
+            }
+            try {
+                if (!current.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    timedOut.increment();
+                    throw new DatabaseBusyException("No database connection became free within " + timeoutMillis + " ms");
+                }
+                acquired.increment();
+            } finally {
+                waiting.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for a database connection");
+        }
+    }
+
+    /** Hands out connections that give their permit back on the first close. */
+    private final class BulkheadDataSource extends DelegatingDataSource {
+
+        BulkheadDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            return guarded(() -> super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            return guarded(() -> super.getConnection(username, password));
+        }
+
+        private Connection guarded(ConnectionSupplier supplier) throws SQLException {
+            Semaphore current = permits;
+            Connection connection;
+            try {
+                connection = supplier.get();
+            } catch (SQLException | RuntimeException e) {
+                current.release();
+                throw e;
+            }
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close" -> {
+                                try {
+                                    connection.close();
+                                } finally {
+                                    if (released.compareAndSet(false, true)) {
+                                        current.release();
+                                    }
+                                }
+                                return null;
+                            }
+                            case "equals" -> {
+                                return proxy == args[0];
+                            }
+                            case "hashCode" -> {
+                                return System.identityHashCode(proxy);
+                            }
+                            case "unwrap" -> {
+                                Class<?> type = (Class<?>) args[0];
+                                return type.isInstance(proxy) ? proxy : connection.unwrap(type);
+                            }
+                            case "isWrapperFor" -> {
+                                Class<?> type = (Class<?>) args[0];
+                                return type.isInstance(proxy) || connection.isWrapperFor(type);
+                            }
+                            default -> {
+                                try {
+                                    return method.invoke(connection, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getTargetException();
+                                }
+                            }
+                        }
+                    });
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /** Thrown instead of a connection when the bulkhead is full or the wait for a permit timed out. */
+    public static class DatabaseBusyException extends SQLTransientConnectionException {
+        public DatabaseBusyException(String message) {
+            super(message);
+        }
+    }
+
+    public record Stats(int availablePermits, int waiting, long acquired, long rejected, long timedOut) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.ForumAppBackend.config;
+
+import com.example.ForumAppBackend.service.FileUploadService;
+import com.example.ForumAppBackend.service.QuestionDetailCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Metrics scraped from {@code /actuator/prometheus}. Spring Boot already records request
+ * latencies ({@code http.server.requests}), Hikari pool usage, Hibernate statistics (when
+ * {@code hibernate.generate_statistics} is on) and the {@link CacheConfig} caches; this adds
+ * fixed latency buckets to requests and service timers, and exports the counters the bulkhead,
+ * question detail cache and uploads keep anyway. Those are read when scraped, so serving
+ * requests costs nothing extra.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Latency histograms for {@code http.server.requests} and {@code forum.service} with a fixed,
+     * short list of buckets ({@code metrics.latency-buckets-ms}), which keeps recording to a
+     * counter increment and the series count low, unlike client-side percentiles.
+     */
+    @Bean
+    public MeterFilter latencyBuckets(
+            @Value("${metrics.latency-buckets-ms:5,10,25,50,100,250,500,1000,2500,5000}") long[] bucketsMillis) {
+        double[] bucketsNanos = Arrays.stream(bucketsMillis).mapToDouble(ms -> Duration.ofMillis(ms).toNanos()).toArray();
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() != Meter.Type.TIMER
+                        || !id.getName().equals("http.server.requests") && !id.getName().equals("forum.service")) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(bucketsNanos)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder bulkheadMetrics(DatabaseBulkhead bulkhead) {
+        return registry -> {
+            Gauge.builder("forum.db.bulkhead.available", bulkhead, b -> b.stats().availablePermits())
+                    .description("Free database bulkhead permits")
+                    .register(registry);
+            Gauge.builder("forum.db.bulkhead.waiting", bulkhead, b -> b.stats().waiting())
+                    .description("Threads queued for a database bulkhead permit")
+                    .register(registry);
+            FunctionCounter.builder("forum.db.bulkhead.acquired", bulkhead, b -> b.stats().acquired())
+                    .register(registry);
+            FunctionCounter.builder("forum.db.bulkhead.rejected", bulkhead, b -> b.stats().rejected())
+                    .description("Checkouts refused at once because the queue was full")
+                    .register(registry);
+            FunctionCounter.builder("forum.db.bulkhead.timed.out", bulkhead, b -> b.stats().timedOut())
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Under a prefix of its own: the {@code cache.*} names belong to the Spring-managed caches,
+     * whose tag keys Prometheus requires every meter of the same name to share.
+     */
+    @Bean
+    public MeterBinder questionDetailCacheMetrics(QuestionDetailCache cache) {
+        return registry -> {
+            FunctionCounter.builder("forum.cache.question.details.gets", cache, c -> c.stats().hits())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("forum.cache.question.details.gets", cache, c -> c.stats().misses())
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("forum.cache.question.details.evictions", cache, c -> c.stats().evictions())
+                    .register(registry);
+            Gauge.builder("forum.cache.question.details.size", cache, c -> c.stats().entries())
+                    .description("Question details held")
+                    .register(registry);
+            Gauge.builder("forum.cache.question.details.bytes", cache, c -> c.stats().bytes())
+                    .description("Serialized bytes held, JSON and gzip")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder uploadMetrics(FileUploadService uploads) {
+        return registry -> {
+            FunctionCounter.builder("forum.uploads.bytes", uploads, FileUploadService::getBytesReceived)
+                    .tag("direction", "in")
+                    .baseUnit("bytes")
+                    .register(registry);
+            FunctionCounter.builder("forum.uploads.bytes", uploads, FileUploadService::getBytesServed)
+                    .tag("direction", "out")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("forum.uploads.variants.queued", uploads, u -> u.getVariantStats().queueDepth())
+                    .register(registry);
+            FunctionCounter.builder("forum.uploads.variants.completed", uploads, u -> u.getVariantStats().completed())
+                    .register(registry);
+            FunctionCounter.builder("forum.uploads.variants.failed", uploads, u -> u.getVariantStats().failed())
+                    .register(registry);
+        };
+    }
+}
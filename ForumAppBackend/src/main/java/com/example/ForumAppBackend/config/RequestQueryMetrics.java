@@ -0,0 +1,168 @@
+package com.example.ForumAppBackend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hibernate work per HTTP request, by URI pattern: JDBC statements, entity loads and lazy
+ * collection fetches ({@code forum.request.statements}, {@code forum.request.entity.loads},
+ * {@code forum.request.collection.fetches}). Hibernate's own statistics, exported when turned on,
+ * are global, so concurrent requests cannot be told apart in them; these are counted on the thread
+ * serving the request instead and need no statistics. Summaries have fixed buckets, so recording
+ * only bumps counters. A statement inspector or integrator provider configured through
+ * {@code spring.jpa.properties} keeps working: ours wraps it.
+ */
+@Component
+public class RequestQueryMetrics extends OncePerRequestFilter implements HibernatePropertiesCustomizer {
+
+    private static final int STATEMENTS = 0;
+    private static final int ENTITY_LOADS = 1;
+    private static final int COLLECTION_FETCHES = 2;
+    private static final String UNMAPPED = "UNKNOWN";
+    private static final double[] BUCKETS = {0, 1, 2, 3, 5, 10, 20, 50, 100};
+
+    /** Running totals for the current thread; requests record the difference across their handling. */
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[3]);
+
+    private final ObjectProvider<MeterRegistry> registry;
+    private final Map<String, DistributionSummary[]> summaries = new ConcurrentHashMap<>();
+
+    public RequestQueryMetrics(ObjectProvider<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        WorkCounter counter = new WorkCounter(configured(hibernateProperties.get(AvailableSettings.STATEMENT_INSPECTOR),
+                StatementInspector.class, AvailableSettings.STATEMENT_INSPECTOR));
+        IntegratorProvider integrators = configured(hibernateProperties.get(JpaSettings.INTEGRATOR_PROVIDER),
+                IntegratorProvider.class, JpaSettings.INTEGRATOR_PROVIDER);
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+        hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> {
+            List<Integrator> all = new ArrayList<>(integrators == null ? List.of() : integrators.getIntegrators());
+            all.add(counter);
+            return all;
+        });
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long[] counts = COUNTS.get();
+        long statements = counts[STATEMENTS];
+        long entityLoads = counts[ENTITY_LOADS];
+        long collectionFetches = counts[COLLECTION_FETCHES];
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DistributionSummary[] meters = summaries(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+            meters[STATEMENTS].record(counts[STATEMENTS] - statements);
+            meters[ENTITY_LOADS].record(counts[ENTITY_LOADS] - entityLoads);
+            meters[COLLECTION_FETCHES].record(counts[COLLECTION_FETCHES] - collectionFetches);
+        }
+    }
+
+    /** The setting as an instance, whether it was given as one, as a class or as a class name. */
+    private static <T> T configured(Object setting, Class<T> type, String name) {
+        if (setting == null || type.isInstance(setting)) {
+            return type.cast(setting);
+        }
+        try {
+            Class<?> configuredClass = setting instanceof Class<?> given ? given
+                    : ClassUtils.forName(setting.toString().trim(), RequestQueryMetrics.class.getClassLoader());
+            return type.cast(BeanUtils.instantiateClass(configuredClass));
+        } catch (ClassNotFoundException | ClassCastException | BeanInstantiationException e) {
+            throw new IllegalStateException("Cannot use " + setting + " as " + name, e);
+        }
+    }
+
+    private DistributionSummary[] summaries(Object pattern) {
+        String uri = pattern instanceof String mapped ? mapped : UNMAPPED;
+        DistributionSummary[] meters = summaries.get(uri);
+        return meters != null ? meters : summaries.computeIfAbsent(uri, this::register);
+    }
+
+    private DistributionSummary[] register(String uri) {
+        MeterRegistry meters = registry.getObject();
+        return new DistributionSummary[]{
+                summary(meters, "forum.request.statements", "JDBC statements prepared per request", uri),
+                summary(meters, "forum.request.entity.loads", "Entities loaded per request", uri),
+                summary(meters, "forum.request.collection.fetches", "Lazy collections fetched per request", uri)};
+    }
+
+    private static DistributionSummary summary(MeterRegistry meters, String name, String description, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .serviceLevelObjectives(BUCKETS)
+                .register(meters);
+    }
+
+    /** Bumps the current thread's totals from inside Hibernate. */
+    private static final class WorkCounter implements StatementInspector, Integrator,
+            PostLoadEventListener, InitializeCollectionEventListener {
+
+        /** The inspector configured in the application, if any, which still sees every statement. */
+        private final StatementInspector delegate;
+
+        WorkCounter(StatementInspector delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String inspect(String sql) {
+            COUNTS.get()[STATEMENTS]++;
+            return delegate == null ? sql : delegate.inspect(sql);
+        }
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            EventListenerRegistry listeners = sessionFactory.getEventListenerRegistry();
+            listeners.appendListeners(EventType.POST_LOAD, this);
+            listeners.appendListeners(EventType.INIT_COLLECTION, this);
+        }
+
+        @Override
+        public void onPostLoad(PostLoadEvent event) {
+            COUNTS.get()[ENTITY_LOADS]++;
+        }
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) {
+            COUNTS.get()[COLLECTION_FETCHES]++;
+        }
+    }
+}
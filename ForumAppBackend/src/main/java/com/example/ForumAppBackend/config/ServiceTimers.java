@@ -0,0 +1,95 @@
+package com.example.ForumAppBackend.config;
+
+import com.example.ForumAppBackend.service.AnswerService;
+import com.example.ForumAppBackend.service.FileUploadService;
+import com.example.ForumAppBackend.service.QuestionService;
+import com.example.ForumAppBackend.service.UserService;
+import com.example.ForumAppBackend.service.VoteService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the core services as {@code forum.service}, tagged with the
+ * service, the method and whether it returned or threw. The advice goes ahead of the
+ * transaction advice on the existing proxies, so timings include commit. Timers are looked up
+ * once per method and fed {@link System#nanoTime} differences, so a timed call allocates nothing.
+ * Calls a service makes to itself are not timed, as with any Spring proxy.
+ */
+@Component
+public class ServiceTimers extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+    private static final Set<Class<?>> TIMED = Set.of(QuestionService.class, AnswerService.class, VoteService.class,
+            UserService.class, FileUploadService.class);
+
+    public ServiceTimers(ObjectProvider<MeterRegistry> registry) {
+        StaticMethodMatcherPointcut publicServiceMethods = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return Modifier.isPublic(method.getModifiers()) && TIMED.contains(method.getDeclaringClass());
+            }
+        };
+        publicServiceMethods.setClassFilter(TIMED::contains);
+        this.advisor = new DefaultPointcutAdvisor(publicServiceMethods, new TimingInterceptor(registry));
+        this.beforeExistingAdvisors = true;
+        setProxyTargetClass(true);
+    }
+
+    private static final class TimingInterceptor implements MethodInterceptor {
+
+        private final ObjectProvider<MeterRegistry> registry;
+        /** Success and error timers of each method. */
+        private final Map<Method, Timer[]> timers = new ConcurrentHashMap<>();
+
+        TimingInterceptor(ObjectProvider<MeterRegistry> registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            Timer[] outcomes = timers.get(method);
+            if (outcomes == null) {
+                outcomes = timers.computeIfAbsent(method, this::register);
+            }
+            long start = System.nanoTime();
+            try {
+                Object result = invocation.proceed();
+                outcomes[0].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Throwable e) {
+                outcomes[1].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        }
+
+        private Timer[] register(Method method) {
+            MeterRegistry meters = registry.getObject();
+            String service = method.getDeclaringClass().getSimpleName();
+            return new Timer[]{timer(meters, service, method.getName(), "success"),
+                    timer(meters, service, method.getName(), "error")};
+        }
+
+        private static Timer timer(MeterRegistry meters, String service, String method, String outcome) {
+            return Timer.builder("forum.service")
+                    .description("Service method calls")
+                    .tag("service", service)
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(meters);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.ForumAppBackend.controller;
 
+import com.example.ForumAppBackend.dto.AnswerSummary;
+import com.example.ForumAppBackend.dto.CursorPage;
 import com.example.ForumAppBackend.entity.Answer;
 import com.example.ForumAppBackend.service.AnswerService;
+import com.example.ForumAppBackend.service.AnswerSort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,7 +27,12 @@ public class AnswerController {
             @PathVariable Long userId,
             @PathVariable Long questionId,
             @RequestBody Answer answer) {
-        Answer createdAnswer = answerService.createAnswer(userId, questionId, answer);
+        Answer createdAnswer;
+        try {
+            createdAnswer = answerService.createAnswer(userId, questionId, answer);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
         if (createdAnswer != null) {
             return new ResponseEntity<>(createdAnswer, HttpStatus.CREATED);
         }
@@ -36,15 +45,29 @@ public class AnswerController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Answer> getAnswerById(@PathVariable Long id) {
+    public ResponseEntity<Answer> getAnswerById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long version = answerService.getVersion(id);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = ETags.of("a", id, version);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
         Answer answer = answerService.getAnswerById(id);
-        return answer != null ? ResponseEntity.ok(answer) : ResponseEntity.notFound().build();
+        return answer != null ? ETags.ok(etag, answer) : ResponseEntity.notFound().build();
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Answer> updateAnswer(@PathVariable Long id, @RequestBody Answer answerData) {
-        Answer updated = answerService.updateAnswer(id, answerData);
-        return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+        try {
+            Answer updated = answerService.updateAnswer(id, answerData);
+            return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -53,9 +76,47 @@ public class AnswerController {
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
 
+    /** Tagged with the question's version, which every answer change bumps. */
     @GetMapping("/question/{questionId}")
-    public ResponseEntity<List<Answer>> getAnswersForQuestion(@PathVariable Long questionId) {
+    public ResponseEntity<List<Answer>> getAnswersForQuestion(
+            @PathVariable Long questionId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long version = answerService.getListingVersion(questionId);
+        if (version == null) {
+            return ResponseEntity.ok(List.of());
+        }
+        String etag = ETags.of("qa", questionId, version);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
         List<Answer> answers = answerService.getAnswersForQuestion(questionId);
-        return ResponseEntity.ok(answers);
+        return ETags.ok(etag, answers);
+    }
+
+    /**
+     * Keyset-paginated answers with the accepted one pinned first; used instead of the full listing
+     * whenever {@code limit} is given. {@code sort} is {@code score} (default) or {@code newest}.
+     */
+    @GetMapping(value = "/question/{questionId}", params = "limit")
+    public ResponseEntity<CursorPage<AnswerSummary>> getAnswersPage(
+            @PathVariable Long questionId,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam("limit") Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long version = answerService.getListingVersion(questionId);
+        if (version == null) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = ETags.of("qa", questionId, version);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
+        try {
+            CursorPage<AnswerSummary> page = answerService.getAnswersPage(questionId, AnswerSort.parse(sort), cursor, limit);
+            return page != null ? ETags.ok(etag, page) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
@@ -0,0 +1,34 @@
+package com.example.ForumAppBackend.controller;
+
+import com.example.ForumAppBackend.service.EntityCache;
+import com.example.ForumAppBackend.service.QuestionDetailCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final EntityCache entityCache;
+    private final QuestionDetailCache questionDetailCache;
+
+    public CacheController(EntityCache entityCache, QuestionDetailCache questionDetailCache) {
+        this.entityCache = entityCache;
+        this.questionDetailCache = questionDetailCache;
+    }
+
+    /** Size, hit/miss counts and evictions of each entity cache. */
+    @GetMapping("/stats")
+    public Map<String, EntityCache.Stats> stats() {
+        return entityCache.stats();
+    }
+
+    /** Entries, bytes held and hit ratio of the serialized question detail cache. */
+    @GetMapping("/question-details")
+    public QuestionDetailCache.Stats questionDetails() {
+        return questionDetailCache.stats();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ForumAppBackend.controller;
+
+import com.example.ForumAppBackend.config.DatabaseBulkhead;
+import jakarta.persistence.PersistenceException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers 503 with Retry-After when a request was turned away by the {@link DatabaseBulkhead}.
+ * The rejection reaches here wrapped by Hibernate and Spring; any other data access failure is
+ * rethrown and handled as before.
+ */
+@RestControllerAdvice
+public class DatabaseBusyAdvice {
+
+    @ExceptionHandler({DataAccessException.class, TransactionException.class, PersistenceException.class})
+    public ResponseEntity<Void> databaseBusy(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DatabaseBulkhead.DatabaseBusyException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build();
+            }
+        }
+        throw e;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ForumAppBackend.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Strong ETags derived from the version columns of questions and answers. Controllers look the
+ * version up first and answer {@code If-None-Match} with 304 without loading the entity graph.
+ * Tagged bodies show users by id and username only: reputation and account details change
+ * without bumping those versions, and renames bump the versions of every post showing the user.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(String kind, Long id, long version) {
+        return "\"" + kind + "-" + id + "-" + version + "\"";
+    }
+
+    /** Whether an If-None-Match header value (a list of tags, or *) matches the current tag. */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison, so a W/ prefix added by a proxy still matches
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
+    /** 200 with the tag; no-cache makes browsers revalidate with If-None-Match on every read. */
+    static <T> ResponseEntity<T> ok(String etag, T body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
+
+    /** Like {@link #ok} for JSON that is already serialized, and gzip-compressed if {@code gzip}. */
+    static ResponseEntity<byte[]> okJson(String etag, byte[] body, boolean gzip) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /** Whether an Accept-Encoding header value allows gzip (and does not refuse it with q=0). */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
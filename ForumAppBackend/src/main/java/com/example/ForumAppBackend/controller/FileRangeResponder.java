@@ -0,0 +1,129 @@
+package com.example.ForumAppBackend.controller;
+
+import com.example.ForumAppBackend.service.StoredFile;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes an immutable stored file to the response: long-lived cache headers, a strong ETag,
+ * {@code If-None-Match} and single byte-range requests. The bytes go out with the container's
+ * sendfile support when it has it (Tomcat's NIO connector does), and otherwise with
+ * {@link FileChannel#transferTo}, so the controller never copies them through the heap.
+ */
+final class FileRangeResponder {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String REVALIDATE = "no-cache";
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private FileRangeResponder() {
+    }
+
+    /** Returns the number of body bytes sent, or handed to the container to send. */
+    static long respond(StoredFile file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = "\"" + file.etag() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, file.immutable() ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return 0;
+        }
+
+        long size = file.size();
+        long start = 0;
+        long end = size;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == UNSATISFIABLE) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return 0;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+            }
+        }
+
+        response.setContentType(file.contentType());
+        response.setContentLengthLong(end - start);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.inline().filename(file.path().getFileName().toString()).build().toString());
+        if ("HEAD".equals(request.getMethod()) || end == start) {
+            return 0;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.path().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return end - start;
+        }
+        try (FileChannel channel = FileChannel.open(file.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+        return end - start;
+    }
+
+    /**
+     * Parses a single {@code bytes=} range into [start, end). Returns null to serve the whole file
+     * (malformed or multi-range headers, which a server may ignore) and UNSATISFIABLE when the
+     * range starts past the end.
+     */
+    static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                return new long[]{Math.max(0, size - suffix), size};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size : Math.min(size, Long.parseLong(last) + 1);
+            if (start >= size) {
+                return UNSATISFIABLE;
+            }
+            if (end <= start) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,31 +1,28 @@
 package com.example.ForumAppBackend.controller;
 
 import com.example.ForumAppBackend.service.FileUploadService;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.example.ForumAppBackend.service.ImageVariantService;
+import com.example.ForumAppBackend.service.StoredFile;
+import com.example.ForumAppBackend.service.UploadGarbageCollector;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
 @RestController
 @RequestMapping("/api/upload")
 public class FileUploadController {
 
     private final FileUploadService fileUploadService;
+    private final UploadGarbageCollector uploadGarbageCollector;
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
-
-    public FileUploadController(FileUploadService fileUploadService) {
+    public FileUploadController(FileUploadService fileUploadService, UploadGarbageCollector uploadGarbageCollector) {
         this.fileUploadService = fileUploadService;
+        this.uploadGarbageCollector = uploadGarbageCollector;
     }
 
     @PostMapping("/image")
@@ -40,55 +37,43 @@ public class FileUploadController {
         }
     }
 
+    /**
+     * Serves an upload with immutable caching, ETag revalidation and byte ranges. Content type
+     * and size come from the upload metadata, so no request probes the file. With {@code w} the
+     * smallest downscaled variant at least that wide is served instead, once it exists.
+     */
     @GetMapping("/image/{filename:.+}")
-    @ResponseBody
-    public ResponseEntity<Resource> serveImage(@PathVariable String filename) {
-        try {
-            Path filePath = Paths.get(uploadDir).resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (resource.exists()) {
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = determineContentType(filename);
-                }
-
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.parseMediaType(contentType));
-                headers.setContentDisposition(org.springframework.http.ContentDisposition
-                        .builder("inline")
-                        .filename(resource.getFilename())
-                        .build());
-                headers.setCacheControl("no-cache, no-store, must-revalidate");
-                headers.setPragma("no-cache");
-                headers.setExpires(0);
-
-                return ResponseEntity.ok().headers(headers).body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
+    public void serveImage(@PathVariable String filename,
+                           @RequestParam(value = "w", required = false) Integer width,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        StoredFile file = fileUploadService.findStoredFile(filename, width).orElse(null);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+        fileUploadService.countServed(FileRangeResponder.respond(file, request, response));
     }
 
-    private String determineContentType(String filename) {
-        filename = filename.toLowerCase();
-        if (filename.endsWith(".jpg") || filename.endsWith(".jpeg")) {
-            return MediaType.IMAGE_JPEG_VALUE;
-        } else if (filename.endsWith(".png")) {
-            return MediaType.IMAGE_PNG_VALUE;
-        } else if (filename.endsWith(".gif")) {
-            return MediaType.IMAGE_GIF_VALUE;
-        }
-        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    /** Variant worker pool queue depth, throughput and processing times. */
+    @GetMapping("/variants/stats")
+    public ImageVariantService.Stats variantStats() {
+        return fileUploadService.getVariantStats();
+    }
+
+    /** Report of the last upload garbage collection run; 204 before the first one. */
+    @GetMapping("/gc")
+    public ResponseEntity<UploadGarbageCollector.Report> gcReport() {
+        UploadGarbageCollector.Report report = uploadGarbageCollector.lastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
     }
 
+    /** Deletes an upload no question or answer uses; 409 while one still does, as uploads are shared. */
     @DeleteMapping("/image")
     public ResponseEntity<Void> deleteImage(@RequestParam("url") String fileUrl) {
         try {
-            fileUploadService.deleteFile(fileUrl);
-            return ResponseEntity.noContent().build();
+            return fileUploadService.deleteIfUnreferenced(fileUrl)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
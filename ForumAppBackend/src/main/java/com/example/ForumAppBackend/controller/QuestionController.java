@@ -1,10 +1,16 @@
 package com.example.ForumAppBackend.controller;
 
+import com.example.ForumAppBackend.dto.CursorPage;
 import com.example.ForumAppBackend.dto.QuestionDTO;
+import com.example.ForumAppBackend.dto.QuestionSummary;
 import com.example.ForumAppBackend.entity.Question;
-import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.service.EntityCache;
+import com.example.ForumAppBackend.service.FeedSort;
+import com.example.ForumAppBackend.service.QuestionDetailCache;
 import com.example.ForumAppBackend.service.QuestionService;
+import com.example.ForumAppBackend.service.UserRef;
 import com.example.ForumAppBackend.repository.UserRepository;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,19 +23,26 @@ public class QuestionController {
 
     private final QuestionService questionService;
     private final UserRepository userRepository;
+    private final EntityCache entityCache;
+    private final QuestionDetailCache questionDetailCache;
 
-    public QuestionController(QuestionService questionService, UserRepository userRepository) {
+    public QuestionController(QuestionService questionService,
+                              UserRepository userRepository,
+                              EntityCache entityCache,
+                              QuestionDetailCache questionDetailCache) {
         this.questionService = questionService;
         this.userRepository = userRepository;
+        this.entityCache = entityCache;
+        this.questionDetailCache = questionDetailCache;
     }
 
     @PostMapping("/user/{userId}")
     public ResponseEntity<Question> createQuestion(@PathVariable Long userId, @RequestBody QuestionDTO dto) {
-        User user = userRepository.findById(userId).orElse(null);
+        UserRef user = entityCache.findUser(userId).orElse(null);
         if (user == null) {
             return ResponseEntity.notFound().build();
         }
-        if (user.isBanned()) {
+        if (user.banned()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
@@ -37,43 +50,141 @@ public class QuestionController {
         q.setTitle(dto.getTitle());
         q.setText(dto.getText());
         q.setPicture(dto.getPicture());
-        Question created = questionService.createQuestion(userId, q, dto.getTagNames());
-        return new ResponseEntity<>(created, HttpStatus.CREATED);
+        try {
+            Question created = questionService.createQuestion(userId, q, dto.getTagNames());
+            return new ResponseEntity<>(created, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping
-    public List<Question> getAll() {
+    public List<QuestionSummary> getAll() {
         return questionService.getAllSorted();
     }
 
+    /**
+     * Keyset-paginated feed; used instead of the full listing whenever {@code limit} is given.
+     * {@code sort} is {@code newest} (default), {@code votes} or {@code activity}.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<QuestionSummary>> getPage(
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        try {
+            return ResponseEntity.ok(questionService.getFeedPage(FeedSort.parse(sort), after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /** Questions ranked by recent votes, answers and status changes, with older activity decaying away. */
+    @GetMapping("/trending")
+    public List<QuestionSummary> getTrending(@RequestParam(value = "limit", required = false) Integer limit) {
+        return questionService.getTrending(limit);
+    }
+
+    /**
+     * Question detail with a strong ETag. Cached details are written out as stored bytes, gzipped
+     * when the client accepts it, with no SQL at all. Otherwise a matching If-None-Match gets 304
+     * after the version lookup, before the graph is loaded.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Question> getById(@PathVariable Long id) {
-        Question q = questionService.getQuestionById(id);
-        return q != null ? ResponseEntity.ok(q) : ResponseEntity.notFound().build();
+    public ResponseEntity<byte[]> getById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        QuestionDetailCache.Entry detail = questionDetailCache.get(id);
+        if (detail == null) {
+            long ticket = questionDetailCache.ticket(id);
+            Long version = questionService.getVersion(id);
+            if (version == null) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = ETags.of("q", id, version);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ETags.notModified(etag);
+            }
+            Question q = questionService.getQuestionDetail(id);
+            if (q == null) {
+                return ResponseEntity.notFound().build();
+            }
+            detail = questionDetailCache.put(id, version, q, ticket);
+        }
+        String etag = ETags.of("q", id, detail.version());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
+        boolean gzip = ETags.acceptsGzip(acceptEncoding);
+        return ETags.okJson(etag, gzip ? detail.gzip() : detail.json(), gzip);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Question>> getByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<QuestionSummary>> getByUser(@PathVariable Long userId) {
         if (!userRepository.existsById(userId)) {
             return ResponseEntity.notFound().build();
         }
         return ResponseEntity.ok(questionService.getByUser(userId));
     }
 
+    @GetMapping(value = "/user/{userId}", params = "limit")
+    public ResponseEntity<CursorPage<QuestionSummary>> getByUserPage(
+            @PathVariable Long userId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        if (!userRepository.existsById(userId)) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(questionService.getByUserPage(userId, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/search")
-    public List<Question> search(@RequestParam("q") String query) {
-        return questionService.searchByTitle(query);
+    public List<QuestionSummary> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        return questionService.search(query, page, size);
     }
 
+    /** {@code tag} is a tag name or a boolean expression, e.g. {@code java AND NOT "spring boot"}. */
     @GetMapping("/filter")
-    public List<Question> filterByTag(@RequestParam("tag") String tagName) {
-        return questionService.getByTag(tagName);
+    public ResponseEntity<List<QuestionSummary>> filterByTag(@RequestParam("tag") String tagName) {
+        try {
+            return ResponseEntity.ok(questionService.getByTag(tagName));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping(value = "/filter", params = "limit")
+    public ResponseEntity<CursorPage<QuestionSummary>> filterByTagPage(
+            @RequestParam("tag") String tagName,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam("limit") Integer limit) {
+        try {
+            return ResponseEntity.ok(questionService.getByTagPage(tagName, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Question> update(@PathVariable Long id, @RequestBody Question data) {
-        Question updated = questionService.updateQuestion(id, data);
-        return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+        try {
+            Question updated = questionService.updateQuestion(id, data);
+            return updated != null ? ResponseEntity.ok(updated) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{id}")
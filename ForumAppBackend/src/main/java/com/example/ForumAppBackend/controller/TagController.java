@@ -1,5 +1,6 @@
 package com.example.ForumAppBackend.controller;
 
+import com.example.ForumAppBackend.dto.TagSuggestion;
 import com.example.ForumAppBackend.entity.Tag;
 import com.example.ForumAppBackend.service.TagService;
 import com.example.ForumAppBackend.service.QuestionTagService;
@@ -33,6 +34,23 @@ public class TagController {
         return ResponseEntity.ok(tags);
     }
 
+    @GetMapping(params = "sort")
+    public ResponseEntity<List<Tag>> getSortedTags(
+            @RequestParam("sort") String sort,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (!"popular".equals(sort)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tagService.getPopularTags(limit));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TagSuggestion>> suggestTags(
+            @RequestParam(value = "prefix", defaultValue = "") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(tagService.suggest(prefix, limit));
+    }
+
     @GetMapping("/question/{questionId}")
     public ResponseEntity<List<Tag>> getTagsForQuestion(@PathVariable Long questionId) {
         List<Tag> tags = questionTagService.getTagsForQuestion(questionId);
@@ -1,21 +1,27 @@
 package com.example.ForumAppBackend.controller;
 
+import com.example.ForumAppBackend.dto.CursorPage;
+import com.example.ForumAppBackend.dto.LeaderboardEntry;
 import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.service.LeaderboardService;
 import com.example.ForumAppBackend.service.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
     private final UserService userService;
+    private final LeaderboardService leaderboardService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, LeaderboardService leaderboardService) {
         this.userService = userService;
+        this.leaderboardService = leaderboardService;
     }
 
     @PostMapping
@@ -29,6 +35,42 @@ public class UserController {
         return userService.getAllUsers();
     }
 
+    /** Users by descending reputation, keyset-paginated; pass the returned cursor back as {@code after}. */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<CursorPage<LeaderboardEntry>> getLeaderboard(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(leaderboardService.getPage(after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @GetMapping("/{id}/rank")
+    public ResponseEntity<LeaderboardEntry> getRank(@PathVariable Long id) {
+        try {
+            LeaderboardEntry entry = leaderboardService.getRank(id);
+            return entry != null ? ResponseEntity.ok(entry) : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /** Reputation of up to 100 users by id, e.g. the authors on a question page; unknown ids are left out. */
+    @GetMapping("/scores")
+    public ResponseEntity<Map<Long, Double>> getScores(@RequestParam("ids") List<Long> ids) {
+        try {
+            return ResponseEntity.ok(leaderboardService.getScores(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
         User u = userService.getUserById(id);
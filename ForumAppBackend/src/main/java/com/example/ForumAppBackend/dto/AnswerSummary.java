@@ -0,0 +1,48 @@
+package com.example.ForumAppBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An answer as listed under its question: the stored net vote score instead of the vote rows,
+ * and whether it is the accepted answer. The author comes without reputation, which is not part
+ * of the question version the listing's ETag is built from.
+ */
+@Getter
+public class AnswerSummary {
+    private final Long id;
+    private final Long questionId;
+    private final String text;
+    private final String picture;
+    private final LocalDateTime creationDateTime;
+    private final Author author;
+    private final long voteScore;
+    private final boolean accepted;
+
+    /** Vote deltas accepted by the write-behind vote pipeline but not yet flushed. */
+    @Setter
+    private long pendingVoteScore;
+
+    /** Constructor used by the JPQL projection in AnswerRepository. */
+    public AnswerSummary(Long id, Long questionId, String text, String picture, LocalDateTime creationDateTime,
+                         Long authorId, String authorName, Number voteScore, Long acceptedAnswerId) {
+        this.id = id;
+        this.questionId = questionId;
+        this.text = text;
+        this.picture = picture;
+        this.creationDateTime = creationDateTime;
+        this.author = authorId == null ? null : new Author(authorId, authorName);
+        this.voteScore = voteScore == null ? 0 : voteScore.longValue();
+        this.accepted = id.equals(acceptedAnswerId);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Author {
+        private Long id;
+        private String username;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ForumAppBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token to pass back
+ * as {@code after} to fetch the following page, or null when there are no more items.
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
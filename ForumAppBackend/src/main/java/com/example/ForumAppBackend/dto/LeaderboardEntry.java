@@ -0,0 +1,14 @@
+package com.example.ForumAppBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** A user's place on the reputation leaderboard; users with equal scores share a rank. */
+@Getter
+@AllArgsConstructor
+public class LeaderboardEntry {
+    private long rank;
+    private Long userId;
+    private String username;
+    private double score;
+}
@@ -0,0 +1,64 @@
+package com.example.ForumAppBackend.dto;
+
+import com.example.ForumAppBackend.entity.QuestionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read model for question listings: just what a list row shows, without the answers, votes
+ * and tag associations of the full {@link com.example.ForumAppBackend.entity.Question} graph.
+ */
+@Getter
+public class QuestionSummary {
+
+    /** Separator used to aggregate tag names into one column in the projection query. */
+    public static final String TAG_SEPARATOR = "\u001f";
+    public static final int EXCERPT_LENGTH = 200;
+
+    private final Long id;
+    private final String title;
+    private final String excerpt;
+    private final LocalDateTime creationDateTime;
+    private final LocalDateTime lastActivityAt;
+    private final QuestionStatus status;
+    private final Long acceptedAnswerId;
+    private final AuthorSummary author;
+    private final List<String> tagNames;
+    private final long voteScore;
+    private final long answerCount;
+
+    /** Constructor used by the JPQL projection in QuestionRepository. */
+    public QuestionSummary(Long id, String title, String text, LocalDateTime creationDateTime,
+                           LocalDateTime lastActivityAt, QuestionStatus status, Long acceptedAnswerId,
+                           Long authorId, String authorName, Number authorScore,
+                           Number voteScore, Number answerCount, String tagNames) {
+        this.id = id;
+        this.title = title;
+        this.excerpt = text != null && text.length() > EXCERPT_LENGTH
+                ? text.substring(0, EXCERPT_LENGTH) + "..."
+                : text;
+        this.creationDateTime = creationDateTime;
+        this.lastActivityAt = lastActivityAt;
+        this.status = status;
+        this.acceptedAnswerId = acceptedAnswerId;
+        this.author = authorId == null ? null
+                : new AuthorSummary(authorId, authorName, authorScore == null ? 0.0 : authorScore.doubleValue());
+        this.tagNames = tagNames == null || tagNames.isEmpty()
+                ? List.of()
+                : Arrays.asList(tagNames.split(TAG_SEPARATOR));
+        this.voteScore = voteScore == null ? 0 : voteScore.longValue();
+        this.answerCount = answerCount == null ? 0 : answerCount.longValue();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class AuthorSummary {
+        private Long id;
+        private String username;
+        private double score;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ForumAppBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** A tag offered by autocomplete, with the number of questions that use it. */
+@Getter
+@AllArgsConstructor
+public class TagSuggestion {
+    private Long id;
+    private String name;
+    private long usageCount;
+
+    /** Constructor used by the usage-count projection in TagRepository. */
+    public TagSuggestion(Long id, String name, Long usageCount) {
+        this(id, name, usageCount == null ? 0L : usageCount.longValue());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.ForumAppBackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** A tag whose stored usage count differs from the number of questions using it. */
+@Getter
+@AllArgsConstructor
+public class TagUsageDrift {
+    private Long tagId;
+    private long storedCount;
+    private long actualCount;
+
+    /** Constructor used by the drift projection in TagRepository. */
+    public TagUsageDrift(Long tagId, Long storedCount, Long actualCount) {
+        this(tagId, storedCount.longValue(), actualCount.longValue());
+    }
+
+    /** What the stored count is off by. */
+    public long getCorrection() {
+        return actualCount - storedCount;
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.ForumAppBackend.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "answers")
+@Table(name = "answers", indexes = {
+    @Index(name = "idx_answers_question_vote_score_id", columnList = "question_id, vote_score, id"),
+    @Index(name = "idx_answers_question_created_id", columnList = "question_id, creation_date_time, id")
+})
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,16 +34,35 @@ public class Answer {
     private LocalDateTime creationDateTime;
     private String picture;
 
+    /** Net vote total, changed only by atomic increments in AnswerRepository. */
+    @Column(name = "vote_score", nullable = false)
+    @ColumnDefault("0")
+    private long voteScore;
+
+    /** Vote deltas accepted by the write-behind vote pipeline but not yet flushed; never stored. */
+    @Transient
+    private long pendingVoteScore;
+
+    /** Bumped in the database by edits and votes; the ETag of this answer. */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long version;
+
     @ManyToOne
     @JoinColumn(name = "question_id")
     @JsonBackReference
     private Question question;
 
+    /** Only id and username; a rename bumps {@link #version}, reputation and account details are left out. */
     @ManyToOne
     @JoinColumn(name = "author_id")
+    @JsonIncludeProperties({"id", "username"})
     private User author;
 
+    /** Batched so a page of answers loads all of its votes in one statement. */
     @OneToMany(mappedBy = "answer", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @JsonManagedReference(value = "av-answer")
     private List<AnswerVote> votes = new ArrayList<>();
 
@@ -1,15 +1,26 @@
 package com.example.ForumAppBackend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "questions")
+@Table(name = "questions", indexes = {
+    @Index(name = "idx_questions_created_id", columnList = "creation_date_time, id"),
+    @Index(name = "idx_questions_author_created_id", columnList = "author_id, creation_date_time, id"),
+    @Index(name = "idx_questions_vote_score_id", columnList = "vote_score, id"),
+    @Index(name = "idx_questions_last_activity_id", columnList = "last_activity_at, id")
+})
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,6 +35,38 @@ public class Question {
     private String text;
     private LocalDateTime creationDateTime;
 
+    /*
+     * Denormalized counters, changed only by atomic in-database increments in QuestionRepository.
+     * @DynamicUpdate keeps a save of this entity from writing back a stale in-memory value.
+     */
+    @Column(name = "vote_score", nullable = false)
+    @ColumnDefault("0")
+    private long voteScore;
+
+    /** Vote deltas accepted by the write-behind vote pipeline but not yet flushed; never stored. */
+    @Transient
+    private long pendingVoteScore;
+
+    /**
+     * Bumped in the database by every change visible in the detail graph (edits, answers, votes,
+     * tags, and renames of the users it shows); the ETag of the question and its answer listings.
+     * Users appear in the graph by id and username only, so reputation and account changes
+     * elsewhere do not leave it stale. Not a JPA @Version: it is never checked on save, only
+     * incremented atomically like the counters above.
+     */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long version;
+
+    @Column(name = "answer_count", nullable = false)
+    @ColumnDefault("0")
+    private int answerCount;
+
+    /** Creation, edit or newest answer, whichever is latest. */
+    @Column(name = "last_activity_at")
+    private LocalDateTime lastActivityAt;
+
     @Enumerated(EnumType.STRING)
     private QuestionStatus status = QuestionStatus.RECEIVED;
 
@@ -32,8 +75,10 @@ public class Question {
 
     private String picture;
 
+    /** Only id and username; a rename bumps {@link #version}, reputation and account details are left out. */
     @ManyToOne
     @JoinColumn(name = "author_id")
+    @JsonIncludeProperties({"id", "username"})
     private User author;
 
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -41,10 +86,12 @@ public class Question {
     private List<Answer> answers = new ArrayList<>();
 
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @JsonManagedReference(value = "qt-question")
     private List<QuestionTag> questionTags = new ArrayList<>();
 
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     @JsonManagedReference(value = "qv-question")
     private List<QuestionVote> votes = new ArrayList<>();
 }
@@ -5,7 +5,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "question_tags")
+@Table(name = "question_tags", indexes = {
+    @Index(name = "idx_question_tags_tag_question", columnList = "tag_id, question_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -1,6 +1,7 @@
 package com.example.ForumAppBackend.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIncludeProperties;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -22,8 +23,10 @@ public class QuestionVote {
     @JsonBackReference(value = "qv-question")
     private Question question;
 
+    /** Only id and username, as for post authors. */
     @ManyToOne
     @JoinColumn(name = "voter_id", nullable = false)
+    @JsonIncludeProperties({"id", "username"})
     private User voter;
 
     private int value; // 1 for upvote, -1 for downvote
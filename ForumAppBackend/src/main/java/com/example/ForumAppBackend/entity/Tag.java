@@ -3,12 +3,17 @@ package com.example.ForumAppBackend.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "tags")
+@Table(name = "tags", indexes = {
+        @Index(name = "idx_tags_usage_count", columnList = "usage_count")
+})
+@BatchSize(size = 50)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,6 +26,11 @@ public class Tag {
     @Column(unique = true, nullable = false)
     private String name;
 
+    /** Number of questions carrying the tag, kept in step with question_tags. */
+    @Column(name = "usage_count", nullable = false)
+    @ColumnDefault("0")
+    private long usageCount;
+
     @OneToMany(mappedBy = "tag", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private List<QuestionTag> questionTags = new ArrayList<>();
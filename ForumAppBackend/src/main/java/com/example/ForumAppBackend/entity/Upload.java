@@ -0,0 +1,45 @@
+package com.example.ForumAppBackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadata of a stored upload, recorded once when the file is written so that serving it never
+ * has to probe the file. Uploads are named by the SHA-256 of their contents, so identical files
+ * are stored once and shared; the file is deleted when the last question or answer using it lets go.
+ */
+@Entity
+@Table(name = "uploads")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Upload {
+
+    @Id
+    private String filename;
+
+    /** Hex SHA-256 of the contents; null for files stored under random names before hashing. */
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private String contentType;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /** Comma-separated widths of the generated downscaled variants; null until generation has run. */
+    private String variantWidths;
+
+    /** Questions and answers whose picture this is; only changed by increments in UploadRepository. */
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long refCount;
+}
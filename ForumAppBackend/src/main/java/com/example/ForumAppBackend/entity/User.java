@@ -2,9 +2,13 @@ package com.example.ForumAppBackend.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
 @Table(name = "users")
+@BatchSize(size = 50)
+@DynamicUpdate
 @Getter
 @Setter
 @NoArgsConstructor
@@ -27,9 +31,14 @@ public class User {
     @Column(nullable = false)
     private boolean isBanned = false;
 
+    /** Reputation; only changed through UserRepository.adjustScore, so concurrent votes never overwrite each other. */
     @Column(nullable = false)
     private double score = 0.0;
 
+    /** Score deltas accepted by the write-behind vote pipeline but not yet flushed; never stored. */
+    @Transient
+    private double pendingScore;
+
     @Enumerated(EnumType.STRING)
     private Role role = Role.USER;
 
@@ -0,0 +1,26 @@
+package com.example.ForumAppBackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Highest segment of one vote journal whose deltas are already in the score columns. Written in
+ * the same transaction as the deltas, so a segment is never applied twice after a crash. Each
+ * instance journals to its own directory, so each journal has its own row.
+ */
+@Entity
+@Table(name = "vote_journals")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteJournalCheckpoint {
+
+    /** The journal's {@link com.example.ForumAppBackend.vote.VoteJournal#id()}. */
+    @Id
+    @Column(length = 36)
+    private String journalId;
+
+    @Column(nullable = false)
+    private long lastAppliedSegment;
+}
@@ -0,0 +1,37 @@
+package com.example.ForumAppBackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Marks a journaled vote as committed. Inserted by the voting transaction itself, so it exists
+ * exactly when the vote does, and deleted in the transaction that applies the vote's deltas. A
+ * replay trusts a journal record only when its mark is here.
+ */
+@Entity
+@Table(name = "vote_journal_commits")
+@IdClass(VoteJournalCommit.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteJournalCommit {
+
+    /** The journal's {@link com.example.ForumAppBackend.vote.VoteJournal#id()}. */
+    @Id
+    @Column(length = 36)
+    private String journalId;
+
+    @Id
+    private long recordId;
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String journalId;
+        private long recordId;
+    }
+}
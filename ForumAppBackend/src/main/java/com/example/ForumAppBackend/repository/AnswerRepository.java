@@ -1,11 +1,106 @@
 package com.example.ForumAppBackend.repository;
 
+import com.example.ForumAppBackend.dto.AnswerSummary;
 import com.example.ForumAppBackend.entity.Answer;
+import com.example.ForumAppBackend.search.AnswerText;
+import com.example.ForumAppBackend.service.PictureRef;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface AnswerRepository extends JpaRepository<Answer, Long> {
+
+    /** Shared select clause for {@link AnswerSummary} listings: the stored vote total, never the vote rows. */
+    String SUMMARY_SELECT = "select new com.example.ForumAppBackend.dto.AnswerSummary(" +
+            "a.id, q.id, a.text, a.picture, a.creationDateTime, u.id, u.username, " +
+            "a.voteScore, q.acceptedAnswerId) " +
+            "from Answer a join a.question q left join a.author u ";
+
+    /** Answers of one question other than the pinned (accepted) one; pass -1 when nothing is pinned. */
+    String OF_QUESTION = "where q.id = :questionId and a.id <> :pinnedId ";
+
+    String HIGHEST_SCORE = "order by a.voteScore desc, a.id desc";
+
+    String NEWEST_FIRST = "order by a.creationDateTime desc, a.id desc";
+
     List<Answer> findByQuestionIdOrderByCreationDateTimeDesc(Long questionId);
     List<Answer> findByAuthor_Id(Long authorId);
+    long countByPicture(String picture);
+
+    @Query(SUMMARY_SELECT + "where a.id = :id")
+    Optional<AnswerSummary> findSummaryById(@Param("id") Long id);
+
+    @Query(SUMMARY_SELECT + OF_QUESTION + HIGHEST_SCORE)
+    List<AnswerSummary> findSummariesByScore(@Param("questionId") Long questionId,
+                                             @Param("pinnedId") Long pinnedId,
+                                             Limit limit);
+
+    @Query(SUMMARY_SELECT + OF_QUESTION +
+            "and (a.voteScore < :score or (a.voteScore = :score and a.id < :id)) " + HIGHEST_SCORE)
+    List<AnswerSummary> findSummariesByScoreAfter(@Param("questionId") Long questionId,
+                                                  @Param("pinnedId") Long pinnedId,
+                                                  @Param("score") long voteScore,
+                                                  @Param("id") Long id,
+                                                  Limit limit);
+
+    @Query(SUMMARY_SELECT + OF_QUESTION + NEWEST_FIRST)
+    List<AnswerSummary> findSummariesNewest(@Param("questionId") Long questionId,
+                                            @Param("pinnedId") Long pinnedId,
+                                            Limit limit);
+
+    @Query(SUMMARY_SELECT + OF_QUESTION +
+            "and (a.creationDateTime < :ts or (a.creationDateTime = :ts and a.id < :id)) " + NEWEST_FIRST)
+    List<AnswerSummary> findSummariesNewestAfter(@Param("questionId") Long questionId,
+                                                 @Param("pinnedId") Long pinnedId,
+                                                 @Param("ts") LocalDateTime creationDateTime,
+                                                 @Param("id") Long id,
+                                                 Limit limit);
+
+    /** Answer texts of the given questions, for the search indexer */
+    @Query("select new com.example.ForumAppBackend.search.AnswerText(a.question.id, a.text) from Answer a " +
+            "where a.question.id in :questionIds")
+    List<AnswerText> findTextsByQuestionIds(@Param("questionIds") Collection<Long> questionIds);
+
+    @Query("select a.version from Answer a where a.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Answer a set a.version = a.version + 1 where a.id = :id")
+    int bumpVersion(@Param("id") Long id);
+
+    /** Bumps every answer showing the user, as author or voter */
+    @Modifying
+    @Query("update Answer a set a.version = a.version + 1 where a.author.id = :userId " +
+            "or exists (select 1 from AnswerVote v where v.answer = a and v.voter.id = :userId)")
+    int bumpVersionsShowing(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("update Answer a set a.voteScore = a.voteScore + :delta, a.version = a.version + 1 where a.id = :id")
+    int adjustVoteScore(@Param("id") Long id, @Param("delta") long delta);
+
+    /** Takes back every vote the user cast on answers, before those votes are deleted */
+    @Modifying
+    @Query("update Answer a set a.voteScore = a.voteScore - " +
+            "(select coalesce(sum(v.value), 0) from AnswerVote v where v.answer = a and v.voter.id = :voterId), " +
+            "a.version = a.version + 1 " +
+            "where exists (select 1 from AnswerVote v where v.answer = a and v.voter.id = :voterId)")
+    int revokeVotesBy(@Param("voterId") Long voterId);
+
+    /** Vote totals for answers of questions whose counters were never filled; run before QuestionRepository.backfillCounters */
+    @Modifying
+    @Query("update Answer a set a.voteScore = (select coalesce(sum(v.value), 0) from AnswerVote v where v.answer = a) " +
+            "where a.question.id in (select q.id from Question q where q.lastActivityAt is null)")
+    int backfillVoteScores();
+
+    /** One chunk of answer pictures in id order, after the given id, for the upload garbage collector */
+    @Query("select new com.example.ForumAppBackend.service.PictureRef(a.id, a.picture) from Answer a " +
+            "where a.picture is not null and a.id > :afterId order by a.id")
+    List<PictureRef> findPicturesAfter(@Param("afterId") Long afterId, Limit limit);
 }
@@ -1,24 +1,218 @@
 package com.example.ForumAppBackend.repository;
 
+import com.example.ForumAppBackend.dto.QuestionSummary;
 import com.example.ForumAppBackend.entity.Question;
+import com.example.ForumAppBackend.entity.QuestionStatus;
+import com.example.ForumAppBackend.search.QuestionText;
+import com.example.ForumAppBackend.service.PictureRef;
+import com.example.ForumAppBackend.service.QuestionRef;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface QuestionRepository extends JpaRepository<Question, Long> {
 
-    /** All questions, newest first */
-    List<Question> findAllByOrderByCreationDateTimeDesc();
+    /**
+     * Shared select clause for {@link QuestionSummary} listings: one row per question with the
+     * stored vote total and answer count, and tag names aggregated in the database.
+     */
+    String SUMMARY_SELECT = "select new com.example.ForumAppBackend.dto.QuestionSummary(" +
+            "q.id, q.title, substring(q.text, 1, " + (QuestionSummary.EXCERPT_LENGTH + 1) + "), " +
+            "q.creationDateTime, q.lastActivityAt, q.status, q.acceptedAnswerId, a.id, a.username, a.score, " +
+            "q.voteScore, q.answerCount, " +
+            "(select listagg(t.name, '" + QuestionSummary.TAG_SEPARATOR + "') within group (order by t.name) " +
+            "from QuestionTag qt join qt.tag t where qt.question = q)) " +
+            "from Question q left join q.author a ";
 
-    /** Questions by author, newest first */
-    List<Question> findByAuthor_IdOrderByCreationDateTimeDesc(Long authorId);
+    String AFTER_CURSOR = "(q.creationDateTime < :ts or (q.creationDateTime = :ts and q.id < :id)) ";
+
+    String NEWEST_FIRST = "order by q.creationDateTime desc, q.id desc";
+
+    /** Ids grow with creation time; tag listings order by id alone, as the tag bitmap index does */
+    String BEFORE_ID = "q.id < :id ";
+
+    String HIGHEST_ID_FIRST = "order by q.id desc";
+
+    String AFTER_SCORE = "(q.voteScore < :score or (q.voteScore = :score and q.id < :id)) ";
 
-    /** Search by title (ignore case) */
-    List<Question> findByTitleContainingIgnoreCase(String title);
+    String MOST_VOTED = "order by q.voteScore desc, q.id desc";
 
-    /** Filter by tag name, newest first */
-    List<Question> findByQuestionTags_Tag_NameOrderByCreationDateTimeDesc(String name);
+    String AFTER_ACTIVITY = "(q.lastActivityAt < :ts or (q.lastActivityAt = :ts and q.id < :id)) ";
+
+    String RECENTLY_ACTIVE = "order by q.lastActivityAt desc, q.id desc";
+
+    /**
+     * Question detail: author and answers (with their authors) in one joined select. The other
+     * collections are batch-fetched, so the whole graph loads in a fixed number of statements.
+     */
+    @EntityGraph(attributePaths = {"author", "answers", "answers.author"})
+    @Query("select q from Question q where q.id = :id")
+    Optional<Question> findDetailById(@Param("id") Long id);
+
+    /** Questions by author, newest first */
+    List<Question> findByAuthor_IdOrderByCreationDateTimeDesc(Long authorId);
 
     /** Questions that have acceptedAnswerId in the given list (e.g. before deleting those answers) */
     List<Question> findByAcceptedAnswerIdIn(java.util.Collection<Long> answerIds);
+
+    long countByPicture(String picture);
+
+    @Query("select new com.example.ForumAppBackend.service.QuestionRef(q.id, a.id, q.status, q.acceptedAnswerId) " +
+            "from Question q left join q.author a where q.id = :id")
+    Optional<QuestionRef> findRefById(@Param("id") Long id);
+
+    /** Moves the question to status {@code to} if it is still in {@code from}; returns 1 if it moved */
+    @Modifying
+    @Query("update Question q set q.status = :to, q.version = q.version + 1 where q.id = :id and q.status = :from")
+    int changeStatus(@Param("id") Long id, @Param("from") QuestionStatus from, @Param("to") QuestionStatus to);
+
+    /** Feed summaries, newest first (pass Limit.unlimited() for the whole feed) */
+    @Query(SUMMARY_SELECT + NEWEST_FIRST)
+    List<QuestionSummary> findSummaries(Limit limit);
+
+    /** Feed summaries strictly after the (creationDateTime, id) keyset position */
+    @Query(SUMMARY_SELECT + "where " + AFTER_CURSOR + NEWEST_FIRST)
+    List<QuestionSummary> findSummariesAfter(@Param("ts") LocalDateTime creationDateTime,
+                                             @Param("id") Long id,
+                                             Limit limit);
+
+    /** Feed summaries, highest vote score first */
+    @Query(SUMMARY_SELECT + MOST_VOTED)
+    List<QuestionSummary> findSummariesByVotes(Limit limit);
+
+    @Query(SUMMARY_SELECT + "where " + AFTER_SCORE + MOST_VOTED)
+    List<QuestionSummary> findSummariesByVotesAfter(@Param("score") long voteScore,
+                                                    @Param("id") Long id,
+                                                    Limit limit);
+
+    /** Feed summaries, most recently active first */
+    @Query(SUMMARY_SELECT + RECENTLY_ACTIVE)
+    List<QuestionSummary> findSummariesByActivity(Limit limit);
+
+    @Query(SUMMARY_SELECT + "where " + AFTER_ACTIVITY + RECENTLY_ACTIVE)
+    List<QuestionSummary> findSummariesByActivityAfter(@Param("ts") LocalDateTime lastActivityAt,
+                                                       @Param("id") Long id,
+                                                       Limit limit);
+
+    /** An author's question summaries, newest first */
+    @Query(SUMMARY_SELECT + "where a.id = :authorId " + NEWEST_FIRST)
+    List<QuestionSummary> findSummariesByAuthor(@Param("authorId") Long authorId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where a.id = :authorId and " + AFTER_CURSOR + NEWEST_FIRST)
+    List<QuestionSummary> findSummariesByAuthorAfter(@Param("authorId") Long authorId,
+                                                     @Param("ts") LocalDateTime creationDateTime,
+                                                     @Param("id") Long id,
+                                                     Limit limit);
+
+    /** Summaries of questions carrying the tag, highest id first like the tag bitmap index */
+    @Query(SUMMARY_SELECT + "where exists (select 1 from QuestionTag ft where ft.question = q and ft.tag.name = :name) " +
+            HIGHEST_ID_FIRST)
+    List<QuestionSummary> findSummariesByTag(@Param("name") String name, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where exists (select 1 from QuestionTag ft where ft.question = q and ft.tag.name = :name) " +
+            "and " + BEFORE_ID + HIGHEST_ID_FIRST)
+    List<QuestionSummary> findSummariesByTagBefore(@Param("name") String name, @Param("id") Long id, Limit limit);
+
+    /** Search summaries by title (ignore case), newest first; fallback while the search index is loading */
+    @Query(SUMMARY_SELECT + "where lower(q.title) like lower(concat('%', :title, '%')) " + NEWEST_FIRST)
+    List<QuestionSummary> searchSummariesByTitle(@Param("title") String title, Limit limit);
+
+    /** Summaries for the given ids, in no particular order */
+    @Query(SUMMARY_SELECT + "where q.id in :ids")
+    List<QuestionSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    /** Title and text of questions with ids in (afterId, maxId], ascending, for index rebuilds */
+    @Query("select new com.example.ForumAppBackend.search.QuestionText(q.id, q.title, q.text) from Question q " +
+            "where q.id > :afterId and q.id <= :maxId order by q.id")
+    List<QuestionText> findTextsInRange(@Param("afterId") long afterId, @Param("maxId") long maxId, Limit limit);
+
+    @Query("select new com.example.ForumAppBackend.search.QuestionText(q.id, q.title, q.text) from Question q where q.id = :id")
+    Optional<QuestionText> findTextById(@Param("id") Long id);
+
+    @Query("select coalesce(max(q.id), 0) from Question q")
+    long findMaxId();
+
+    @Query("select q.id from Question q")
+    Stream<Long> streamAllIds();
+
+    /** The question's version, read before deciding whether to load the graph at all */
+    @Query("select q.version from Question q where q.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Question q set q.version = q.version + 1 where q.id = :id")
+    int bumpVersion(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Question q set q.voteScore = q.voteScore + :delta, q.version = q.version + 1 where q.id = :id")
+    int adjustVoteScore(@Param("id") Long id, @Param("delta") long delta);
+
+    @Modifying
+    @Query("update Question q set q.answerCount = q.answerCount + 1, q.lastActivityAt = :at, " +
+            "q.version = q.version + 1 where q.id = :id")
+    int recordAnswerAdded(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Query("update Question q set q.answerCount = q.answerCount - 1, q.version = q.version + 1 where q.id = :id")
+    int recordAnswerRemoved(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Question q set q.lastActivityAt = :at, q.version = q.version + 1 where q.id = :id")
+    int touch(@Param("id") Long id, @Param("at") LocalDateTime at);
+
+    /** Takes back every vote the user cast on questions, before those votes are deleted */
+    @Modifying
+    @Query("update Question q set q.voteScore = q.voteScore - " +
+            "(select coalesce(sum(v.value), 0) from QuestionVote v where v.question = q and v.voter.id = :voterId), " +
+            "q.version = q.version + 1 " +
+            "where exists (select 1 from QuestionVote v where v.question = q and v.voter.id = :voterId)")
+    int revokeVotesBy(@Param("voterId") Long voterId);
+
+    /** Bumps questions whose answers carry the user's votes, before those votes are revoked */
+    @Modifying
+    @Query("update Question q set q.version = q.version + 1 " +
+            "where exists (select 1 from AnswerVote v where v.answer.question = q and v.voter.id = :voterId)")
+    int bumpVersionsForAnswerVotesBy(@Param("voterId") Long voterId);
+
+    /** Bumps every question whose detail shows the user: as author, voter, answer author or answer voter */
+    @Modifying
+    @Query("update Question q set q.version = q.version + 1 where q.author.id = :userId " +
+            "or exists (select 1 from QuestionVote v where v.question = q and v.voter.id = :userId) " +
+            "or exists (select 1 from Answer ans where ans.question = q and ans.author.id = :userId) " +
+            "or exists (select 1 from AnswerVote v where v.answer.question = q and v.voter.id = :userId)")
+    int bumpVersionsShowing(@Param("userId") Long userId);
+
+    /** Discounts the user's answers from other questions' answer counts, before those answers are deleted */
+    @Modifying
+    @Query("update Question q set q.answerCount = q.answerCount - " +
+            "(select count(ans) from Answer ans where ans.question = q and ans.author.id = :authorId), " +
+            "q.version = q.version + 1 " +
+            "where exists (select 1 from Answer ans where ans.question = q and ans.author.id = :authorId)")
+    int discountAnswersBy(@Param("authorId") Long authorId);
+
+    /**
+     * Fills the counters of rows written before they existed (recognisable by a null
+     * lastActivityAt), counting votes and answers once.
+     */
+    @Modifying
+    @Query("update Question q set " +
+            "q.voteScore = (select coalesce(sum(v.value), 0) from QuestionVote v where v.question = q), " +
+            "q.answerCount = (select count(ans) from Answer ans where ans.question = q), " +
+            "q.lastActivityAt = coalesce((select max(ans.creationDateTime) from Answer ans where ans.question = q), q.creationDateTime) " +
+            "where q.lastActivityAt is null")
+    int backfillCounters();
+
+    /** One chunk of question pictures in id order, after the given id, for the upload garbage collector */
+    @Query("select new com.example.ForumAppBackend.service.PictureRef(q.id, q.picture) from Question q " +
+            "where q.picture is not null and q.id > :afterId order by q.id")
+    List<PictureRef> findPicturesAfter(@Param("afterId") Long afterId, Limit limit);
 }
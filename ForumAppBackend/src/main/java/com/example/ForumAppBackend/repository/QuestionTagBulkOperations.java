@@ -0,0 +1,12 @@
+package com.example.ForumAppBackend.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+public interface QuestionTagBulkOperations {
+
+    /** Links the question to all the tags in a single multi-row insert. */
+    @Transactional
+    void insertAll(Long questionId, Collection<Long> tagIds);
+}
@@ -0,0 +1,29 @@
+package com.example.ForumAppBackend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Collection;
+import java.util.Collections;
+
+class QuestionTagBulkOperationsImpl implements QuestionTagBulkOperations {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(Long questionId, Collection<Long> tagIds) {
+        if (tagIds.isEmpty()) {
+            return;
+        }
+        Query insert = entityManager.createNativeQuery("insert into question_tags (question_id, tag_id) values "
+                + String.join(", ", Collections.nCopies(tagIds.size(), "(?, ?)")));
+        int position = 1;
+        for (Long tagId : tagIds) {
+            insert.setParameter(position++, questionId);
+            insert.setParameter(position++, tagId);
+        }
+        insert.executeUpdate();
+    }
+}
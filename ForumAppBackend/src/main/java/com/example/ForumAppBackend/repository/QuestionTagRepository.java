@@ -3,11 +3,18 @@ package com.example.ForumAppBackend.repository;
 import com.example.ForumAppBackend.entity.Question;
 import com.example.ForumAppBackend.entity.QuestionTag;
 import com.example.ForumAppBackend.entity.Tag;
+import com.example.ForumAppBackend.search.TagPosting;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface QuestionTagRepository extends JpaRepository<QuestionTag, Long> {
+public interface QuestionTagRepository extends JpaRepository<QuestionTag, Long>, QuestionTagBulkOperations {
     List<QuestionTag> findByQuestionId(Long questionId);
-    void deleteByQuestionAndTag(Question question, Tag tag);
+    long deleteByQuestionAndTag(Question question, Tag tag);
+
+    /** Every (tag name, question id) pair, streamed for loading the tag bitmap index */
+    @Query("select new com.example.ForumAppBackend.search.TagPosting(qt.tag.name, qt.question.id) from QuestionTag qt")
+    Stream<TagPosting> streamPostings();
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.ForumAppBackend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Applies coalesced score deltas as JDBC batches: one round trip per table however many rows
+ * change. Rows are updated in id order so concurrent flushes and votes lock them consistently.
+ */
+@Repository
+public class ScoreBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScoreBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void addToUserScores(SortedMap<Long, Double> deltas) {
+        batch("update users set score = score + ? where id = ?", deltas);
+    }
+
+    public void addToQuestionVoteScores(SortedMap<Long, Long> deltas) {
+        batch("update questions set vote_score = vote_score + ?, version = version + 1 where id = ?", deltas);
+    }
+
+    public void addToAnswerVoteScores(SortedMap<Long, Long> deltas) {
+        batch("update answers set vote_score = vote_score + ?, version = version + 1 where id = ?", deltas);
+        // Answer scores are part of their question's detail graph, so its version moves too
+        bump("update questions set version = version + 1 where id = (select question_id from answers where id = ?)",
+                deltas.keySet());
+    }
+
+    private void bump(String sql, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new Object[]{id});
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    private void batch(String sql, SortedMap<Long, ? extends Number> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, ? extends Number> entry : deltas.entrySet()) {
+            rows.add(new Object[]{entry.getValue(), entry.getKey()});
+        }
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ForumAppBackend.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface TagBulkOperations {
+
+    /**
+     * Ids of the named tags, inserting the missing ones. Costs two statements whatever the
+     * number of names, and is safe when concurrent requests create the same tag. Names a
+     * rolled-back concurrent insert left out are tried again, a few times, before this throws
+     * {@link IllegalStateException} rather than returning fewer ids than names.
+     */
+    @Transactional
+    Map<String, Long> upsertByNames(Collection<String> names);
+}
@@ -0,0 +1,64 @@
+package com.example.ForumAppBackend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class TagBulkOperationsImpl implements TagBulkOperations {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Rounds of insert and select before a name that keeps vanishing is reported. */
+    private static final int ATTEMPTS = 3;
+
+    @Override
+    public Map<String, Long> upsertByNames(Collection<String> names) {
+        // Sorted, so concurrent requests lock the unique index entries in the same order
+        List<String> missing = names.stream().distinct().sorted().toList();
+        Map<String, Long> ids = new HashMap<>();
+        for (int attempt = 0; attempt < ATTEMPTS && !missing.isEmpty(); attempt++) {
+            insertMissing(missing);
+            ids.putAll(select(missing));
+            // A name is still missing when the transaction we waited on inserted it and then rolled back
+            missing = missing.stream().filter(name -> !ids.containsKey(name)).toList();
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Could not create tags " + missing);
+        }
+        return ids;
+    }
+
+    private void insertMissing(List<String> names) {
+        // A concurrent insert of the same name makes ours wait for it and then do nothing
+        Query insert = entityManager.createNativeQuery("insert into tags (name, usage_count) values "
+                + String.join(", ", Collections.nCopies(names.size(), "(?, 0)"))
+                + " on conflict do nothing");
+        bind(insert, names);
+        insert.executeUpdate();
+    }
+
+    private Map<String, Long> select(List<String> names) {
+        Query select = entityManager.createNativeQuery("select id, name from tags where name in ("
+                + String.join(", ", Collections.nCopies(names.size(), "?")) + ")");
+        bind(select, names);
+        Map<String, Long> ids = new HashMap<>();
+        for (Object row : select.getResultList()) {
+            Object[] columns = (Object[]) row;
+            ids.put((String) columns[1], ((Number) columns[0]).longValue());
+        }
+        return ids;
+    }
+
+    private static void bind(Query query, List<String> names) {
+        for (int i = 0; i < names.size(); i++) {
+            query.setParameter(i + 1, names.get(i));
+        }
+    }
+}
@@ -1,10 +1,48 @@
 package com.example.ForumAppBackend.repository;
 
+import com.example.ForumAppBackend.dto.TagSuggestion;
+import com.example.ForumAppBackend.dto.TagUsageDrift;
 import com.example.ForumAppBackend.entity.Tag;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface TagRepository extends JpaRepository<Tag, Long> {
+public interface TagRepository extends JpaRepository<Tag, Long>, TagBulkOperations {
     Optional<Tag> findByName(String name);
+
+    /** Every tag with its materialized usage count */
+    @Query("select new com.example.ForumAppBackend.dto.TagSuggestion(t.id, t.name, t.usageCount) from Tag t")
+    List<TagSuggestion> findSuggestions();
+
+    /** Tags whose stored usage count differs from the number of question_tags rows using them */
+    @Query("select new com.example.ForumAppBackend.dto.TagUsageDrift(t.id, t.usageCount, " +
+            "(select count(qt) from QuestionTag qt where qt.tag = t)) from Tag t " +
+            "where t.usageCount <> (select count(qt) from QuestionTag qt where qt.tag = t)")
+    List<TagUsageDrift> findUsageDrift();
+
+    List<Tag> findAllByOrderByUsageCountDescNameAsc(Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update Tag t set t.usageCount = t.usageCount + :delta where t.id = :id")
+    int adjustUsageCount(@Param("id") Long id, @Param("delta") long delta);
+
+    @Transactional
+    @Modifying
+    @Query("update Tag t set t.usageCount = t.usageCount + :delta where t.id in :ids")
+    int adjustUsageCounts(@Param("ids") Collection<Long> ids, @Param("delta") long delta);
+
+    /** Recounts every usage count from question_tags in one statement, writing only the drifted rows. */
+    @Transactional
+    @Modifying
+    @Query(value = "update tags t set usage_count = (select count(*) from question_tags qt where qt.tag_id = t.id) " +
+            "where t.usage_count <> (select count(*) from question_tags qt where qt.tag_id = t.id)", nativeQuery = true)
+    int reconcileUsageCounts();
 }
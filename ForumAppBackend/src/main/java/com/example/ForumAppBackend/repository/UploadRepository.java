@@ -0,0 +1,32 @@
+package com.example.ForumAppBackend.repository;
+
+import com.example.ForumAppBackend.entity.Upload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface UploadRepository extends JpaRepository<Upload, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update Upload u set u.variantWidths = :widths where u.filename = :filename")
+    int setVariantWidths(@Param("filename") String filename, @Param("widths") String widths);
+
+    @Modifying
+    @Query("update Upload u set u.refCount = u.refCount + :delta where u.filename = :filename")
+    int adjustRefCount(@Param("filename") String filename, @Param("delta") long delta);
+
+    /** Removes the row only if nothing references the upload any more; 1 means the file may go. */
+    @Modifying
+    @Query("delete from Upload u where u.filename = :filename and u.refCount <= 0")
+    int deleteIfUnreferenced(@Param("filename") String filename);
+
+    /** Recounts every upload's references from the question and answer pictures. */
+    @Modifying
+    @Query("update Upload u set u.refCount = " +
+            "(select count(q) from Question q where q.picture = u.filename) + " +
+            "(select count(a) from Answer a where a.picture = u.filename)")
+    int recountReferences();
+}
@@ -1,10 +1,37 @@
 package com.example.ForumAppBackend.repository;
 
 import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.search.UserScore;
+import com.example.ForumAppBackend.service.UserRef;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    String REF_SELECT = "select new com.example.ForumAppBackend.service.UserRef(" +
+            "u.id, u.username, u.email, u.isBanned, u.role) from User u ";
+
+    @Query(REF_SELECT + "where u.id = :id")
+    Optional<UserRef> findRefById(@Param("id") Long id);
+
+    @Query(REF_SELECT + "where u.email = :email")
+    Optional<UserRef> findRefByEmail(@Param("email") String email);
+
+    /** Every user's score, streamed for loading the leaderboard */
+    @Query("select new com.example.ForumAppBackend.search.UserScore(u.id, u.score) from User u")
+    Stream<UserScore> streamScores();
+
+    /**
+     * Adds to the user's score in one atomic statement. Vote deltas are multiples of 0.5,
+     * which a double represents exactly, so sums never drift.
+     */
+    @Modifying
+    @Query("update User u set u.score = u.score + :delta where u.id = :id")
+    int adjustScore(@Param("id") Long id, @Param("delta") double delta);
 }
@@ -0,0 +1,7 @@
+package com.example.ForumAppBackend.repository;
+
+import com.example.ForumAppBackend.entity.VoteJournalCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface VoteJournalCheckpointRepository extends JpaRepository<VoteJournalCheckpoint, String> {
+}
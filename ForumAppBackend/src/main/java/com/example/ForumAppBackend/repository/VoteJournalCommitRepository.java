@@ -0,0 +1,48 @@
+package com.example.ForumAppBackend.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/** Commit marks of journaled votes, written with plain JDBC so a vote pays one insert for its mark. */
+@Repository
+public class VoteJournalCommitRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VoteJournalCommitRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Call in the voting transaction, so the mark commits or rolls back with the vote. */
+    public void markCommitted(String journalId, long recordId) {
+        jdbcTemplate.update("insert into vote_journal_commits (journal_id, record_id) values (?, ?)",
+                journalId, recordId);
+    }
+
+    public Set<Long> findRecordIds(String journalId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select record_id from vote_journal_commits where journal_id = ?", Long.class, journalId));
+    }
+
+    /** Drops the marks of records whose deltas are applied; one batch however many there are. */
+    public void delete(String journalId, Collection<Long> recordIds) {
+        if (recordIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(recordIds.size());
+        for (Long recordId : recordIds) {
+            rows.add(new Object[]{journalId, recordId});
+        }
+        jdbcTemplate.batchUpdate("delete from vote_journal_commits where journal_id = ? and record_id = ?", rows);
+    }
+
+    public void deleteAll(String journalId) {
+        jdbcTemplate.update("delete from vote_journal_commits where journal_id = ?", journalId);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.ForumAppBackend.search;
+
+/** Text of one answer together with the question it belongs to, as read by the indexer. */
+public record AnswerText(Long questionId, String text) {
+}
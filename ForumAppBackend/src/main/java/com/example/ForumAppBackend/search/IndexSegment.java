@@ -0,0 +1,239 @@
+package com.example.ForumAppBackend.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An immutable slice of the inverted index. Documents are addressed by a dense ordinal
+ * (their position in the ascending {@code docIds} array), which keeps postings small and
+ * lets doc length and deletion lookups be plain array reads. The only mutable state is the
+ * deletion bitmap, set when a newer segment supersedes a document or it is removed.
+ */
+final class IndexSegment {
+
+    private final long[] docIds;
+    private final int[] lengths;
+    private final Map<String, PostingList> postings;
+    private final AtomicLongArray deleted;
+    private final AtomicInteger liveCount;
+    private final AtomicLong liveLength;
+
+    private IndexSegment(long[] docIds, int[] lengths, Map<String, PostingList> postings) {
+        this.docIds = docIds;
+        this.lengths = lengths;
+        this.postings = postings;
+        this.deleted = new AtomicLongArray((docIds.length + 63) >>> 6);
+        this.liveCount = new AtomicInteger(docIds.length);
+        long total = 0;
+        for (int length : lengths) {
+            total += length;
+        }
+        this.liveLength = new AtomicLong(total);
+    }
+
+    int docCount() {
+        return docIds.length;
+    }
+
+    int liveCount() {
+        return liveCount.get();
+    }
+
+    long liveLength() {
+        return liveLength.get();
+    }
+
+    long docId(int ordinal) {
+        return docIds[ordinal];
+    }
+
+    int length(int ordinal) {
+        return lengths[ordinal];
+    }
+
+    PostingList postings(String term) {
+        return postings.get(term);
+    }
+
+    boolean isDeleted(int ordinal) {
+        return (deleted.get(ordinal >>> 6) & (1L << ordinal)) != 0;
+    }
+
+    /** Marks the document deleted in this segment; returns false if it is not here or already deleted. */
+    boolean delete(long docId) {
+        int ordinal = Arrays.binarySearch(docIds, docId);
+        if (ordinal < 0) {
+            return false;
+        }
+        int word = ordinal >>> 6;
+        long mask = 1L << ordinal;
+        long current;
+        do {
+            current = deleted.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!deleted.compareAndSet(word, current, current | mask));
+        liveCount.decrementAndGet();
+        liveLength.addAndGet(-lengths[ordinal]);
+        return true;
+    }
+
+    /** Merges the live documents of several segments into one new segment without deletions. */
+    static IndexSegment merge(List<IndexSegment> segments) {
+        int live = 0;
+        for (IndexSegment segment : segments) {
+            live += segment.liveCount();
+        }
+        // (docId, segment, old ordinal) of every live document, sorted by docId
+        long[] ids = new long[live];
+        int[] owner = new int[live];
+        int[] oldOrdinal = new int[live];
+        Integer[] order = new Integer[live];
+        int n = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            IndexSegment segment = segments.get(s);
+            for (int ord = 0; ord < segment.docCount(); ord++) {
+                if (!segment.isDeleted(ord)) {
+                    ids[n] = segment.docId(ord);
+                    owner[n] = s;
+                    oldOrdinal[n] = ord;
+                    order[n] = n;
+                    n++;
+                }
+            }
+        }
+        Arrays.sort(order, 0, n, (a, b) -> Long.compare(ids[a], ids[b]));
+
+        long[] docIds = new long[n];
+        int[] lengths = new int[n];
+        int[][] remap = new int[segments.size()][];
+        for (int s = 0; s < segments.size(); s++) {
+            remap[s] = new int[segments.get(s).docCount()];
+            Arrays.fill(remap[s], -1);
+        }
+        for (int newOrd = 0; newOrd < n; newOrd++) {
+            int i = order[newOrd];
+            docIds[newOrd] = ids[i];
+            lengths[newOrd] = segments.get(owner[i]).length(oldOrdinal[i]);
+            remap[owner[i]][oldOrdinal[i]] = newOrd;
+        }
+
+        Set<String> terms = new TreeSet<>();
+        for (IndexSegment segment : segments) {
+            terms.addAll(segment.postings.keySet());
+        }
+        Map<String, PostingList> merged = new HashMap<>(terms.size() * 2);
+        long[] packed = new long[16];
+        for (String term : terms) {
+            int count = 0;
+            for (int s = 0; s < segments.size(); s++) {
+                PostingList list = segments.get(s).postings(term);
+                if (list == null) {
+                    continue;
+                }
+                PostingList.Cursor cursor = list.cursor();
+                while (cursor.next()) {
+                    int newOrd = remap[s][cursor.ordinal()];
+                    if (newOrd >= 0) {
+                        if (count == packed.length) {
+                            packed = Arrays.copyOf(packed, count * 2);
+                        }
+                        packed[count++] = ((long) newOrd << 32) | cursor.frequency();
+                    }
+                }
+            }
+            if (count == 0) {
+                continue;
+            }
+            Arrays.sort(packed, 0, count);
+            PostingList.Builder builder = new PostingList.Builder();
+            for (int i = 0; i < count; i++) {
+                builder.add((int) (packed[i] >>> 32), (int) packed[i]);
+            }
+            merged.put(term, builder.build());
+        }
+        return new IndexSegment(docIds, lengths, merged);
+    }
+
+    /** Writes the segment; callers merge first so that deleted documents are not persisted. */
+    void writeTo(DataOutput out) throws IOException {
+        if (liveCount() != docCount()) {
+            throw new IllegalStateException("Merge the segment before writing it");
+        }
+        out.writeInt(docIds.length);
+        for (int i = 0; i < docIds.length; i++) {
+            out.writeLong(docIds[i]);
+            out.writeInt(lengths[i]);
+        }
+        out.writeInt(postings.size());
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    static IndexSegment readFrom(DataInput in) throws IOException {
+        int docCount = in.readInt();
+        long[] docIds = new long[docCount];
+        int[] lengths = new int[docCount];
+        for (int i = 0; i < docCount; i++) {
+            docIds[i] = in.readLong();
+            lengths[i] = in.readInt();
+        }
+        int termCount = in.readInt();
+        Map<String, PostingList> postings = new HashMap<>(termCount * 2);
+        for (int i = 0; i < termCount; i++) {
+            postings.put(in.readUTF(), PostingList.readFrom(in));
+        }
+        return new IndexSegment(docIds, lengths, postings);
+    }
+
+    /** Collects analyzed documents and freezes them into a segment. */
+    static final class Builder {
+
+        private final int titleBoost;
+        private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+
+        Builder(int titleBoost) {
+            this.titleBoost = titleBoost;
+        }
+
+        /** Adds a document; adding the same question twice keeps the later version. */
+        Builder add(SearchDocument document) {
+            documents.put(document.questionId(), TextAnalyzer.termFrequencies(document, titleBoost));
+            return this;
+        }
+
+        IndexSegment build() {
+            List<Long> ids = new ArrayList<>(documents.keySet());
+            ids.sort(null);
+            long[] docIds = new long[ids.size()];
+            int[] lengths = new int[ids.size()];
+            Map<String, PostingList.Builder> builders = new HashMap<>();
+            for (int ord = 0; ord < ids.size(); ord++) {
+                docIds[ord] = ids.get(ord);
+                int length = 0;
+                for (Map.Entry<String, Integer> entry : documents.get(ids.get(ord)).entrySet()) {
+                    builders.computeIfAbsent(entry.getKey(), t -> new PostingList.Builder()).add(ord, entry.getValue());
+                    length += entry.getValue();
+                }
+                lengths[ord] = length;
+            }
+            Map<String, PostingList> postings = new HashMap<>(builders.size() * 2);
+            builders.forEach((term, builder) -> postings.put(term, builder.build()));
+            return new IndexSegment(docIds, lengths, postings);
+        }
+    }
+}
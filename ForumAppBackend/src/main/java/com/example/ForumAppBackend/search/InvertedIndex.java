@@ -0,0 +1,258 @@
+package com.example.ForumAppBackend.search;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory inverted index over questions, ranked with BM25.
+ *
+ * <p>The index is a list of immutable {@link IndexSegment}s published through a volatile
+ * field, so searches never lock. Every write builds a small new segment and marks the
+ * previous version of the document deleted in older segments; segments of similar size
+ * are merged once {@value #MERGE_FACTOR} of them accumulate, which keeps both the segment
+ * count and the amortized cost of an update logarithmic in the index size.
+ */
+public final class InvertedIndex {
+
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+    static final int MERGE_FACTOR = 10;
+
+    private static final int MAGIC = 0x46494458; // "FIDX"
+    /** 2: single-letter terms are indexed. */
+    private static final int VERSION = 2;
+
+    private static final Comparator<SearchHit> WORST_FIRST = Comparator
+            .comparingDouble(SearchHit::score)
+            .thenComparingLong(SearchHit::questionId);
+
+    private final int titleBoost;
+    private volatile List<IndexSegment> segments = List.of();
+
+    public InvertedIndex(int titleBoost) {
+        this.titleBoost = titleBoost;
+    }
+
+    public int documentCount() {
+        int count = 0;
+        for (IndexSegment segment : segments) {
+            count += segment.liveCount();
+        }
+        return count;
+    }
+
+    /** Adds or replaces a document. */
+    public synchronized void index(SearchDocument document) {
+        IndexSegment segment = new IndexSegment.Builder(titleBoost).add(document).build();
+        // Delete before publishing: a concurrent search may briefly miss the document but never sees it twice.
+        for (IndexSegment existing : segments) {
+            existing.delete(document.questionId());
+        }
+        publish(segment);
+    }
+
+    public synchronized void remove(long questionId) {
+        for (IndexSegment segment : segments) {
+            segment.delete(questionId);
+        }
+    }
+
+    /** Swaps in a freshly built set of segments, e.g. after a full rebuild. */
+    public synchronized void replaceAll(List<IndexSegment> fresh) {
+        segments = List.copyOf(fresh);
+        mergeIfNeeded();
+    }
+
+    /**
+     * Ranks documents by the BM25 sum over the query terms (any term may match) and returns
+     * hits {@code offset} to {@code offset + limit}, best first; ties favour newer questions.
+     */
+    public List<SearchHit> search(String query, int offset, int limit) {
+        List<String> terms = TextAnalyzer.tokenize(query).stream().distinct().toList();
+        List<IndexSegment> snapshot = segments;
+        if (terms.isEmpty() || snapshot.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        long docCount = 0;
+        long totalLength = 0;
+        for (IndexSegment segment : snapshot) {
+            docCount += segment.liveCount();
+            totalLength += segment.liveLength();
+        }
+        if (docCount == 0) {
+            return List.of();
+        }
+        float avgLength = (float) totalLength / docCount;
+
+        // Document frequency counts postings of deleted documents until their segment is merged, as Lucene does.
+        float[] idf = new float[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            long df = 0;
+            for (IndexSegment segment : snapshot) {
+                PostingList list = segment.postings(terms.get(t));
+                df += list == null ? 0 : list.size();
+            }
+            idf[t] = df == 0 ? 0f : (float) Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+        }
+
+        int wanted = offset + limit;
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(Math.min(wanted, 1024) + 1, WORST_FIRST);
+        for (IndexSegment segment : snapshot) {
+            collect(segment, terms, idf, avgLength, wanted, top);
+        }
+
+        List<SearchHit> ranked = new ArrayList<>(top);
+        ranked.sort(WORST_FIRST.reversed());
+        return offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size());
+    }
+
+    /**
+     * Scores the segment document at a time: the query terms' postings are walked together in
+     * ordinal order and each document's BM25 sum is complete when the cursors move past it, so
+     * no per-document accumulator is needed whatever the segment size.
+     */
+    private static void collect(IndexSegment segment, List<String> terms, float[] idf, float avgLength,
+                                int wanted, PriorityQueue<SearchHit> top) {
+        PostingList.Cursor[] cursors = new PostingList.Cursor[terms.size()];
+        for (int t = 0; t < terms.size(); t++) {
+            PostingList list = segment.postings(terms.get(t));
+            if (list != null) {
+                PostingList.Cursor cursor = list.cursor();
+                cursors[t] = cursor.next() ? cursor : null;
+            }
+        }
+        while (true) {
+            int ord = Integer.MAX_VALUE;
+            for (PostingList.Cursor cursor : cursors) {
+                if (cursor != null && cursor.ordinal() < ord) {
+                    ord = cursor.ordinal();
+                }
+            }
+            if (ord == Integer.MAX_VALUE) {
+                return;
+            }
+            boolean live = !segment.isDeleted(ord);
+            float norm = K1 * (1 - B + B * segment.length(ord) / avgLength);
+            float score = 0f;
+            for (int t = 0; t < cursors.length; t++) {
+                PostingList.Cursor cursor = cursors[t];
+                if (cursor == null || cursor.ordinal() != ord) {
+                    continue;
+                }
+                float tf = cursor.frequency();
+                score += idf[t] * tf * (K1 + 1) / (tf + norm);
+                if (!cursor.next()) {
+                    cursors[t] = null;
+                }
+            }
+            if (live) {
+                offer(top, wanted, segment.docId(ord), score);
+            }
+        }
+    }
+
+    private static void offer(PriorityQueue<SearchHit> top, int wanted, long docId, float score) {
+        if (top.size() < wanted) {
+            top.add(new SearchHit(docId, score));
+            return;
+        }
+        SearchHit worst = top.peek();
+        if (score > worst.score() || (score == worst.score() && docId > worst.questionId())) {
+            top.poll();
+            top.add(new SearchHit(docId, score));
+        }
+    }
+
+    /** Merges everything into one segment and writes it atomically to {@code file}. */
+    public synchronized void compactAndWrite(Path file) throws IOException {
+        IndexSegment merged = IndexSegment.merge(segments);
+        segments = List.of(merged);
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            merged.writeTo(out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Replaces the contents with a snapshot written by {@link #compactAndWrite(Path)}. */
+    public synchronized void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unrecognized search index file " + file);
+            }
+            segments = List.of(IndexSegment.readFrom(in));
+        }
+    }
+
+    IndexSegment.Builder newSegmentBuilder() {
+        return new IndexSegment.Builder(titleBoost);
+    }
+
+    private void publish(IndexSegment segment) {
+        List<IndexSegment> next = new ArrayList<>(segments.size() + 1);
+        next.addAll(segments);
+        next.add(segment);
+        segments = List.copyOf(next);
+        mergeIfNeeded();
+    }
+
+    /**
+     * Tiered merging: segments are grouped by order of magnitude of their size. Empty segments
+     * are dropped and mostly-deleted ones rewritten so that deleted postings do not pile up.
+     */
+    private void mergeIfNeeded() {
+        List<IndexSegment> cleaned = new ArrayList<>(segments.size());
+        for (IndexSegment segment : segments) {
+            if (segment.liveCount() == 0) {
+                continue;
+            }
+            boolean mostlyDeleted = segment.docCount() >= MERGE_FACTOR && segment.liveCount() * 2 < segment.docCount();
+            cleaned.add(mostlyDeleted ? IndexSegment.merge(List.of(segment)) : segment);
+        }
+        segments = List.copyOf(cleaned);
+
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            Map<Integer, List<IndexSegment>> tiers = new HashMap<>();
+            for (IndexSegment segment : segments) {
+                tiers.computeIfAbsent(tier(segment.liveCount()), k -> new ArrayList<>()).add(segment);
+            }
+            for (List<IndexSegment> tier : tiers.values()) {
+                if (tier.size() >= MERGE_FACTOR) {
+                    IndexSegment combined = IndexSegment.merge(tier);
+                    List<IndexSegment> next = new ArrayList<>();
+                    for (IndexSegment segment : segments) {
+                        if (!tier.contains(segment)) {
+                            next.add(segment);
+                        }
+                    }
+                    next.add(combined);
+                    segments = List.copyOf(next);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int tier(int liveCount) {
+        return (int) Math.log10(liveCount);
+    }
+}
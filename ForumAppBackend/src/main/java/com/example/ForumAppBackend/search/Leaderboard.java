@@ -0,0 +1,226 @@
+package com.example.ForumAppBackend.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Users ordered by score (highest first, ties by ascending id) in an indexable skip list:
+ * every forward link also records how many entries it skips, so the position of any score
+ * is found in O(log n) on the way down instead of by counting rows. Ranks are competition
+ * ranks: users with equal scores share a rank and the next score skips ahead.
+ */
+public final class Leaderboard {
+
+    private static final int MAX_LEVEL = 32;
+
+    public record Entry(long userId, double score, long rank) {
+    }
+
+    private static final class Node {
+        final long id;
+        final double score;
+        final Node[] next;
+        /** Entries passed when following next[i]; to the end of the list when next[i] is null. */
+        final int[] span;
+
+        Node(long id, double score, int level) {
+            this.id = id;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Node head = new Node(0, Double.NaN, MAX_LEVEL);
+    private final Map<Long, Double> scores = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int level = 1;
+
+    /** Sets the user's score, adding the user if absent. */
+    public void put(long userId, double score) {
+        write(() -> {
+            Double previous = scores.put(userId, score);
+            if (previous != null) {
+                unlink(userId, previous);
+            }
+            link(userId, score);
+        });
+    }
+
+    /** Adds to the user's score; unknown users are ignored (they are picked up on the next rebuild). */
+    public void adjust(long userId, double delta) {
+        write(() -> {
+            Double previous = scores.get(userId);
+            if (previous != null && delta != 0) {
+                unlink(userId, previous);
+                scores.put(userId, previous + delta);
+                link(userId, previous + delta);
+            }
+        });
+    }
+
+    public void remove(long userId) {
+        write(() -> {
+            Double previous = scores.remove(userId);
+            if (previous != null) {
+                unlink(userId, previous);
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return scores.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** The user's score and rank, or null if the user is not on the board. */
+    public Entry find(long userId) {
+        lock.readLock().lock();
+        try {
+            Double score = scores.get(userId);
+            return score == null ? null : new Entry(userId, score, 1 + countAbove(score));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} entries following the (score, userId) position of the last entry of the
+     * previous page, or from the top when {@code afterScore} is null.
+     */
+    public List<Entry> page(Double afterScore, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Node x = head;
+            long position = 0;
+            if (afterScore != null) {
+                for (int i = level - 1; i >= 0; i--) {
+                    while (x.next[i] != null && atOrBefore(x.next[i], afterScore, afterId)) {
+                        position += x.span[i];
+                        x = x.next[i];
+                    }
+                }
+            }
+            List<Entry> entries = new ArrayList<>(Math.min(limit, scores.size()));
+            long rank = 0;
+            double previousScore = Double.NaN;
+            for (Node n = x.next[0]; n != null && entries.size() < limit; n = n.next[0]) {
+                position++;
+                if (entries.isEmpty()) {
+                    rank = 1 + countAbove(n.score);
+                } else if (n.score != previousScore) {
+                    rank = position;
+                }
+                previousScore = n.score;
+                entries.add(new Entry(n.id, n.score, rank));
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of users with a strictly higher score. */
+    private long countAbove(double score) {
+        Node x = head;
+        long count = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].score > score) {
+                count += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return count;
+    }
+
+    private void link(long id, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] passed = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            passed[i] = i == level - 1 ? 0 : passed[i + 1];
+            while (x.next[i] != null && before(x.next[i], score, id)) {
+                passed[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                passed[i] = 0;
+                update[i] = head;
+                head.span[i] = scores.size() - 1;
+            }
+            level = nodeLevel;
+        }
+        Node node = new Node(id, score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (passed[0] - passed[i]);
+            update[i].span[i] = passed[0] - passed[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+    }
+
+    private void unlink(long id, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && before(x.next[i], score, id)) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        Node target = x.next[0];
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == target) {
+                update[i].span[i] += target.span[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+    }
+
+    /** Whether the node sorts strictly before the (score, id) position. */
+    private static boolean before(Node node, double score, long id) {
+        return node.score > score || (node.score == score && node.id < id);
+    }
+
+    private static boolean atOrBefore(Node node, double score, long id) {
+        return node.score > score || (node.score == score && node.id <= id);
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.ForumAppBackend.search;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Immutable postings for one term inside one {@link IndexSegment}: ascending document
+ * ordinals and term frequencies, stored as (ordinal delta, frequency) variable-length ints.
+ * Most deltas and frequencies fit in a single byte.
+ */
+final class PostingList {
+
+    private final int size;
+    private final byte[] data;
+
+    private PostingList(int size, byte[] data) {
+        this.size = size;
+        this.data = data;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    static PostingList readFrom(DataInput in) throws IOException {
+        int size = in.readInt();
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return new PostingList(size, data);
+    }
+
+    /** Forward-only iterator over the encoded postings. */
+    final class Cursor {
+        private int position;
+        private int remaining = size;
+        private int ordinal;
+        private int frequency;
+
+        boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            ordinal += readVarInt();
+            frequency = readVarInt();
+            return true;
+        }
+
+        int ordinal() {
+            return ordinal;
+        }
+
+        int frequency() {
+            return frequency;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+
+    /** Accumulates postings in ascending ordinal order and encodes them on {@link #build()}. */
+    static final class Builder {
+        private byte[] buffer = new byte[16];
+        private int length;
+        private int size;
+        private int lastOrdinal;
+
+        void add(int ordinal, int frequency) {
+            if (size > 0 && ordinal <= lastOrdinal) {
+                throw new IllegalStateException("Postings must be added in ascending ordinal order");
+            }
+            writeVarInt(size == 0 ? ordinal : ordinal - lastOrdinal);
+            writeVarInt(frequency);
+            lastOrdinal = ordinal;
+            size++;
+        }
+
+        PostingList build() {
+            return new PostingList(size, Arrays.copyOf(buffer, length));
+        }
+
+        private void writeVarInt(int value) {
+            if (buffer.length - length < 5) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            while ((value & ~0x7F) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.ForumAppBackend.search;
+
+import com.example.ForumAppBackend.repository.AnswerRepository;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.service.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the question {@link InvertedIndex}: loads the on-disk snapshot at startup, rebuilds it
+ * from the database in parallel, and applies incremental updates from the question and
+ * answer services. All index writes run on one background thread, after the triggering
+ * transaction commits, so request threads never wait on indexing.
+ */
+@Service
+public class QuestionSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuestionSearchService.class);
+
+    private static final int TITLE_BOOST = 3;
+    private static final int REBUILD_CHUNK = 1000;
+    private static final String INDEX_FILE = "questions.idx";
+
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final InvertedIndex index = new InvertedIndex(TITLE_BOOST);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "search-index-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+    private volatile boolean ready;
+
+    @Value("${search.index.dir:search-index}")
+    private String indexDir;
+
+    @Value("${search.index.rebuild-threads:0}")
+    private int rebuildThreads;
+
+    public QuestionSearchService(QuestionRepository questionRepository, AnswerRepository answerRepository) {
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+    }
+
+    /** Serves from the last snapshot right away, then rebuilds from the database in the background. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Path file = indexFile();
+        if (Files.exists(file)) {
+            try {
+                index.load(file);
+                ready = true;
+                log.info("Loaded search index snapshot with {} questions", index.documentCount());
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable search index snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        Thread.ofPlatform().name("search-index-rebuild").daemon().start(this::rebuild);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ready) {
+            writer.execute(this::persist);
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** False until a snapshot is loaded or the first rebuild completes. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<SearchHit> search(String query, int offset, int limit) {
+        return index.search(query, offset, limit);
+    }
+
+    /** Re-indexes the question (title, text, answers) once the current transaction commits. */
+    public void questionChanged(Long questionId) {
+        TransactionCallbacks.afterCommit(() -> writer.execute(() -> reindex(questionId)));
+    }
+
+    public void questionDeleted(Long questionId) {
+        TransactionCallbacks.afterCommit(() -> writer.execute(() -> {
+            if (rebuilding) {
+                changedDuringRebuild.add(questionId);
+            }
+            index.remove(questionId);
+        }));
+    }
+
+    private void reindex(Long questionId) {
+        if (rebuilding) {
+            changedDuringRebuild.add(questionId);
+        }
+        Optional<QuestionText> question = questionRepository.findTextById(questionId);
+        if (question.isEmpty()) {
+            index.remove(questionId);
+            return;
+        }
+        List<String> answers = answerRepository.findTextsByQuestionIds(List.of(questionId))
+                .stream()
+                .map(AnswerText::text)
+                .toList();
+        QuestionText q = question.get();
+        index.index(new SearchDocument(q.id(), q.title(), q.text(), answers));
+    }
+
+    /**
+     * Splits the id space into one range per worker, builds a segment per range and swaps
+     * them in on the writer thread. Questions changed while the rebuild was reading are
+     * re-indexed right after the swap so no update is lost.
+     */
+    private void rebuild() {
+        long started = System.nanoTime();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        int threads = rebuildThreads > 0 ? rebuildThreads : Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long maxId = questionRepository.findMaxId();
+            long span = maxId / threads + 1;
+            List<Future<IndexSegment>> parts = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long from = i * span;
+                long to = Math.min(maxId, from + span);
+                parts.add(pool.submit(() -> buildRange(from, to)));
+            }
+            List<IndexSegment> segments = new ArrayList<>();
+            for (Future<IndexSegment> part : parts) {
+                segments.add(part.get());
+            }
+            writer.execute(() -> {
+                index.replaceAll(segments);
+                rebuilding = false;
+                ready = true;
+                List<Long> changed = new ArrayList<>(changedDuringRebuild);
+                changedDuringRebuild.clear();
+                changed.forEach(this::reindex);
+                persist();
+                log.info("Rebuilt search index with {} questions in {} ms",
+                        index.documentCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            });
+        } catch (ExecutionException | RuntimeException e) {
+            rebuilding = false;
+            log.error("Search index rebuild failed", e);
+        } catch (InterruptedException e) {
+            rebuilding = false;
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Indexes questions with ids in (fromExclusive, toInclusive], reading them in chunks. */
+    private IndexSegment buildRange(long fromExclusive, long toInclusive) {
+        IndexSegment.Builder builder = index.newSegmentBuilder();
+        long after = fromExclusive;
+        while (after < toInclusive) {
+            List<QuestionText> chunk = questionRepository.findTextsInRange(after, toInclusive, Limit.of(REBUILD_CHUNK));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            Map<Long, List<String>> answers = new HashMap<>();
+            for (AnswerText answer : answerRepository.findTextsByQuestionIds(chunk.stream().map(QuestionText::id).toList())) {
+                answers.computeIfAbsent(answer.questionId(), k -> new ArrayList<>()).add(answer.text());
+            }
+            for (QuestionText q : chunk) {
+                builder.add(new SearchDocument(q.id(), q.title(), q.text(), answers.getOrDefault(q.id(), List.of())));
+            }
+            after = chunk.get(chunk.size() - 1).id();
+        }
+        return builder.build();
+    }
+
+    private void persist() {
+        try {
+            index.compactAndWrite(indexFile());
+        } catch (IOException e) {
+            log.warn("Could not write search index snapshot: {}", e.getMessage());
+        }
+    }
+
+    private Path indexFile() {
+        return Paths.get(indexDir, INDEX_FILE);
+    }
+}
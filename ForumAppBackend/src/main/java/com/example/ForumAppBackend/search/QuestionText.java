@@ -0,0 +1,5 @@
+package com.example.ForumAppBackend.search;
+
+/** Title and body of a question, as read by the indexer. */
+public record QuestionText(Long id, String title, String text) {
+}
@@ -0,0 +1,7 @@
+package com.example.ForumAppBackend.search;
+
+import java.util.List;
+
+/** The searchable text of one question: its title, body and the text of all its answers. */
+public record SearchDocument(long questionId, String title, String text, List<String> answerTexts) {
+}
@@ -0,0 +1,5 @@
+package com.example.ForumAppBackend.search;
+
+/** A ranked search result: question id and its BM25 score. */
+public record SearchHit(long questionId, float score) {
+}
@@ -0,0 +1,106 @@
+package com.example.ForumAppBackend.search;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Per-tag posting lists of question ids kept as compressed (Roaring) bitmaps, so that any
+ * AND / OR / NOT combination of tags is answered with bitmap algebra instead of one SQL
+ * join per term. Question ids are assigned in insertion order, so descending id is the
+ * newest-first order used for paging.
+ */
+public final class TagBitmapIndex {
+
+    private final Map<String, RoaringBitmap> byTag = new HashMap<>();
+    private final RoaringBitmap allQuestions = new RoaringBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void addQuestion(long questionId) {
+        write(() -> allQuestions.add(toInt(questionId)));
+    }
+
+    public void removeQuestion(long questionId) {
+        write(() -> {
+            int id = toInt(questionId);
+            allQuestions.remove(id);
+            byTag.values().forEach(bitmap -> bitmap.remove(id));
+            byTag.values().removeIf(RoaringBitmap::isEmpty);
+        });
+    }
+
+    public void tagQuestion(String tagName, long questionId) {
+        write(() -> {
+            int id = toInt(questionId);
+            allQuestions.add(id);
+            byTag.computeIfAbsent(tagName, t -> new RoaringBitmap()).add(id);
+        });
+    }
+
+    public void untagQuestion(String tagName, long questionId) {
+        write(() -> {
+            RoaringBitmap bitmap = byTag.get(tagName);
+            if (bitmap != null) {
+                bitmap.remove(toInt(questionId));
+                if (bitmap.isEmpty()) {
+                    byTag.remove(tagName);
+                }
+            }
+        });
+    }
+
+    /**
+     * Ids of matching questions below {@code beforeId} (exclusive; null for the first page),
+     * highest (newest) first, at most {@code limit} of them.
+     */
+    public List<Long> newestMatching(TagExpression expression, Long beforeId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (beforeId != null && beforeId <= 1) {
+                return List.of();
+            }
+            RoaringBitmap matches = evaluate(expression);
+            // rank(x) counts matching ids <= x, so the ids below the cursor are select(0 .. below-1)
+            long below = beforeId == null ? matches.getLongCardinality() : matches.rankLong(toInt(beforeId) - 1);
+            List<Long> ids = new ArrayList<>((int) Math.min(limit, below));
+            for (long i = below - 1; i >= 0 && ids.size() < limit; i--) {
+                ids.add(Integer.toUnsignedLong(matches.select((int) i)));
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap evaluate(TagExpression expression) {
+        return switch (expression) {
+            case TagExpression.Tag tag -> {
+                RoaringBitmap bitmap = byTag.get(tag.name());
+                yield bitmap == null ? new RoaringBitmap() : bitmap;
+            }
+            case TagExpression.And and -> and.right() instanceof TagExpression.Not not
+                    ? RoaringBitmap.andNot(evaluate(and.left()), evaluate(not.operand()))
+                    : RoaringBitmap.and(evaluate(and.left()), evaluate(and.right()));
+            case TagExpression.Or or -> RoaringBitmap.or(evaluate(or.left()), evaluate(or.right()));
+            case TagExpression.Not not -> RoaringBitmap.andNot(allQuestions, evaluate(not.operand()));
+        };
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int toInt(long questionId) {
+        return Math.toIntExact(questionId);
+    }
+}
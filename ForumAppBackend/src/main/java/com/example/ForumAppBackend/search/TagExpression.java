@@ -0,0 +1,132 @@
+package com.example.ForumAppBackend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Boolean filter over tag names, e.g. {@code java AND spring AND NOT hibernate} or
+ * {@code java OR kotlin}. NOT binds tighter than AND, which binds tighter than OR;
+ * parentheses group, and tag names containing spaces can be double-quoted.
+ */
+public sealed interface TagExpression {
+
+    record Tag(String name) implements TagExpression {
+    }
+
+    record And(TagExpression left, TagExpression right) implements TagExpression {
+    }
+
+    record Or(TagExpression left, TagExpression right) implements TagExpression {
+    }
+
+    record Not(TagExpression operand) implements TagExpression {
+    }
+
+    /** Parses a filter; a value without operators, parentheses or quotes is a single tag name. */
+    static TagExpression parse(String input) {
+        if (input == null || input.isBlank()) {
+            throw new IllegalArgumentException("Tag filter is empty");
+        }
+        List<String> tokens = tokenize(input.trim());
+        if (tokens.stream().noneMatch(t -> t.equals("(") || t.equals(")") || t.startsWith("\"") || Parser.isOperator(t))) {
+            // Keeps plain names such as "spring boot" working as they did before expressions
+            return new Tag(input.trim());
+        }
+        Parser parser = new Parser(tokens);
+        TagExpression expression = parser.or();
+        if (parser.position != parser.tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + parser.tokens.get(parser.position) + "' in tag filter");
+        }
+        return expression;
+    }
+
+    private static List<String> tokenize(String input) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < input.length()) {
+            char c = input.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '"') {
+                int end = input.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated quote in tag filter");
+                }
+                // A leading quote marks a literal name, never an operator
+                tokens.add("\"" + input.substring(i + 1, end));
+                i = end + 1;
+            } else {
+                int start = i;
+                while (i < input.length() && !Character.isWhitespace(input.charAt(i))
+                        && input.charAt(i) != '(' && input.charAt(i) != ')') {
+                    i++;
+                }
+                tokens.add(input.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    final class Parser {
+        private final List<String> tokens;
+        private int position;
+
+        private Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        private TagExpression or() {
+            TagExpression left = and();
+            while (accept("OR")) {
+                left = new Or(left, and());
+            }
+            return left;
+        }
+
+        private TagExpression and() {
+            TagExpression left = unary();
+            while (accept("AND")) {
+                left = new And(left, unary());
+            }
+            return left;
+        }
+
+        private TagExpression unary() {
+            if (accept("NOT")) {
+                return new Not(unary());
+            }
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Tag filter ends unexpectedly");
+            }
+            String token = tokens.get(position++);
+            if (token.equals("(")) {
+                TagExpression inner = or();
+                if (!accept(")")) {
+                    throw new IllegalArgumentException("Missing ')' in tag filter");
+                }
+                return inner;
+            }
+            if (token.equals(")") || isOperator(token)) {
+                throw new IllegalArgumentException("Unexpected '" + token + "' in tag filter");
+            }
+            return new Tag(token.startsWith("\"") ? token.substring(1) : token);
+        }
+
+        private boolean accept(String expected) {
+            if (position < tokens.size() && tokens.get(position).toUpperCase(Locale.ROOT).equals(expected)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean isOperator(String token) {
+            String upper = token.toUpperCase(Locale.ROOT);
+            return upper.equals("AND") || upper.equals("OR") || upper.equals("NOT");
+        }
+    }
+}
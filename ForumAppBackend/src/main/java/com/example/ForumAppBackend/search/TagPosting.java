@@ -0,0 +1,5 @@
+package com.example.ForumAppBackend.search;
+
+/** One question-tag association, as streamed when the tag bitmap index is loaded. */
+public record TagPosting(String tagName, Long questionId) {
+}
@@ -0,0 +1,130 @@
+package com.example.ForumAppBackend.search;
+
+import com.example.ForumAppBackend.dto.TagSuggestion;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Case-insensitive prefix trie over tag names. Every node caches the {@value #MAX_SUGGESTIONS}
+ * most used tags in its subtree, so a lookup walks the prefix and returns that list:
+ * O(prefix length + k) however many tags exist. Updates recompute the cached lists along
+ * one root-to-leaf path. Reads are lock-free; writes are serialized.
+ */
+public final class TagPrefixIndex {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final Comparator<TagSuggestion> MOST_USED_FIRST = Comparator
+            .comparingLong(TagSuggestion::getUsageCount).reversed()
+            .thenComparing(TagSuggestion::getName);
+
+    private final Node root = new Node();
+    private final Map<Long, TagSuggestion> byId = new ConcurrentHashMap<>();
+
+    /** Replaces the whole index, e.g. with counts loaded from the database. */
+    public synchronized void load(List<TagSuggestion> tags) {
+        root.children.clear();
+        root.tags = List.of();
+        root.top = List.of();
+        byId.clear();
+        for (TagSuggestion tag : tags) {
+            put(tag);
+        }
+    }
+
+    /** Adds the tag, or updates its name or usage count. */
+    public synchronized void put(TagSuggestion tag) {
+        TagSuggestion previous = byId.put(tag.getId(), tag);
+        if (previous != null && !previous.getName().equals(tag.getName())) {
+            update(previous.getName(), previous.getId(), null);
+        }
+        update(tag.getName(), tag.getId(), tag);
+    }
+
+    /** Adds the tag unless it is already indexed, keeping the indexed usage count. */
+    public synchronized void putIfAbsent(TagSuggestion tag) {
+        if (!byId.containsKey(tag.getId())) {
+            put(tag);
+        }
+    }
+
+    /** Adjusts a tag's usage count; unknown tags are ignored. */
+    public synchronized void adjustUsage(Long tagId, long delta) {
+        TagSuggestion current = byId.get(tagId);
+        if (current != null) {
+            put(new TagSuggestion(current.getId(), current.getName(), Math.max(0, current.getUsageCount() + delta)));
+        }
+    }
+
+    public synchronized void remove(Long tagId) {
+        TagSuggestion previous = byId.remove(tagId);
+        if (previous != null) {
+            update(previous.getName(), previous.getId(), null);
+        }
+    }
+
+    /** The most used tags whose name starts with {@code prefix} (ignoring case), best first. */
+    public List<TagSuggestion> suggest(String prefix, int limit) {
+        Node node = root;
+        String key = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<TagSuggestion> top = node.top;
+        return top.subList(0, Math.min(Math.max(limit, 0), top.size()));
+    }
+
+    /** Sets (or with null, clears) the entry for tagId at name's node and refreshes cached lists up the path. */
+    private void update(String name, Long tagId, TagSuggestion entry) {
+        String key = name.toLowerCase(Locale.ROOT);
+        Node[] path = new Node[key.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < key.length(); i++) {
+            path[i + 1] = path[i].children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        Node leaf = path[key.length()];
+        List<TagSuggestion> tags = new ArrayList<>(leaf.tags.size() + 1);
+        for (TagSuggestion existing : leaf.tags) {
+            if (!existing.getId().equals(tagId)) {
+                tags.add(existing);
+            }
+        }
+        if (entry != null) {
+            tags.add(entry);
+        }
+        leaf.tags = List.copyOf(tags);
+
+        for (int i = key.length(); i >= 0; i--) {
+            Node node = path[i];
+            node.top = best(node);
+            if (i > 0 && node.top.isEmpty() && node.children.isEmpty()) {
+                path[i - 1].children.remove(key.charAt(i - 1));
+            }
+        }
+    }
+
+    private static List<TagSuggestion> best(Node node) {
+        List<TagSuggestion> candidates = new ArrayList<>(node.tags);
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+        candidates.sort(MOST_USED_FIRST);
+        return List.copyOf(candidates.subList(0, Math.min(MAX_SUGGESTIONS, candidates.size())));
+    }
+
+    private static final class Node {
+        final Map<Character, Node> children = new ConcurrentHashMap<>();
+        /** Tags whose lower-cased name ends exactly at this node. */
+        volatile List<TagSuggestion> tags = List.of();
+        /** Most used tags in this subtree, best first. */
+        volatile List<TagSuggestion> top = List.of();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.ForumAppBackend.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns question and answer text into index terms: accent folding, lower-casing, splitting on
+ * anything that is not a letter or digit, stop-word removal and a light plural stemmer.
+ * Queries go through the same pipeline so they match what was indexed.
+ */
+public final class TextAnalyzer {
+
+    /** Single letters stay searchable, e.g. the languages C and R; "a" and "i" are stop words. */
+    private static final int MIN_TERM_LENGTH = 1;
+    private static final int MAX_TERM_LENGTH = 40;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "do", "does", "for", "from",
+            "has", "have", "how", "i", "if", "in", "into", "is", "it", "its", "me", "my", "no",
+            "not", "of", "on", "or", "so", "such", "that", "the", "their", "then", "there",
+            "these", "they", "this", "to", "was", "we", "what", "when", "where", "which", "who",
+            "why", "will", "with", "you", "your");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else {
+                emit(current, terms);
+            }
+        }
+        emit(current, terms);
+        return terms;
+    }
+
+    /** Term frequencies for a document; title terms count {@code titleBoost} times each. */
+    public static Map<String, Integer> termFrequencies(SearchDocument document, int titleBoost) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(document.title())) {
+            frequencies.merge(term, titleBoost, Integer::sum);
+        }
+        for (String term : tokenize(document.text())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        for (String answer : document.answerTexts()) {
+            for (String term : tokenize(answer)) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+        }
+        return frequencies;
+    }
+
+    private static void emit(StringBuilder current, List<String> terms) {
+        if (current.length() >= MIN_TERM_LENGTH && current.length() <= MAX_TERM_LENGTH) {
+            String term = current.toString();
+            if (!STOP_WORDS.contains(term)) {
+                terms.add(stem(term));
+            }
+        }
+        current.setLength(0);
+    }
+
+    /** Folds common English plurals so "queries"/"query" and "indexes"/"index" share a term. */
+    static String stem(String term) {
+        int n = term.length();
+        if (n > 4 && term.endsWith("ies")) {
+            return term.substring(0, n - 3) + "y";
+        }
+        if (n > 4 && (term.endsWith("ches") || term.endsWith("shes") || term.endsWith("xes") || term.endsWith("sses"))) {
+            return term.substring(0, n - 2);
+        }
+        if (n > 3 && term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us") && !term.endsWith("is")) {
+            return term.substring(0, n - 1);
+        }
+        return term;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ForumAppBackend.search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Incrementally maintained "trending" ranking. Each event adds {@code weight * 2^((t - landmark) / halfLife)}
+ * to its question's score. Because every score decays at the same rate, scaling contributions up
+ * by their age relative to a fixed landmark ranks questions exactly as decaying every score down
+ * to "now" would, so nothing is ever rescored on a timer. Only when the scale factor would grow
+ * too large is everything rescaled once to a new landmark.
+ *
+ * <p>Scores live in a sorted set capped at {@code capacity} entries, so the top K is read in O(K)
+ * and updates cost O(log capacity). A question pushed out of the set restarts from its next event.
+ */
+public final class TrendingIndex {
+
+    private static final int SNAPSHOT_VERSION = 1;
+    /** Rescale before 2^exponent gets anywhere near the double range. */
+    private static final double MAX_EXPONENT = 256;
+
+    private static final Comparator<Entry> HIGHEST_FIRST = Comparator
+            .comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::questionId).reversed());
+
+    private final double halfLifeSeconds;
+    private final int capacity;
+    private final Map<Long, Entry> byQuestion = new HashMap<>();
+    private final TreeSet<Entry> ranked = new TreeSet<>(HIGHEST_FIRST);
+    private long landmark;
+
+    private record Entry(long questionId, double score) {
+    }
+
+    public TrendingIndex(double halfLifeSeconds, int capacity, long landmarkEpochSecond) {
+        this.halfLifeSeconds = halfLifeSeconds;
+        this.capacity = capacity;
+        this.landmark = landmarkEpochSecond;
+    }
+
+    /** Records an event of the given weight (negative for e.g. a withdrawn vote) at the given time. */
+    public synchronized void add(long questionId, double weight, long epochSecond) {
+        double exponent = (epochSecond - landmark) / halfLifeSeconds;
+        if (exponent > MAX_EXPONENT) {
+            rescaleTo(epochSecond);
+            exponent = 0;
+        }
+        Entry previous = byQuestion.remove(questionId);
+        if (previous != null) {
+            ranked.remove(previous);
+        }
+        Entry updated = new Entry(questionId, (previous == null ? 0 : previous.score()) + weight * Math.pow(2, exponent));
+        byQuestion.put(questionId, updated);
+        ranked.add(updated);
+        if (ranked.size() > capacity) {
+            byQuestion.remove(ranked.pollLast().questionId());
+        }
+    }
+
+    public synchronized void remove(long questionId) {
+        Entry previous = byQuestion.remove(questionId);
+        if (previous != null) {
+            ranked.remove(previous);
+        }
+    }
+
+    /** Ids of the k highest-scoring questions, best first. */
+    public synchronized List<Long> top(int k) {
+        List<Long> ids = new ArrayList<>(Math.min(k, ranked.size()));
+        for (Entry entry : ranked) {
+            if (ids.size() == k) {
+                break;
+            }
+            ids.add(entry.questionId());
+        }
+        return ids;
+    }
+
+    public synchronized int size() {
+        return ranked.size();
+    }
+
+    public synchronized void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeDouble(halfLifeSeconds);
+        out.writeLong(landmark);
+        out.writeInt(ranked.size());
+        for (Entry entry : ranked) {
+            out.writeLong(entry.questionId());
+            out.writeDouble(entry.score());
+        }
+    }
+
+    /** Reads a snapshot written by {@link #writeTo}; returns null if it was made with another half-life. */
+    public static TrendingIndex readFrom(DataInputStream in, double halfLifeSeconds, int capacity) throws IOException {
+        if (in.readInt() != SNAPSHOT_VERSION || in.readDouble() != halfLifeSeconds) {
+            return null;
+        }
+        TrendingIndex index = new TrendingIndex(halfLifeSeconds, capacity, in.readLong());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Entry entry = new Entry(in.readLong(), in.readDouble());
+            if (index.ranked.size() < capacity) {
+                index.byQuestion.put(entry.questionId(), entry);
+                index.ranked.add(entry);
+            }
+        }
+        return index;
+    }
+
+    private void rescaleTo(long newLandmark) {
+        double factor = Math.pow(2, -(newLandmark - landmark) / halfLifeSeconds);
+        List<Entry> rescaled = new ArrayList<>(ranked.size());
+        for (Entry entry : ranked) {
+            rescaled.add(new Entry(entry.questionId(), entry.score() * factor));
+        }
+        ranked.clear();
+        byQuestion.clear();
+        for (Entry entry : rescaled) {
+            ranked.add(entry);
+            byQuestion.put(entry.questionId(), entry);
+        }
+        landmark = newLandmark;
+    }
+}
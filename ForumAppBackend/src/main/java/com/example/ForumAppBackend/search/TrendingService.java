@@ -0,0 +1,167 @@
+package com.example.ForumAppBackend.search;
+
+import com.example.ForumAppBackend.dto.QuestionSummary;
+import com.example.ForumAppBackend.entity.QuestionStatus;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.service.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Owns the {@link TrendingIndex}: feeds it vote, answer and status events after their
+ * transaction commits, snapshots it next to the search index, and restores it at startup.
+ * Reading the ranking never touches the questions or vote tables.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    private static final String SNAPSHOT_FILE = "trending.snapshot";
+    private static final double NEW_QUESTION_WEIGHT = 1;
+    private static final double QUESTION_VOTE_WEIGHT = 1;
+    private static final double ANSWER_VOTE_WEIGHT = 0.5;
+    private static final double NEW_ANSWER_WEIGHT = 2;
+    private static final double IN_PROGRESS_WEIGHT = 1;
+    private static final double SOLVED_WEIGHT = 3;
+
+    private final QuestionRepository questionRepository;
+    private final int capacity;
+    private final double halfLifeSeconds;
+    private volatile TrendingIndex index;
+
+    @Value("${search.index.dir:search-index}")
+    private String indexDir;
+
+    public TrendingService(QuestionRepository questionRepository,
+                           @Value("${trending.half-life-hours:6}") double halfLifeHours,
+                           @Value("${trending.capacity:1000}") int capacity) {
+        this.questionRepository = questionRepository;
+        this.capacity = capacity;
+        this.halfLifeSeconds = halfLifeHours * 3600;
+        this.index = new TrendingIndex(halfLifeSeconds, capacity, now());
+    }
+
+    /**
+     * Restores the last snapshot; without one, seeds the ranking once from the most recently
+     * active questions, treating their stored counters as events at their last activity.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Path file = snapshotFile();
+        if (Files.exists(file)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                TrendingIndex restored = TrendingIndex.readFrom(in, halfLifeSeconds, capacity);
+                if (restored != null) {
+                    index = restored;
+                    log.info("Loaded trending snapshot with {} questions", restored.size());
+                    return;
+                }
+                log.info("Trending snapshot {} was written with another half-life, reseeding", file);
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable trending snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        TrendingIndex seeded = new TrendingIndex(halfLifeSeconds, capacity, now());
+        for (QuestionSummary q : questionRepository.findSummariesByActivity(Limit.of(capacity))) {
+            Instant at = (q.getLastActivityAt() != null ? q.getLastActivityAt() : q.getCreationDateTime())
+                    .atZone(ZoneId.systemDefault()).toInstant();
+            double weight = NEW_QUESTION_WEIGHT + QUESTION_VOTE_WEIGHT * q.getVoteScore()
+                    + NEW_ANSWER_WEIGHT * q.getAnswerCount();
+            seeded.add(q.getId(), weight, at.getEpochSecond());
+        }
+        index = seeded;
+        log.info("Seeded trending ranking from {} recently active questions", seeded.size());
+    }
+
+    /** Ids of the top trending questions, best first. */
+    public List<Long> top(int limit) {
+        return index.top(limit);
+    }
+
+    public void questionCreated(Long questionId) {
+        record(questionId, NEW_QUESTION_WEIGHT);
+    }
+
+    /** A net change in a question's votes (+1, -1, or +-2 when a vote is flipped). */
+    public void questionVoted(Long questionId, int netDelta) {
+        record(questionId, QUESTION_VOTE_WEIGHT * netDelta);
+    }
+
+    public void answerVoted(Long questionId, int netDelta) {
+        record(questionId, ANSWER_VOTE_WEIGHT * netDelta);
+    }
+
+    public void answerAdded(Long questionId) {
+        record(questionId, NEW_ANSWER_WEIGHT);
+    }
+
+    public void statusChanged(Long questionId, QuestionStatus status) {
+        switch (status) {
+            case IN_PROGRESS -> record(questionId, IN_PROGRESS_WEIGHT);
+            case SOLVED -> record(questionId, SOLVED_WEIGHT);
+            default -> {
+            }
+        }
+    }
+
+    public void questionDeleted(Long questionId) {
+        TransactionCallbacks.afterCommit(() -> index.remove(questionId));
+    }
+
+    @Scheduled(fixedDelayString = "${trending.snapshot-interval-ms:300000}",
+            initialDelayString = "${trending.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        Path file = snapshotFile();
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                index.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write trending snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private void record(Long questionId, double weight) {
+        if (weight == 0) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> index.add(questionId, weight, now()));
+    }
+
+    private static long now() {
+        return Instant.now().getEpochSecond();
+    }
+
+    private Path snapshotFile() {
+        return Paths.get(indexDir, SNAPSHOT_FILE);
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.ForumAppBackend.search;
+
+/** A user's reputation, as streamed when the leaderboard is loaded. */
+public record UserScore(Long userId, double score) {
+}
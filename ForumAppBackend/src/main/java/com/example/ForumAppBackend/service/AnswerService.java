@@ -1,56 +1,82 @@
 package com.example.ForumAppBackend.service;
 
+import com.example.ForumAppBackend.dto.AnswerSummary;
+import com.example.ForumAppBackend.dto.CursorPage;
 import com.example.ForumAppBackend.entity.Answer;
-import com.example.ForumAppBackend.entity.Question;
 import com.example.ForumAppBackend.entity.QuestionStatus;
-import com.example.ForumAppBackend.entity.User;
 import com.example.ForumAppBackend.repository.AnswerRepository;
 import com.example.ForumAppBackend.repository.QuestionRepository;
-import com.example.ForumAppBackend.repository.UserRepository;
+import com.example.ForumAppBackend.search.QuestionSearchService;
+import com.example.ForumAppBackend.search.TrendingService;
+import com.example.ForumAppBackend.vote.VotePipeline;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class AnswerService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final long NOTHING_PINNED = -1L;
+
     private final AnswerRepository answerRepository;
     private final QuestionRepository questionRepository;
-    private final UserRepository userRepository;
+    private final EntityCache entityCache;
+    private final QuestionDetailCache questionDetailCache;
     private final FileUploadService fileUploadService;
+    private final QuestionSearchService questionSearchService;
+    private final TrendingService trendingService;
+    private final VotePipeline votePipeline;
 
     public AnswerService(
             AnswerRepository answerRepository,
             QuestionRepository questionRepository,
-            UserRepository userRepository,
-            FileUploadService fileUploadService) {
+            EntityCache entityCache,
+            QuestionDetailCache questionDetailCache,
+            FileUploadService fileUploadService,
+            QuestionSearchService questionSearchService,
+            TrendingService trendingService,
+            VotePipeline votePipeline) {
         this.answerRepository = answerRepository;
         this.questionRepository = questionRepository;
-        this.userRepository = userRepository;
+        this.entityCache = entityCache;
+        this.questionDetailCache = questionDetailCache;
         this.fileUploadService = fileUploadService;
+        this.questionSearchService = questionSearchService;
+        this.trendingService = trendingService;
+        this.votePipeline = votePipeline;
     }
 
+    /** Author and question come from the entity cache, so neither row is read to add an answer. */
     @Transactional
     public Answer createAnswer(Long userId, Long questionId, Answer answer) {
-        User author = userRepository.findById(userId).orElse(null);
-        Question question = questionRepository.findById(questionId).orElse(null);
+        UserRef author = entityCache.findUser(userId).orElse(null);
+        QuestionRef question = entityCache.findQuestion(questionId).orElse(null);
         if (author == null || question == null) {
             return null;
         }
 
-        answer.setAuthor(author);
-        answer.setQuestion(question);
+        answer.setAuthor(author.toUser());
+        answer.setQuestion(questionRepository.getReferenceById(questionId));
         answer.setCreationDateTime(LocalDateTime.now());
         Answer saved = answerRepository.save(answer);
-
-        if (question.getStatus() == QuestionStatus.RECEIVED) {
-            question.setStatus(QuestionStatus.IN_PROGRESS);
-            questionRepository.save(question);
+        fileUploadService.retain(saved.getPicture());
+        questionRepository.recordAnswerAdded(questionId, saved.getCreationDateTime());
+        trendingService.answerAdded(questionId);
+
+        if (question.status() == QuestionStatus.RECEIVED
+                && questionRepository.changeStatus(questionId, QuestionStatus.RECEIVED, QuestionStatus.IN_PROGRESS) > 0) {
+            entityCache.questionChanged(questionId);
+            trendingService.statusChanged(questionId, QuestionStatus.IN_PROGRESS);
         }
 
+        questionDetailCache.invalidate(questionId);
+        questionSearchService.questionChanged(questionId);
         return saved;
     }
 
@@ -62,6 +88,7 @@ public class AnswerService {
         return answerRepository.findById(answerId).orElse(null);
     }
 
+    @Transactional
     public Answer updateAnswer(Long answerId, Answer updatedData) {
         Answer existing = getAnswerById(answerId);
         if (existing != null) {
@@ -69,23 +96,15 @@ public class AnswerService {
 
             String newPicture = updatedData.getPicture();
             String oldPicture = existing.getPicture();
-
-            try {
-                if (newPicture == null || newPicture.isBlank()) {
-                    if (oldPicture != null) {
-                        fileUploadService.deleteFile(oldPicture);
-                    }
-                    existing.setPicture(null);
-                } else if (!newPicture.equals(oldPicture)) {
-                    if (oldPicture != null) {
-                        fileUploadService.deleteFile(oldPicture);
-                    }
-                    existing.setPicture(newPicture);
-                }
-            } catch (IOException ignored) {
-            }
-
-            return answerRepository.save(existing);
+            existing.setPicture(newPicture == null || newPicture.isBlank() ? null : newPicture);
+
+            Answer saved = answerRepository.save(existing);
+            fileUploadService.replace(oldPicture, saved.getPicture());
+            answerRepository.bumpVersion(saved.getId());
+            questionRepository.touch(saved.getQuestion().getId(), LocalDateTime.now());
+            questionDetailCache.invalidate(saved.getQuestion().getId());
+            questionSearchService.questionChanged(saved.getQuestion().getId());
+            return saved;
         }
         return null;
     }
@@ -96,18 +115,75 @@ public class AnswerService {
         if (answer == null)
             return false;
 
-        if (answer.getPicture() != null) {
-            try {
-                fileUploadService.deleteFile(answer.getPicture());
-            } catch (IOException ignored) {
-            }
-        }
-
         answerRepository.delete(answer);
+        fileUploadService.release(answer.getPicture());
+        questionRepository.recordAnswerRemoved(answer.getQuestion().getId());
+        questionDetailCache.invalidate(answer.getQuestion().getId());
+        questionSearchService.questionChanged(answer.getQuestion().getId());
         return true;
     }
 
+    /** Current version of the answer, or null if it does not exist. */
+    public Long getVersion(Long answerId) {
+        return answerRepository.findVersionById(answerId).orElse(null);
+    }
+
+    /** Version of the question whose answers are listed; every answer change bumps it. */
+    public Long getListingVersion(Long questionId) {
+        return questionRepository.findVersionById(questionId).orElse(null);
+    }
+
     public List<Answer> getAnswersForQuestion(Long questionId) {
-        return answerRepository.findByQuestionIdOrderByCreationDateTimeDesc(questionId);
+        List<Answer> answers = answerRepository.findByQuestionIdOrderByCreationDateTimeDesc(questionId);
+        votePipeline.overlay(answers);
+        return answers;
+    }
+
+    /**
+     * A page of the question's answers in the given order, without their vote rows. The accepted
+     * answer is pinned to the top of the first page (in addition to {@code limit} others) and left
+     * out of the ranked pages. Returns null when the question does not exist.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<AnswerSummary> getAnswersPage(Long questionId, AnswerSort sort, String after, Integer limit) {
+        QuestionRef question = entityCache.findQuestion(questionId).orElse(null);
+        if (question == null) {
+            return null;
+        }
+        Long pinnedId = question.acceptedAnswerId() != null ? question.acceptedAnswerId() : NOTHING_PINNED;
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Limit fetch = Limit.of(size + 1);
+
+        List<AnswerSummary> rows;
+        boolean firstPage;
+        if (sort == AnswerSort.SCORE) {
+            ScoreCursor cursor = ScoreCursor.decode(after);
+            firstPage = cursor == null;
+            rows = firstPage
+                    ? answerRepository.findSummariesByScore(questionId, pinnedId, fetch)
+                    : answerRepository.findSummariesByScoreAfter(questionId, pinnedId, cursor.voteScore(), cursor.id(), fetch);
+        } else {
+            FeedCursor cursor = FeedCursor.decode(after);
+            firstPage = cursor == null;
+            rows = firstPage
+                    ? answerRepository.findSummariesNewest(questionId, pinnedId, fetch)
+                    : answerRepository.findSummariesNewestAfter(questionId, pinnedId, cursor.timestamp(), cursor.id(), fetch);
+        }
+
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            AnswerSummary last = rows.get(size - 1);
+            next = sort == AnswerSort.SCORE
+                    ? new ScoreCursor(last.getVoteScore(), last.getId()).encode()
+                    : new FeedCursor(last.getCreationDateTime(), last.getId()).encode();
+        }
+        List<AnswerSummary> items = new ArrayList<>(rows.size() + 1);
+        if (firstPage && pinnedId != NOTHING_PINNED) {
+            answerRepository.findSummaryById(pinnedId).ifPresent(items::add);
+        }
+        items.addAll(rows);
+        votePipeline.overlaySummaries(items);
+        return new CursorPage<>(items, next);
     }
 }
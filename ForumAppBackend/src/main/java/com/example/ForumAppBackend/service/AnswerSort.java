@@ -0,0 +1,21 @@
+package com.example.ForumAppBackend.service;
+
+import java.util.Locale;
+
+/** Orders offered by the paged answer listing; the accepted answer is always pinned first. */
+public enum AnswerSort {
+    SCORE,
+    NEWEST;
+
+    /** Parses the {@code sort} request parameter; null means highest score first. */
+    public static AnswerSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return SCORE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + value);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ForumAppBackend.service;
+
+import com.example.ForumAppBackend.config.CacheConfig;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Read-through cache of the user and question facts that write paths check on every request:
+ * whether a user exists or is banned, who wrote a question and where it stands. Values are
+ * immutable snapshots, not entities, so callers cannot change cached state, and the counters moved
+ * by bulk increments (reputation, vote totals) are not cached at all. Mutating service methods
+ * evict what they changed once their transaction completes; missing rows are never cached.
+ */
+@Service
+public class EntityCache {
+
+    private final UserRepository userRepository;
+    private final QuestionRepository questionRepository;
+    private final CacheManager cacheManager;
+
+    public EntityCache(UserRepository userRepository,
+                       QuestionRepository questionRepository,
+                       CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.questionRepository = questionRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.USERS, unless = "#result == null")
+    public Optional<UserRef> findUser(Long id) {
+        return userRepository.findRefById(id);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_EMAIL, unless = "#result == null")
+    public Optional<UserRef> findUserByEmail(String email) {
+        return userRepository.findRefByEmail(email);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.QUESTIONS, unless = "#result == null")
+    public Optional<QuestionRef> findQuestion(Long id) {
+        return questionRepository.findRefById(id);
+    }
+
+    /** Evicts the user, under the email it was cached by, after the current transaction. */
+    public void userChanged(Long id, String email) {
+        TransactionCallbacks.afterCompletion(() -> {
+            evict(CacheConfig.USERS, id);
+            if (email != null) {
+                evict(CacheConfig.USERS_BY_EMAIL, email);
+            }
+        });
+    }
+
+    public void questionChanged(Long id) {
+        TransactionCallbacks.afterCompletion(() -> evict(CacheConfig.QUESTIONS, id));
+    }
+
+    /** Size, hits, misses and evictions of every cache, by cache name. */
+    public Map<String, Stats> stats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                CacheStats counts = cache.getNativeCache().stats();
+                stats.put(name, new Stats(cache.getNativeCache().estimatedSize(), counts.hitCount(),
+                        counts.missCount(), counts.hitRate(), counts.evictionCount()));
+            }
+        }
+        return stats;
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    public record Stats(long size, long hits, long misses, double hitRate, long evictions) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.ForumAppBackend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a time-ordered question listing: the (creationDateTime or lastActivityAt, id)
+ * of the last question on the previous page. Encoded for clients as an opaque URL-safe token.
+ */
+public record FeedCursor(LocalDateTime timestamp, Long id) {
+
+    public String encode() {
+        String raw = timestamp + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decodes a token produced by {@link #encode()}; null or blank means "start from the top". */
+    public static FeedCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int comma = raw.lastIndexOf(',');
+            return new FeedCursor(LocalDateTime.parse(raw.substring(0, comma)), Long.parseLong(raw.substring(comma + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
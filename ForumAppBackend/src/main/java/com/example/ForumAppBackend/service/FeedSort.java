@@ -0,0 +1,22 @@
+package com.example.ForumAppBackend.service;
+
+import java.util.Locale;
+
+/** Orders offered by the paged question feed. */
+public enum FeedSort {
+    NEWEST,
+    VOTES,
+    ACTIVITY;
+
+    /** Parses the {@code sort} request parameter; null means newest first. */
+    public static FeedSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort: " + value);
+        }
+    }
+}
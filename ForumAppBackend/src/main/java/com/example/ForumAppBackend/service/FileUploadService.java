@@ -1,23 +1,87 @@
 package com.example.ForumAppBackend.service;
 
+import com.example.ForumAppBackend.entity.Upload;
+import com.example.ForumAppBackend.repository.AnswerRepository;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.repository.UploadRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 public class FileUploadService {
 
+    private static final Logger log = LoggerFactory.getLogger(FileUploadService.class);
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
+    private static final int METADATA_CACHE_SIZE = 10_000;
+    /** Uploads stream into temp files with these affixes before they are moved under their hash. */
+    static final String TEMP_PREFIX = "upload-";
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private final UploadRepository uploadRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final ImageVariantService imageVariantService;
+    /**
+     * Upload metadata by filename; entries never go stale because stored files never change.
+     * Reference counts in cached entries are not kept current and are never read from here.
+     */
+    private final Map<String, Upload> metadata = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Upload> eldest) {
+                    return size() > METADATA_CACHE_SIZE;
+                }
+            });
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+
+    public FileUploadService(UploadRepository uploadRepository,
+                             QuestionRepository questionRepository,
+                             AnswerRepository answerRepository,
+                             ImageVariantService imageVariantService) {
+        this.uploadRepository = uploadRepository;
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+        this.imageVariantService = imageVariantService;
+    }
 
+    /**
+     * Stores the upload under the SHA-256 of its contents, hashed while it streams to disk. If the
+     * same contents are already stored, the copy is dropped and the existing name returned. The
+     * upload starts unreferenced; saving it as a question or answer picture retains it.
+     */
     public String uploadFile(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
@@ -32,25 +96,336 @@ public class FileUploadService {
             Files.createDirectories(uploadPath);
         }
 
-        String originalFilename = file.getOriginalFilename();
-        String extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        String newFilename = UUID.randomUUID().toString() + extension;
+        Path tmp = Files.createTempFile(uploadPath, TEMP_PREFIX, TEMP_SUFFIX);
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                bytesReceived.add(Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING));
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String contentType = sniffContentType(tmp);
+            if (contentType == null) {
+                contentType = contentTypeFromExtension(String.valueOf(file.getOriginalFilename()));
+            }
+            String newFilename = hash + extensionFor(contentType, file.getOriginalFilename());
+
+            Path filePath = uploadPath.resolve(newFilename);
+            boolean recorded = uploadRepository.existsById(newFilename);
+            if (recorded && Files.isRegularFile(filePath)) {
+                // Restarts the upload GC grace period for contents about to be attached again
+                Files.setLastModifiedTime(filePath, FileTime.from(Instant.now()));
+                return newFilename;
+            }
+            Files.move(tmp, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (!recorded) {
+                uploadRepository.save(new Upload(newFilename, hash, contentType, Files.size(filePath),
+                        LocalDateTime.now(), null, 0));
+            }
+            scheduleVariants(newFilename, filePath);
+            return newFilename;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * The stored upload with its recorded metadata, or empty if there is no such file. Files
+     * stored before metadata was recorded are probed once and recorded then.
+     */
+    public Optional<StoredFile> findStoredFile(String filename) throws IOException {
+        return findStoredFile(filename, null);
+    }
+
+    /**
+     * The smallest generated variant at least {@code width} pixels wide, or the original when the
+     * upload is narrower than that. Until its variants exist the original is served as a
+     * non-immutable stand-in, and uploads that never had variants made are queued for them.
+     */
+    public Optional<StoredFile> findStoredFile(String filename, Integer width) throws IOException {
+        if (!isPlainFilename(filename)) {
+            return Optional.empty();
+        }
+        Path path = Paths.get(uploadDir).resolve(filename);
+        Upload upload = metadata.get(filename);
+        if (upload == null) {
+            upload = uploadRepository.findById(filename).orElse(null);
+            if (upload == null) {
+                if (!Files.isRegularFile(path)) {
+                    return Optional.empty();
+                }
+                upload = record(filename, path);
+            }
+            metadata.put(filename, upload);
+        }
+        StoredFile original = new StoredFile(filename, path, upload.getContentType(), upload.getSize(), true);
+        if (width == null || width <= 0) {
+            return Optional.of(original);
+        }
+        if (upload.getVariantWidths() == null) {
+            scheduleVariants(filename, path);
+            return Optional.of(new StoredFile(filename, path, upload.getContentType(), upload.getSize(), false));
+        }
+        for (String made : upload.getVariantWidths().split(",")) {
+            if (!made.isEmpty() && Integer.parseInt(made) >= width) {
+                int variantWidth = Integer.parseInt(made);
+                Path variant = imageVariantService.variantPath(filename, variantWidth);
+                return Optional.of(new StoredFile(imageVariantService.variantName(filename, variantWidth), variant,
+                        imageVariantService.variantContentType(filename), Files.size(variant), true));
+            }
+        }
+        return Optional.of(original);
+    }
+
+    public ImageVariantService.Stats getVariantStats() {
+        return imageVariantService.stats();
+    }
+
+    /** Counts upload bytes written to a response, e.g. by the image endpoint. */
+    public void countServed(long bytes) {
+        bytesServed.add(bytes);
+    }
 
-        Path filePath = uploadPath.resolve(newFilename);
-        Files.copy(file.getInputStream(), filePath);
+    /** Upload bytes received since startup, duplicates included. */
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
 
-        return newFilename;
+    /** Upload and variant bytes served since startup. */
+    public long getBytesServed() {
+        return bytesServed.sum();
+    }
+
+    /**
+     * Counts a new reference from a question or answer picture; a no-op for null. Call it after the
+     * post is saved with the picture, in the same transaction, so a picture that is no stored upload,
+     * e.g. one the upload GC collected while the post was written, rolls the save back.
+     *
+     * @throws IllegalArgumentException if there is neither a metadata row nor a file for the picture
+     */
+    @Transactional
+    public void retain(String picture) {
+        String filename = uploadName(picture);
+        if (filename == null || uploadRepository.adjustRefCount(filename, 1) > 0) {
+            return;
+        }
+        // Stored before metadata was recorded; recording counts the references, this one included
+        Path path = Paths.get(uploadDir).resolve(filename);
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("Picture " + filename + " is not a stored upload");
+        }
+        try {
+            record(filename, path);
+        } catch (IOException e) {
+            log.warn("Could not record upload {}", filename, e);
+        }
     }
 
-    public void deleteFile(String filename) throws IOException {
-        if (filename != null) {
-            String cleanFilename = filename.replace("/uploads/", "");
-            int lastSlash = cleanFilename.lastIndexOf('/');
-            if (lastSlash >= 0) {
-                cleanFilename = cleanFilename.substring(lastSlash + 1);
+    /**
+     * Drops a reference taken by {@link #retain}. When it was the last one the metadata row goes in
+     * the caller's transaction and the file and its variants are deleted once that commits. Call it
+     * after the post has dropped the picture.
+     */
+    @Transactional
+    public void release(String picture) {
+        String filename = uploadName(picture);
+        if (filename == null) {
+            return;
+        }
+        if (uploadRepository.adjustRefCount(filename, -1) == 0) {
+            // Stored before metadata was recorded
+            if (countReferences(filename) == 0) {
+                TransactionCallbacks.afterCommit(() -> deleteStoredFiles(filename));
             }
-            Path filePath = Paths.get(uploadDir, cleanFilename);
-            Files.deleteIfExists(filePath);
+        } else if (uploadRepository.deleteIfUnreferenced(filename) > 0) {
+            metadata.remove(filename);
+            TransactionCallbacks.afterCommit(() -> deleteStoredFiles(filename));
+        }
+    }
+
+    /** Moves references from one picture to another, e.g. when a post's picture is replaced. */
+    @Transactional
+    public void replace(String oldPicture, String newPicture) {
+        String oldName = uploadName(oldPicture);
+        String newName = uploadName(newPicture);
+        if (Objects.equals(oldName, newName)) {
+            return;
+        }
+        retain(newPicture);
+        release(oldPicture);
+    }
+
+    /**
+     * Deletes an upload nothing references, e.g. one abandoned before its post was saved.
+     * Returns false, and keeps the file, while any question or answer still uses it.
+     */
+    @Transactional
+    public boolean deleteIfUnreferenced(String fileUrl) {
+        return deleteIfUnreferenced(fileUrl, null);
+    }
+
+    /**
+     * Like {@link #deleteIfUnreferenced(String)}, but also keeps the file if it was modified at or
+     * after {@code modifiedBefore}. A duplicate upload touches the file it shares, so the upload GC
+     * rechecks its grace period here rather than deleting contents that were just handed out again.
+     */
+    @Transactional
+    public boolean deleteIfUnreferenced(String fileUrl, Instant modifiedBefore) {
+        String filename = uploadName(fileUrl);
+        if (filename == null) {
+            return false;
+        }
+        if (modifiedBefore != null && modifiedSince(Paths.get(uploadDir).resolve(filename), modifiedBefore)) {
+            return false;
         }
+        if (uploadRepository.existsById(filename)) {
+            if (uploadRepository.deleteIfUnreferenced(filename) == 0) {
+                return false;
+            }
+            metadata.remove(filename);
+        } else if (countReferences(filename) > 0) {
+            return false;
+        }
+        TransactionCallbacks.afterCommit(() -> deleteStoredFiles(filename));
+        return true;
+    }
+
+    /**
+     * Recounts references from the stored pictures at startup, so uploads recorded before reference
+     * counting, or counts left off by a crash between commit and cleanup, start out right.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recountReferences() {
+        int uploads = uploadRepository.recountReferences();
+        log.info("Recounted picture references of {} uploads", uploads);
+    }
+
+    /** False for files that are gone, which leaves their row to be collected. */
+    private static boolean modifiedSince(Path path, Instant instant) {
+        try {
+            return !Files.getLastModifiedTime(path).toInstant().isBefore(instant);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private long countReferences(String filename) {
+        return questionRepository.countByPicture(filename) + answerRepository.countByPicture(filename);
+    }
+
+    private void deleteStoredFiles(String filename) {
+        try {
+            Files.deleteIfExists(Paths.get(uploadDir, filename));
+            imageVariantService.deleteVariants(filename);
+        } catch (IOException e) {
+            log.warn("Could not delete upload {}", filename, e);
+        }
+    }
+
+    /** The stored file name behind a picture value, which may still carry an upload URL prefix. */
+    private static String uploadName(String picture) {
+        if (picture == null || picture.isBlank()) {
+            return null;
+        }
+        String filename = picture.replace("/uploads/", "");
+        int lastSlash = filename.lastIndexOf('/');
+        if (lastSlash >= 0) {
+            filename = filename.substring(lastSlash + 1);
+        }
+        return isPlainFilename(filename) ? filename : null;
+    }
+
+    private void scheduleVariants(String filename, Path path) {
+        imageVariantService.schedule(filename, path, widths -> {
+            String joined = String.join(",", widths.stream().map(String::valueOf).toList());
+            uploadRepository.setVariantWidths(filename, joined);
+            metadata.remove(filename);
+        });
+    }
+
+    private Upload record(String filename, Path path) throws IOException {
+        String contentType = Files.probeContentType(path);
+        if (contentType == null) {
+            contentType = contentTypeFromExtension(filename);
+        }
+        Upload upload = new Upload(filename, null, contentType, Files.size(path), LocalDateTime.now(), null,
+                countReferences(filename));
+        return uploadRepository.save(upload);
+    }
+
+    /** Recognises the image formats browsers upload by their leading bytes. */
+    private static String sniffContentType(Path path) throws IOException {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(path)) {
+            head = in.readNBytes(12);
+        }
+        if (startsWith(head, 0, 0x89, 'P', 'N', 'G')) {
+            return MediaType.IMAGE_PNG_VALUE;
+        } else if (startsWith(head, 0, 0xFF, 0xD8, 0xFF)) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        } else if (startsWith(head, 0, 'G', 'I', 'F', '8')) {
+            return MediaType.IMAGE_GIF_VALUE;
+        } else if (startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'W', 'E', 'B', 'P')) {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int... expected) {
+        if (bytes.length < offset + expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if ((bytes[offset + i] & 0xFF) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** One extension per content type, so identical contents always map to the same name. */
+    private static String extensionFor(String contentType, String originalFilename) {
+        switch (contentType) {
+            case MediaType.IMAGE_JPEG_VALUE:
+                return ".jpg";
+            case MediaType.IMAGE_PNG_VALUE:
+                return ".png";
+            case MediaType.IMAGE_GIF_VALUE:
+                return ".gif";
+            case "image/webp":
+                return ".webp";
+            default:
+                int dot = originalFilename == null ? -1 : originalFilename.lastIndexOf('.');
+                String extension = dot < 0 ? "" : originalFilename.substring(dot).toLowerCase(Locale.ROOT);
+                return extension.matches("\\.[a-z0-9]{1,8}") ? extension : "";
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String contentTypeFromExtension(String filename) {
+        filename = filename.toLowerCase(Locale.ROOT);
+        if (filename.endsWith(".jpg") || filename.endsWith(".jpeg")) {
+            return MediaType.IMAGE_JPEG_VALUE;
+        } else if (filename.endsWith(".png")) {
+            return MediaType.IMAGE_PNG_VALUE;
+        } else if (filename.endsWith(".gif")) {
+            return MediaType.IMAGE_GIF_VALUE;
+        } else if (filename.endsWith(".webp")) {
+            return "image/webp";
+        }
+        return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+    }
+
+    /** Rejects anything that could resolve outside the upload directory. */
+    private static boolean isPlainFilename(String filename) {
+        return filename != null && !filename.isBlank() && !filename.startsWith(".")
+                && filename.indexOf('/') < 0 && filename.indexOf('\\') < 0;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,240 @@
+package com.example.ForumAppBackend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates downscaled variants of uploaded images on a small bounded worker pool. A variant is
+ * written under a temporary name and moved into place, so a file that exists is complete.
+ * When the queue is full the request is dropped: the original keeps being served, and the
+ * variants are requested again the next time a sized copy is asked for.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    /** Widths generated for every upload wider than them, smallest first. */
+    public static final List<Integer> WIDTHS = List.of(160, 640, 1280);
+
+    private static final String VARIANT_DIR = "variants";
+    private static final Pattern VARIANT_NAME = Pattern.compile("(.+)_w\\d+\\.[a-z]+");
+    /** Refuse to decode anything larger than this, whatever its file size. */
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    private final Path uploadDir;
+    private final ThreadPoolExecutor workers;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalProcessingNanos = new AtomicLong();
+    private final AtomicLong maxProcessingNanos = new AtomicLong();
+
+    public ImageVariantService(@Value("${file.upload-dir}") String uploadDir,
+                               @Value("${images.variants.threads:2}") int threads,
+                               @Value("${images.variants.queue-capacity:100}") int queueCapacity) {
+        this.uploadDir = Paths.get(uploadDir);
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread thread = new Thread(r, "image-variants-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues variant generation for a stored upload; {@code onReady} receives the widths that were
+     * written (possibly none, e.g. for small or undecodable images). Returns false if it was not queued.
+     */
+    public boolean schedule(String filename, Path original, Consumer<List<Integer>> onReady) {
+        if (!inFlight.add(filename)) {
+            return false;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    onReady.accept(generate(filename, original));
+                } finally {
+                    inFlight.remove(filename);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(filename);
+            rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    /** The variant file for an upload and width; it only exists once that variant is complete. */
+    public Path variantPath(String filename, int width) {
+        return variantDir().resolve(variantName(filename, width));
+    }
+
+    /** Directory holding the variants of every upload. */
+    public Path variantDir() {
+        return uploadDir.resolve(VARIANT_DIR);
+    }
+
+    /** The upload name, without extension, a variant file was made from; null if it is no variant name. */
+    public static String originalBase(String variantName) {
+        Matcher matcher = VARIANT_NAME.matcher(variantName);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    public String variantName(String filename, int width) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot < 0 ? filename : filename.substring(0, dot);
+        return base + "_w" + width + "." + outputFormat(filename);
+    }
+
+    /** Content type of the variants of an upload with this name. */
+    public String variantContentType(String filename) {
+        return outputFormat(filename).equals("jpg") ? "image/jpeg" : "image/png";
+    }
+
+    public void deleteVariants(String filename) throws IOException {
+        for (int width : WIDTHS) {
+            Files.deleteIfExists(variantPath(filename, width));
+        }
+    }
+
+    public Stats stats() {
+        long done = completed.get();
+        return new Stats(workers.getQueue().size(), workers.getActiveCount(), done, failed.get(), rejected.get(),
+                done == 0 ? 0 : totalProcessingNanos.get() / done / 1_000_000.0,
+                maxProcessingNanos.get() / 1_000_000.0);
+    }
+
+    /** Worker pool counters; processing times are per upload, covering all of its variants. */
+    public record Stats(int queueDepth, int active, long completed, long failed, long rejected,
+                        double averageProcessingMillis, double maxProcessingMillis) {
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private List<Integer> generate(String filename, Path original) {
+        long started = System.nanoTime();
+        List<Integer> written = new ArrayList<>();
+        try {
+            BufferedImage source = decode(original);
+            if (source != null) {
+                Files.createDirectories(uploadDir.resolve(VARIANT_DIR));
+                String format = outputFormat(filename);
+                for (int width : WIDTHS) {
+                    if (width >= source.getWidth()) {
+                        break;
+                    }
+                    write(downscale(source, width, format.equals("jpg")), format, variantPath(filename, width));
+                    written.add(width);
+                }
+            }
+            long elapsed = System.nanoTime() - started;
+            completed.incrementAndGet();
+            totalProcessingNanos.addAndGet(elapsed);
+            maxProcessingNanos.accumulateAndGet(elapsed, Math::max);
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Could not generate variants of {}: {}", filename, e.getMessage());
+        }
+        return written;
+    }
+
+    /** Decodes the image, or returns null if no reader understands it or it is unreasonably large. */
+    private static BufferedImage decode(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS) {
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Halves the image until within 2x of the target, then scales the rest of the way, for smooth results. */
+    private static BufferedImage downscale(BufferedImage source, int targetWidth, boolean opaque) {
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D g = step.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = step;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    private static void write(BufferedImage image, String format, Path target) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        if (!ImageIO.write(image, format, tmp.toFile())) {
+            Files.deleteIfExists(tmp);
+            throw new IOException("No " + format + " writer");
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** JPEG stays JPEG; everything else (PNG, GIF, BMP) becomes PNG to keep transparency. */
+    private static String outputFormat(String filename) {
+        String lower = filename.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".jpg") || lower.endsWith(".jpeg") ? "jpg" : "png";
+    }
+}
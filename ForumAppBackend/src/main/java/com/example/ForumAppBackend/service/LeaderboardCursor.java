@@ -0,0 +1,34 @@
+package com.example.ForumAppBackend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in the reputation leaderboard: the (score, id) of the last user on the
+ * previous page, encoded like {@link FeedCursor}.
+ */
+public record LeaderboardCursor(double score, Long id) {
+
+    public String encode() {
+        String raw = score + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decodes a token produced by {@link #encode()}; null or blank means "start from the top". */
+    public static LeaderboardCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int comma = raw.lastIndexOf(',');
+            double score = Double.parseDouble(raw.substring(0, comma));
+            if (!Double.isFinite(score)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new LeaderboardCursor(score, Long.parseLong(raw.substring(comma + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
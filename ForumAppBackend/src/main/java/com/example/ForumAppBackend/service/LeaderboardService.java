@@ -0,0 +1,128 @@
+package com.example.ForumAppBackend.service;
+
+import com.example.ForumAppBackend.dto.CursorPage;
+import com.example.ForumAppBackend.dto.LeaderboardEntry;
+import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.repository.UserRepository;
+import com.example.ForumAppBackend.search.Leaderboard;
+import com.example.ForumAppBackend.search.UserScore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Serves the reputation leaderboard and rank lookups from an in-memory {@link Leaderboard}.
+ * The board is loaded from the users table at startup and follows score changes as they are
+ * applied; a nightly rebuild corrects any change that raced with a load.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SCORE_LOOKUP = 100;
+
+    private final UserRepository userRepository;
+    private volatile Leaderboard leaderboard = new Leaderboard();
+    private volatile boolean ready;
+
+    public LeaderboardService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${leaderboard.rebuild-cron:0 45 3 * * *}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        Leaderboard rebuilt = new Leaderboard();
+        try (Stream<UserScore> scores = userRepository.streamScores()) {
+            scores.forEach(s -> rebuilt.put(s.userId(), s.score()));
+        }
+        leaderboard = rebuilt;
+        ready = true;
+        log.info("Loaded reputation leaderboard with {} users", rebuilt.size());
+    }
+
+    /** Users by descending score, starting after the cursor token (null for the top). */
+    public CursorPage<LeaderboardEntry> getPage(String after, Integer limit) {
+        requireReady();
+        LeaderboardCursor cursor = LeaderboardCursor.decode(after);
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Leaderboard.Entry> entries = leaderboard.page(cursor == null ? null : cursor.score(),
+                cursor == null ? null : cursor.id(), size + 1);
+        boolean hasMore = entries.size() > size;
+        if (hasMore) {
+            entries = entries.subList(0, size);
+        }
+        Map<Long, String> usernames = userRepository.findAllById(entries.stream().map(Leaderboard.Entry::userId).toList())
+                .stream().collect(Collectors.toMap(User::getId, User::getUsername));
+        List<LeaderboardEntry> items = entries.stream()
+                .map(e -> new LeaderboardEntry(e.rank(), e.userId(), usernames.get(e.userId()), e.score()))
+                .toList();
+        String next = hasMore ? new LeaderboardCursor(entries.getLast().score(), entries.getLast().userId()).encode() : null;
+        return new CursorPage<>(items, next);
+    }
+
+    /** The user's rank, or null if there is no such user. */
+    public LeaderboardEntry getRank(Long userId) {
+        requireReady();
+        Leaderboard.Entry entry = leaderboard.find(userId);
+        if (entry == null) {
+            return null;
+        }
+        return userRepository.findById(userId)
+                .map(u -> new LeaderboardEntry(entry.rank(), userId, u.getUsername(), entry.score()))
+                .orElse(null);
+    }
+
+    /**
+     * Current scores of the given users, read from the board without SQL; unknown users are left
+     * out. Post bodies show users without reputation, so pages look scores up here instead.
+     */
+    public Map<Long, Double> getScores(Collection<Long> userIds) {
+        requireReady();
+        if (userIds.size() > MAX_SCORE_LOOKUP) {
+            throw new IllegalArgumentException("At most " + MAX_SCORE_LOOKUP + " users per lookup");
+        }
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            Leaderboard.Entry entry = leaderboard.find(userId);
+            if (entry != null) {
+                scores.put(userId, entry.score());
+            }
+        }
+        return scores;
+    }
+
+    /** Applies score deltas once the transaction that stored them commits. */
+    public void scoresChanged(Map<Long, Double> deltas) {
+        TransactionCallbacks.afterCommit(() -> deltas.forEach((id, delta) -> leaderboard.adjust(id, delta)));
+    }
+
+    public void userCreated(User user) {
+        TransactionCallbacks.afterCommit(() -> leaderboard.put(user.getId(), user.getScore()));
+    }
+
+    public void userDeleted(Long userId) {
+        TransactionCallbacks.afterCommit(() -> leaderboard.remove(userId));
+    }
+
+    private void requireReady() {
+        if (!ready) {
+            throw new IllegalStateException("Leaderboard is still loading");
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.ForumAppBackend.service;
+
+/** A post's picture, as read in id-ordered chunks by the upload garbage collector. */
+public record PictureRef(Long id, String picture) {
+}
@@ -0,0 +1,121 @@
+package com.example.ForumAppBackend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Question detail responses kept as serialized JSON and gzip-compressed JSON, so a hit is written
+ * out without loading the entity graph, running Jackson or issuing any SQL. An entry carries the
+ * version it was built from and lives exactly as long as the ETag it is served with: every service
+ * method that changes what the detail shows invalidates the question once its transaction
+ * completes. The detail shows users by id and username only, so reputation changed by votes on
+ * other posts, bans and contact details never make it stale. Memory is bounded by the bytes held rather than by the number of entries.
+ */
+@Service
+public class QuestionDetailCache {
+
+    private static final int STRIPES = 1024;
+    /** Entry overhead besides the two byte arrays, counted towards the weight. */
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final JsonMapper jsonMapper;
+    private final Cache<Long, Entry> entries;
+    /**
+     * Invalidations per id stripe. A response built while its stripe was invalidated may predate
+     * the change, so it is served but not cached.
+     */
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+    public QuestionDetailCache(JsonMapper jsonMapper,
+                               @Value("${questions.detail-cache.max-bytes:67108864}") long maxBytes) {
+        this.jsonMapper = jsonMapper;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, Entry entry) -> entry.json().length + entry.gzip().length + ENTRY_OVERHEAD)
+                .recordStats()
+                .build();
+    }
+
+    public Entry get(Long questionId) {
+        return entries.getIfPresent(questionId);
+    }
+
+    /** Take before reading the version and loading the detail; pass to {@link #put}. */
+    public long ticket(Long questionId) {
+        return invalidations.get(stripe(questionId));
+    }
+
+    /**
+     * Serializes the detail loaded at {@code version} and caches it unless the question may have
+     * changed since {@code ticket} was taken. Returns the serialized response either way.
+     */
+    public Entry put(Long questionId, long version, Object detail, long ticket) {
+        byte[] json = jsonMapper.writeValueAsBytes(detail);
+        Entry entry = new Entry(version, json, gzip(json));
+        int stripe = stripe(questionId);
+        if (invalidations.get(stripe) == ticket) {
+            entries.put(questionId, entry);
+            // An invalidation that slipped in between the check and the put must still win
+            if (invalidations.get(stripe) != ticket) {
+                entries.asMap().remove(questionId, entry);
+            }
+        }
+        return entry;
+    }
+
+    /** Drops the question's cached detail after the current transaction, or now if there is none. */
+    public void invalidate(Long questionId) {
+        TransactionCallbacks.afterCompletion(() -> {
+            invalidations.incrementAndGet(stripe(questionId));
+            entries.invalidate(questionId);
+        });
+    }
+
+    /** For changes that show up in many details at once, such as a user's name. */
+    public void invalidateAll() {
+        TransactionCallbacks.afterCompletion(() -> {
+            for (int i = 0; i < STRIPES; i++) {
+                invalidations.incrementAndGet(i);
+            }
+            entries.invalidateAll();
+        });
+    }
+
+    public Stats stats() {
+        CacheStats counts = entries.stats();
+        long bytes = entries.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+        return new Stats(entries.estimatedSize(), bytes, counts.hitCount(), counts.missCount(), counts.hitRate(),
+                counts.evictionCount());
+    }
+
+    private static int stripe(Long questionId) {
+        return (int) Math.floorMod(questionId, (long) STRIPES);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /** A serialized detail response and the question version it shows. */
+    public record Entry(long version, byte[] json, byte[] gzip) {
+    }
+
+    public record Stats(long entries, long bytes, long hits, long misses, double hitRate, long evictions) {
+    }
+}
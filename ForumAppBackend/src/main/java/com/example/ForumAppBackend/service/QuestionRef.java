@@ -0,0 +1,7 @@
+package com.example.ForumAppBackend.service;
+
+import com.example.ForumAppBackend.entity.QuestionStatus;
+
+/** The cached facts write paths need about a question; vote totals and counters are left out. */
+public record QuestionRef(Long id, Long authorId, QuestionStatus status, Long acceptedAnswerId) {
+}
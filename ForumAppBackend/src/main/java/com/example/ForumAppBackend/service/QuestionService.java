@@ -1,91 +1,289 @@
 package com.example.ForumAppBackend.service;
 
+import com.example.ForumAppBackend.dto.CursorPage;
+import com.example.ForumAppBackend.dto.QuestionSummary;
 import com.example.ForumAppBackend.entity.Answer;
 import com.example.ForumAppBackend.entity.Question;
 import com.example.ForumAppBackend.entity.QuestionStatus;
-import com.example.ForumAppBackend.entity.Tag;
-import com.example.ForumAppBackend.entity.User;
 import com.example.ForumAppBackend.repository.QuestionRepository;
-import com.example.ForumAppBackend.repository.UserRepository;
 import com.example.ForumAppBackend.repository.AnswerRepository;
+import com.example.ForumAppBackend.search.QuestionSearchService;
+import com.example.ForumAppBackend.search.TrendingService;
+import com.example.ForumAppBackend.search.SearchHit;
+import com.example.ForumAppBackend.search.TagExpression;
+import com.example.ForumAppBackend.vote.VotePipeline;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class QuestionService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int SUMMARY_BATCH_SIZE = 1000;
+    /** Cap on the unpaged tag expression filter, which reads one summary batch at most. */
+    private static final int MAX_UNPAGED_MATCHES = SUMMARY_BATCH_SIZE;
+
     private final QuestionRepository questionRepository;
-    private final UserRepository userRepository;
+    private final EntityCache entityCache;
+    private final QuestionDetailCache questionDetailCache;
     private final AnswerRepository answerRepository;
     private final TagService tagService;
     private final QuestionTagService questionTagService;
     private final FileUploadService fileUploadService;
+    private final QuestionSearchService questionSearchService;
+    private final TrendingService trendingService;
+    private final VotePipeline votePipeline;
 
     public QuestionService(
             QuestionRepository questionRepository,
-            UserRepository userRepository,
+            EntityCache entityCache,
+            QuestionDetailCache questionDetailCache,
             AnswerRepository answerRepository,
             TagService tagService,
             QuestionTagService questionTagService,
-            FileUploadService fileUploadService) {
+            FileUploadService fileUploadService,
+            QuestionSearchService questionSearchService,
+            TrendingService trendingService,
+            VotePipeline votePipeline) {
         this.questionRepository = questionRepository;
-        this.userRepository = userRepository;
+        this.entityCache = entityCache;
+        this.questionDetailCache = questionDetailCache;
         this.answerRepository = answerRepository;
         this.tagService = tagService;
         this.questionTagService = questionTagService;
         this.fileUploadService = fileUploadService;
+        this.questionSearchService = questionSearchService;
+        this.trendingService = trendingService;
+        this.votePipeline = votePipeline;
     }
 
+    @Transactional
     public Question createQuestion(Long userId, Question question, List<String> tagNames) {
         question.setCreationDateTime(LocalDateTime.now());
-        User author = userRepository.findById(userId)
+        question.setLastActivityAt(question.getCreationDateTime());
+        UserRef author = entityCache.findUser(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        question.setAuthor(author);
+        question.setAuthor(author.toUser());
 
         Question saved = questionRepository.save(question);
+        fileUploadService.retain(saved.getPicture());
 
         if (tagNames != null && !tagNames.isEmpty()) {
-            for (String name : tagNames) {
-                Tag tag = tagService.createOrGetTag(name);
-                questionTagService.createAssociation(saved, tag);
-            }
+            questionTagService.createAssociations(saved, tagService.resolveTagIds(tagNames));
         }
+        questionTagService.questionCreated(saved.getId());
+        questionSearchService.questionChanged(saved.getId());
+        trendingService.questionCreated(saved.getId());
         return saved;
     }
 
-    public List<Question> getAllSorted() {
-        return questionRepository.findAllByOrderByCreationDateTimeDesc();
+    public List<QuestionSummary> getAllSorted() {
+        return questionRepository.findSummaries(Limit.unlimited());
     }
 
-    public List<Question> getByUser(Long userId) {
-        return questionRepository.findByAuthor_IdOrderByCreationDateTimeDesc(userId);
+    public List<QuestionSummary> getByUser(Long userId) {
+        return questionRepository.findSummariesByAuthor(userId, Limit.unlimited());
     }
 
-    public List<Question> searchByTitle(String title) {
-        return questionRepository.findByTitleContainingIgnoreCase(title);
+    /**
+     * Full-text search over question titles, bodies and answers, best BM25 match first.
+     * Falls back to a title substring match while the search index is still loading.
+     */
+    public List<QuestionSummary> search(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int offset = Math.max(0, page) * pageSize;
+        if (!questionSearchService.isReady()) {
+            List<QuestionSummary> matches = questionRepository.searchSummariesByTitle(query, Limit.of(offset + pageSize));
+            return offset >= matches.size() ? List.of() : matches.subList(offset, matches.size());
+        }
+        List<SearchHit> hits = questionSearchService.search(query, offset, pageSize);
+        return summariesInOrder(hits.stream().map(SearchHit::questionId).toList());
+    }
+
+    /**
+     * Questions matching a tag filter, highest id first. The filter is either a single tag name or a
+     * boolean expression such as {@code java AND (spring OR quarkus) AND NOT hibernate}.
+     * Expressions return the newest {@value #MAX_UNPAGED_MATCHES} matches; older ones are
+     * reached through {@link #getByTagPage}.
+     */
+    public List<QuestionSummary> getByTag(String filter) {
+        TagExpression expression = TagExpression.parse(filter);
+        if (expression instanceof TagExpression.Tag tag) {
+            return questionRepository.findSummariesByTag(tag.name(), Limit.unlimited());
+        }
+        requireTagIndex();
+        return summariesInOrder(questionTagService.findNewestMatching(expression, null, MAX_UNPAGED_MATCHES));
     }
 
-    public List<Question> getByTag(String tagName) {
-        return questionRepository.findByQuestionTags_Tag_NameOrderByCreationDateTimeDesc(tagName);
+    /** Top trending questions by time-decayed activity, read from the in-memory ranking. */
+    public List<QuestionSummary> getTrending(Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return summariesInOrder(trendingService.top(size));
+    }
+
+    /**
+     * Fills the stored vote score, answer count and last activity of rows written before those
+     * columns existed. Only touches rows with no lastActivityAt, so later startups do nothing.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillCounters() {
+        answerRepository.backfillVoteScores();
+        questionRepository.backfillCounters();
+    }
+
+    /**
+     * Feed page in the given order starting after the cursor token (null for the first page).
+     * Vote and activity orders read the stored counters without touching vote rows.
+     */
+    public CursorPage<QuestionSummary> getFeedPage(FeedSort sort, String after, Integer limit) {
+        Limit fetch = fetchLimit(limit);
+        return switch (sort) {
+            case NEWEST -> {
+                FeedCursor cursor = FeedCursor.decode(after);
+                yield toPage(cursor == null
+                        ? questionRepository.findSummaries(fetch)
+                        : questionRepository.findSummariesAfter(cursor.timestamp(), cursor.id(), fetch), fetch);
+            }
+            case VOTES -> {
+                ScoreCursor cursor = ScoreCursor.decode(after);
+                yield toPage(cursor == null
+                        ? questionRepository.findSummariesByVotes(fetch)
+                        : questionRepository.findSummariesByVotesAfter(cursor.voteScore(), cursor.id(), fetch),
+                        fetch, last -> new ScoreCursor(last.getVoteScore(), last.getId()).encode());
+            }
+            case ACTIVITY -> {
+                FeedCursor cursor = FeedCursor.decode(after);
+                yield toPage(cursor == null
+                        ? questionRepository.findSummariesByActivity(fetch)
+                        : questionRepository.findSummariesByActivityAfter(cursor.timestamp(), cursor.id(), fetch),
+                        fetch, last -> new FeedCursor(last.getLastActivityAt(), last.getId()).encode());
+            }
+        };
+    }
+
+    public CursorPage<QuestionSummary> getByUserPage(Long userId, String after, Integer limit) {
+        FeedCursor cursor = FeedCursor.decode(after);
+        Limit fetch = fetchLimit(limit);
+        List<QuestionSummary> rows = cursor == null
+                ? questionRepository.findSummariesByAuthor(userId, fetch)
+                : questionRepository.findSummariesByAuthorAfter(userId, cursor.timestamp(), cursor.id(), fetch);
+        return toPage(rows, fetch);
+    }
+
+    /**
+     * Page of questions matching a tag filter, highest id first. Served from the tag bitmap index
+     * once it is loaded; before that, single-tag filters fall back to the SQL join. Both order by
+     * id alone, so a cursor from one continues in the other without skipping or repeating rows.
+     */
+    public CursorPage<QuestionSummary> getByTagPage(String filter, String after, Integer limit) {
+        TagExpression expression = TagExpression.parse(filter);
+        FeedCursor cursor = FeedCursor.decode(after);
+        Limit fetch = fetchLimit(limit);
+        if (!questionTagService.isTagIndexReady() && expression instanceof TagExpression.Tag tag) {
+            List<QuestionSummary> rows = cursor == null
+                    ? questionRepository.findSummariesByTag(tag.name(), fetch)
+                    : questionRepository.findSummariesByTagBefore(tag.name(), cursor.id(), fetch);
+            return toPage(rows, fetch);
+        }
+        requireTagIndex();
+        List<Long> ids = questionTagService.findNewestMatching(expression, cursor == null ? null : cursor.id(), fetch.max());
+        return toPage(summariesInOrder(ids), fetch);
+    }
+
+    private void requireTagIndex() {
+        if (!questionTagService.isTagIndexReady()) {
+            throw new IllegalStateException("Tag index is still loading");
+        }
+    }
+
+    /** Loads summaries for the ids and returns them in the same order; ids deleted in the meantime drop out. */
+    private List<QuestionSummary> summariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, QuestionSummary> byId = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += SUMMARY_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + SUMMARY_BATCH_SIZE));
+            for (QuestionSummary summary : questionRepository.findSummariesByIds(batch)) {
+                byId.put(summary.getId(), summary);
+            }
+        }
+        List<QuestionSummary> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            QuestionSummary summary = byId.get(id);
+            if (summary != null) {
+                ordered.add(summary);
+            }
+        }
+        return ordered;
+    }
+
+    /** Asks for one row more than the page size so we know whether a next page exists. */
+    private static Limit fetchLimit(Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return Limit.of(size + 1);
+    }
+
+    private static CursorPage<QuestionSummary> toPage(List<QuestionSummary> rows, Limit fetch) {
+        return toPage(rows, fetch, last -> new FeedCursor(last.getCreationDateTime(), last.getId()).encode());
+    }
+
+    private static CursorPage<QuestionSummary> toPage(List<QuestionSummary> rows, Limit fetch,
+                                                      Function<QuestionSummary, String> cursorAfter) {
+        int size = fetch.max() - 1;
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<QuestionSummary> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorAfter.apply(items.get(size - 1)));
     }
 
     public Question getQuestionById(Long id) {
         return questionRepository.findById(id).orElse(null);
     }
 
+    /** Current version of the question, or null if it does not exist; one indexed scalar read. */
+    public Long getVersion(Long id) {
+        return questionRepository.findVersionById(id).orElse(null);
+    }
+
+    /** Loads the full question graph served by the detail endpoint. */
+    public Question getQuestionDetail(Long id) {
+        Question question = questionRepository.findDetailById(id).orElse(null);
+        votePipeline.overlay(question);
+        return question;
+    }
+
+    @Transactional
     public Question updateQuestion(Long questionId, Question data) {
         Question q = getQuestionById(questionId);
         if (q == null)
             return null;
+        String oldPicture = q.getPicture();
         q.setTitle(data.getTitle());
         q.setText(data.getText());
         q.setPicture(data.getPicture());
-        return questionRepository.save(q);
+        q.setLastActivityAt(LocalDateTime.now());
+        Question saved = questionRepository.save(q);
+        fileUploadService.replace(oldPicture, saved.getPicture());
+        questionRepository.bumpVersion(saved.getId());
+        entityCache.questionChanged(saved.getId());
+        questionDetailCache.invalidate(saved.getId());
+        questionSearchService.questionChanged(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -94,14 +292,17 @@ public class QuestionService {
         if (question == null)
             return false;
 
-        if (question.getPicture() != null) {
-            try {
-                fileUploadService.deleteFile(question.getPicture());
-            } catch (IOException ignored) {
-            }
-        }
+        List<String> pictures = new ArrayList<>();
+        pictures.add(question.getPicture());
+        question.getAnswers().forEach(a -> pictures.add(a.getPicture()));
 
+        questionTagService.questionDeleted(question);
         questionRepository.delete(question);
+        pictures.forEach(fileUploadService::release);
+        entityCache.questionChanged(id);
+        questionDetailCache.invalidate(id);
+        questionSearchService.questionDeleted(id);
+        trendingService.questionDeleted(id);
         return true;
     }
 
@@ -120,8 +321,23 @@ public class QuestionService {
             throw new IllegalArgumentException("Answer does not belong to this question");
         }
 
+        if (q.getStatus() != QuestionStatus.SOLVED) {
+            trendingService.statusChanged(questionId, QuestionStatus.SOLVED);
+        }
+        // Both answers' "accepted" flags change, and each answer is tagged with its own version
+        Long previouslyAccepted = q.getAcceptedAnswerId();
+        if (previouslyAccepted != null && !previouslyAccepted.equals(answerId)) {
+            answerRepository.bumpVersion(previouslyAccepted);
+        }
+        if (!answerId.equals(previouslyAccepted)) {
+            answerRepository.bumpVersion(answerId);
+        }
         q.setStatus(QuestionStatus.SOLVED);
         q.setAcceptedAnswerId(answerId);
-        return questionRepository.save(q);
+        Question saved = questionRepository.save(q);
+        questionRepository.bumpVersion(questionId);
+        entityCache.questionChanged(questionId);
+        questionDetailCache.invalidate(questionId);
+        return saved;
     }
 }
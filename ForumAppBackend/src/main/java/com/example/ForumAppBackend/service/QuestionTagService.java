@@ -5,10 +5,21 @@ import com.example.ForumAppBackend.entity.QuestionTag;
 import com.example.ForumAppBackend.entity.Tag;
 import com.example.ForumAppBackend.repository.QuestionRepository;
 import com.example.ForumAppBackend.repository.QuestionTagRepository;
+import com.example.ForumAppBackend.search.TagBitmapIndex;
+import com.example.ForumAppBackend.search.TagExpression;
+import com.example.ForumAppBackend.search.TagPosting;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class QuestionTagService {
@@ -16,19 +27,126 @@ public class QuestionTagService {
     private final QuestionTagRepository questionTagRepository;
     private final QuestionRepository questionRepository;
     private final TagService tagService;
+    private final QuestionDetailCache questionDetailCache;
+    private volatile TagBitmapIndex tagIndex = new TagBitmapIndex();
+    private volatile boolean tagIndexReady;
+    /** Orders committed index changes against a load, which must not lose them. */
+    private final Lock indexChanges = new ReentrantLock();
+    /** Changes committed while a load streams the tables, replayed onto its result; null when not loading. */
+    private List<Consumer<TagBitmapIndex>> changedDuringLoad;
 
     public QuestionTagService(
             QuestionTagRepository questionTagRepository,
             QuestionRepository questionRepository,
-            TagService tagService) {
+            TagService tagService,
+            QuestionDetailCache questionDetailCache) {
         this.questionTagRepository = questionTagRepository;
         this.questionRepository = questionRepository;
         this.tagService = tagService;
+        this.questionDetailCache = questionDetailCache;
+    }
+
+    /**
+     * Loads the tag bitmap index from the question_tags table once the application has started.
+     * The tables are streamed into a new index; changes committed meanwhile are replayed onto it
+     * in commit order before it replaces the live one, so a row read before an untag or delete
+     * cannot bring the removed tag back.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadTagIndex() {
+        TagBitmapIndex loaded = new TagBitmapIndex();
+        indexChanges.lock();
+        try {
+            changedDuringLoad = new ArrayList<>();
+        } finally {
+            indexChanges.unlock();
+        }
+        try {
+            try (Stream<Long> ids = questionRepository.streamAllIds()) {
+                ids.forEach(loaded::addQuestion);
+            }
+            try (Stream<TagPosting> postings = questionTagRepository.streamPostings()) {
+                postings.forEach(p -> loaded.tagQuestion(p.tagName(), p.questionId()));
+            }
+        } catch (RuntimeException e) {
+            finishLoad(null);
+            throw e;
+        }
+        finishLoad(loaded);
+        tagIndexReady = true;
+    }
+
+    /** Ends a load; a loaded index (null if it failed) gets the changes it missed and goes live. */
+    private void finishLoad(TagBitmapIndex loaded) {
+        indexChanges.lock();
+        try {
+            if (loaded != null) {
+                changedDuringLoad.forEach(change -> change.accept(loaded));
+                tagIndex = loaded;
+            }
+            changedDuringLoad = null;
+        } finally {
+            indexChanges.unlock();
+        }
+    }
+
+    /** Applies the change to the tag index once the transaction commits, and to an index being loaded. */
+    private void afterCommit(Consumer<TagBitmapIndex> change) {
+        TransactionCallbacks.afterCommit(() -> {
+            indexChanges.lock();
+            try {
+                change.accept(tagIndex);
+                if (changedDuringLoad != null) {
+                    changedDuringLoad.add(change);
+                }
+            } finally {
+                indexChanges.unlock();
+            }
+        });
+    }
+
+    public boolean isTagIndexReady() {
+        return tagIndexReady;
+    }
+
+    /** Ids of questions matching the tag expression, newest first, below the given id (null for the first page). */
+    public List<Long> findNewestMatching(TagExpression expression, Long beforeId, int limit) {
+        return tagIndex.newestMatching(expression, beforeId, limit);
+    }
+
+    public void questionCreated(Long questionId) {
+        afterCommit(index -> index.addQuestion(questionId));
+    }
+
+    /** Releases the question's tags; call before the question is deleted so its tags are still loaded. */
+    public void questionDeleted(Question question) {
+        Long questionId = question.getId();
+        question.getQuestionTags().forEach(qt -> tagService.usageChanged(qt.getTag(), -1));
+        afterCommit(index -> index.removeQuestion(questionId));
     }
 
     public void createAssociation(Question question, Tag tag) {
         QuestionTag qt = new QuestionTag(question, tag);
         questionTagRepository.save(qt);
+        questionRepository.bumpVersion(question.getId());
+        questionDetailCache.invalidate(question.getId());
+        tagService.usageChanged(tag, 1);
+        String tagName = tag.getName();
+        Long questionId = question.getId();
+        afterCommit(index -> index.tagQuestion(tagName, questionId));
+    }
+
+    /** Links a new question to all its tags with one insert and one usage count update. */
+    public void createAssociations(Question question, Map<String, Long> tagIds) {
+        if (tagIds.isEmpty()) {
+            return;
+        }
+        Long questionId = question.getId();
+        questionTagRepository.insertAll(questionId, tagIds.values());
+        tagService.usageChanged(tagIds.values(), 1);
+        List<String> names = List.copyOf(tagIds.keySet());
+        afterCommit(index -> names.forEach(name -> index.tagQuestion(name, questionId)));
     }
 
     public List<Tag> getTagsForQuestion(Long questionId) {
@@ -53,11 +171,17 @@ public class QuestionTagService {
         Question question = questionRepository.findById(questionId)
                 .orElseThrow(() -> new IllegalArgumentException("Question not found"));
 
-        Tag tag = tagService.getTagByName(tagName);
+        Tag tag = tagService.findTagReference(tagName);
         if (tag == null) {
             throw new IllegalArgumentException("Tag not found");
         }
 
-        questionTagRepository.deleteByQuestionAndTag(question, tag);
+        long removed = questionTagRepository.deleteByQuestionAndTag(question, tag);
+        if (removed > 0) {
+            questionRepository.bumpVersion(questionId);
+            questionDetailCache.invalidate(questionId);
+            tagService.usageChanged(tag, (int) -removed);
+            afterCommit(index -> index.untagQuestion(tagName, questionId));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.example.ForumAppBackend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset position in a most-voted question listing: the (voteScore, id) of the last question
+ * on the previous page, encoded like {@link FeedCursor}.
+ */
+public record ScoreCursor(long voteScore, Long id) {
+
+    public String encode() {
+        String raw = voteScore + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decodes a token produced by {@link #encode()}; null or blank means "start from the top". */
+    public static ScoreCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int comma = raw.lastIndexOf(',');
+            return new ScoreCursor(Long.parseLong(raw.substring(0, comma)), Long.parseLong(raw.substring(comma + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ForumAppBackend.service;
+
+import java.nio.file.Path;
+
+/**
+ * A file ready to be served: where it is on disk and the metadata recorded when it was stored.
+ * {@code etag} identifies the exact bytes. {@code immutable} is false when a stand-in is served
+ * (the original while a requested variant is still being generated), so it must not be cached
+ * for good.
+ */
+public record StoredFile(String etag, Path path, String contentType, long size, boolean immutable) {
+}
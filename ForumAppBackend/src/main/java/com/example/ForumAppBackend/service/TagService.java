@@ -1,30 +1,155 @@
 package com.example.ForumAppBackend.service;
 
+import com.example.ForumAppBackend.config.CacheConfig;
+import com.example.ForumAppBackend.dto.TagSuggestion;
+import com.example.ForumAppBackend.dto.TagUsageDrift;
 import com.example.ForumAppBackend.entity.Tag;
 import com.example.ForumAppBackend.repository.TagRepository;
+import com.example.ForumAppBackend.search.TagPrefixIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class TagService {
 
+    private static final Logger log = LoggerFactory.getLogger(TagService.class);
+    private static final int MAX_POPULAR_TAGS = 100;
+
     private final TagRepository tagRepository;
+    private final TagPrefixIndex prefixIndex = new TagPrefixIndex();
+    /** Tag ids by name; tags are never renamed or deleted, so entries only leave through eviction. */
+    private final Cache idCache;
 
-    public TagService(TagRepository tagRepository) {
+    public TagService(TagRepository tagRepository, CacheManager cacheManager) {
         this.tagRepository = tagRepository;
+        this.idCache = cacheManager.getCache(CacheConfig.TAG_IDS);
+    }
+
+    /** Loads every tag with its usage count into the autocomplete index. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSuggestions() {
+        // Also backfills the counts the first time the usage_count column is added
+        int corrected = tagRepository.reconcileUsageCounts();
+        if (corrected > 0) {
+            log.info("Corrected usage counts of {} tags", corrected);
+        }
+        prefixIndex.load(tagRepository.findSuggestions());
     }
 
+    @Transactional
     public Tag createOrGetTag(String name) {
-        return tagRepository.findByName(name)
-                .orElseGet(() -> tagRepository.save(new Tag(name)));
+        Long id = resolveTagIds(List.of(name)).get(name);
+        return tagRepository.findById(id).orElseThrow();
+    }
+
+    /**
+     * Ids for the tag names, creating missing tags. Cached names cost nothing; the rest are
+     * resolved with one batched upsert, so the cost does not grow with the number of names.
+     */
+    public Map<String, Long> resolveTagIds(Collection<String> names) {
+        Set<String> distinct = new LinkedHashSet<>(names);
+        Map<String, Long> ids = new HashMap<>();
+        for (String name : distinct) {
+            Long id = idCache.get(name, Long.class);
+            if (id != null) {
+                ids.put(name, id);
+            }
+        }
+        distinct.removeAll(ids.keySet());
+        if (!distinct.isEmpty()) {
+            Map<String, Long> resolved = tagRepository.upsertByNames(distinct);
+            ids.putAll(resolved);
+            // Only cache ids once they are committed, a rolled back insert must not leave one behind
+            TransactionCallbacks.afterCommit(() -> {
+                resolved.forEach(idCache::put);
+                resolved.forEach((name, id) -> prefixIndex.putIfAbsent(new TagSuggestion(id, name, 0L)));
+            });
+        }
+        return ids;
     }
 
     public List<Tag> getAllTags() {
         return tagRepository.findAll();
     }
 
-    public Tag getTagByName(String name) {
-        return tagRepository.findByName(name).orElse(null);
+    /** Most used tags first, read from the materialized usage counts. */
+    public List<Tag> getPopularTags(int limit) {
+        return tagRepository.findAllByOrderByUsageCountDescNameAsc(Limit.of(Math.max(1, Math.min(limit, MAX_POPULAR_TAGS))));
+    }
+
+    /**
+     * An uninitialized reference to the named tag, for queries and associations, or null if there is
+     * no such tag. The id comes from the tag id cache, so known tags cost no query.
+     */
+    public Tag findTagReference(String name) {
+        Long id = idCache.get(name, Long.class);
+        if (id == null) {
+            id = tagRepository.findByName(name).map(Tag::getId).orElse(null);
+            if (id == null) {
+                return null;
+            }
+            idCache.put(name, id);
+        }
+        return tagRepository.getReferenceById(id);
+    }
+
+    /** Most used tags starting with the prefix (case-insensitive); an empty prefix gives the most used overall. */
+    public List<TagSuggestion> suggest(String prefix, int limit) {
+        return prefixIndex.suggest(prefix, Math.min(limit, TagPrefixIndex.MAX_SUGGESTIONS));
+    }
+
+    /**
+     * Records that {@code delta} questions started (or stopped) using the tag: the stored count is
+     * updated in the caller's transaction, the autocomplete index once it commits.
+     */
+    public void usageChanged(Tag tag, int delta) {
+        Long tagId = tag.getId();
+        tagRepository.adjustUsageCount(tagId, delta);
+        TransactionCallbacks.afterCommit(() -> prefixIndex.adjustUsage(tagId, delta));
+    }
+
+    /** Batch form of {@link #usageChanged(Tag, int)}: one update for all the tags. */
+    public void usageChanged(Collection<Long> tagIds, int delta) {
+        if (tagIds.isEmpty()) {
+            return;
+        }
+        tagRepository.adjustUsageCounts(tagIds, delta);
+        List<Long> changed = List.copyOf(tagIds);
+        TransactionCallbacks.afterCommit(() -> changed.forEach(id -> prefixIndex.adjustUsage(id, delta)));
+    }
+
+    /**
+     * Recomputes every usage count from question_tags and corrects the ones that drifted
+     * (e.g. rows changed outside the application). Returns how many tags were corrected.
+     * The autocomplete index gets the corrections as deltas once they commit, so usage changes
+     * other requests commit meanwhile are kept.
+     */
+    @Scheduled(cron = "${tags.usage.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public int reconcileUsageCounts() {
+        List<TagUsageDrift> drifted = tagRepository.findUsageDrift();
+        if (drifted.isEmpty()) {
+            return 0;
+        }
+        int corrected = tagRepository.reconcileUsageCounts();
+        log.info("Corrected usage counts of {} tags", corrected);
+        TransactionCallbacks.afterCommit(() -> drifted.forEach(tag ->
+                prefixIndex.adjustUsage(tag.getTagId(), tag.getCorrection())));
+        return corrected;
     }
-}
\ No newline at end of file
+}
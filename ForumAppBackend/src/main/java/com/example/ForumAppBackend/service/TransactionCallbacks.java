@@ -0,0 +1,42 @@
+package com.example.ForumAppBackend.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Defers side effects (index updates, cache invalidation) until the surrounding transaction commits. */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /** Runs the action after commit, or immediately when no transaction is active. */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the action once the surrounding transaction commits or rolls back, or immediately when
+     * no transaction is active; for cache evictions, which must also drop values read mid-rollback.
+     */
+    public static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
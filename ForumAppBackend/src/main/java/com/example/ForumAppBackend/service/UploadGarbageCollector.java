@@ -0,0 +1,274 @@
+package com.example.ForumAppBackend.service;
+
+import com.example.ForumAppBackend.repository.AnswerRepository;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+/**
+ * Mark-and-sweep collector for upload files no question or answer uses any more: abandoned
+ * uploads, files left by failed deletes, temp files of interrupted uploads and variants whose
+ * original is gone. Runs on a thread of its own rather than the scheduler's, which it would
+ * otherwise hold for the whole run, pauses included, delaying vote flushes and every other
+ * scheduled task. The mark phase reads picture names in short
+ * chunked queries, and each candidate's references and age are re-checked in its own transaction
+ * right before it is deleted, so a file attached or uploaded again after the mark is kept. Files younger than the grace period are
+ * never touched, which covers uploads whose post is still being written.
+ */
+@Service
+public class UploadGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadGarbageCollector.class);
+
+    private final Path uploadDir;
+    private final FileUploadService fileUploadService;
+    private final ImageVariantService imageVariantService;
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final Duration gracePeriod;
+    private final int chunkSize;
+    private final int batchSize;
+    private final long batchPauseMillis;
+
+    private final ExecutorService sweeper = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "upload-gc");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Report lastReport;
+
+    public UploadGarbageCollector(@Value("${file.upload-dir}") String uploadDir,
+                                  FileUploadService fileUploadService,
+                                  ImageVariantService imageVariantService,
+                                  QuestionRepository questionRepository,
+                                  AnswerRepository answerRepository,
+                                  @Value("${uploads.gc.grace-hours:24}") long graceHours,
+                                  @Value("${uploads.gc.chunk-size:1000}") int chunkSize,
+                                  @Value("${uploads.gc.batch-size:100}") int batchSize,
+                                  @Value("${uploads.gc.batch-pause-ms:200}") long batchPauseMillis) {
+        this.uploadDir = Paths.get(uploadDir);
+        this.fileUploadService = fileUploadService;
+        this.imageVariantService = imageVariantService;
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+        this.gracePeriod = Duration.ofHours(graceHours);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.batchPauseMillis = batchPauseMillis;
+    }
+
+    /** Outcome of the most recent completed run, or null before the first one. */
+    public Report lastReport() {
+        return lastReport;
+    }
+
+    /** Starts a collection on the collector's thread and returns at once. */
+    @Scheduled(cron = "${uploads.gc.cron:0 15 4 * * *}")
+    public void scheduledCollect() {
+        sweeper.execute(this::collect);
+    }
+
+    /** Interrupts a run in progress, which stops before its next file. */
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * Runs one collection on the calling thread unless one is already in progress; returns its
+     * report, or null if skipped.
+     */
+    public Report collect() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            Report report = sweep(mark());
+            lastReport = report;
+            log.info("Upload GC scanned {} files, deleted {}, reclaimed {} bytes, {} failures in {} ms",
+                    report.scanned(), report.deleted(), report.reclaimedBytes(), report.failed(),
+                    report.durationMillis());
+            return report;
+        } catch (IOException e) {
+            log.warn("Upload GC aborted: {}", e.getMessage());
+            return null;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Names of every stored picture, read chunk by chunk so no query or transaction stays open long. */
+    private Set<String> mark() {
+        Set<String> referenced = new HashSet<>();
+        markAll(referenced, questionRepository::findPicturesAfter);
+        markAll(referenced, answerRepository::findPicturesAfter);
+        return referenced;
+    }
+
+    private void markAll(Set<String> referenced, BiFunction<Long, Limit, List<PictureRef>> chunks) {
+        long afterId = 0;
+        List<PictureRef> chunk;
+        do {
+            chunk = chunks.apply(afterId, Limit.of(chunkSize));
+            for (PictureRef ref : chunk) {
+                referenced.add(fileName(ref.picture()));
+            }
+            if (!chunk.isEmpty()) {
+                afterId = chunk.getLast().id();
+            }
+        } while (chunk.size() == chunkSize);
+    }
+
+    private Report sweep(Set<String> referenced) throws IOException {
+        long started = System.nanoTime();
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        Counters counters = new Counters();
+        Set<String> liveBases = new HashSet<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(uploadDir, Files::isRegularFile)) {
+            for (Path file : files) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                counters.scanned++;
+                String name = file.getFileName().toString();
+                if (referenced.contains(name) || !olderThan(file, cutoff)) {
+                    liveBases.add(baseName(name));
+                    continue;
+                }
+                if (name.startsWith(FileUploadService.TEMP_PREFIX) && name.endsWith(FileUploadService.TEMP_SUFFIX)) {
+                    delete(file, counters);
+                    continue;
+                }
+                long size = sizeWithVariants(file, name);
+                try {
+                    if (fileUploadService.deleteIfUnreferenced(name, cutoff)) {
+                        counters.deleted(size);
+                        throttle(counters);
+                        continue;
+                    }
+                } catch (RuntimeException e) {
+                    counters.failed++;
+                    log.warn("Upload GC could not release {}: {}", name, e.getMessage());
+                }
+                liveBases.add(baseName(name));
+            }
+        }
+
+        Path variantDir = imageVariantService.variantDir();
+        if (Files.isDirectory(variantDir)) {
+            try (DirectoryStream<Path> variants = Files.newDirectoryStream(variantDir, Files::isRegularFile)) {
+                for (Path variant : variants) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+                    counters.scanned++;
+                    String base = ImageVariantService.originalBase(variant.getFileName().toString());
+                    if ((base == null || !liveBases.contains(base)) && olderThan(variant, cutoff)) {
+                        delete(variant, counters);
+                    }
+                }
+            }
+        }
+        return new Report(Instant.now(), counters.scanned, referenced.size(), counters.deleted,
+                counters.reclaimedBytes, counters.failed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void delete(Path file, Counters counters) {
+        try {
+            long size = sizeOf(file);
+            if (Files.deleteIfExists(file)) {
+                counters.deleted(size);
+                throttle(counters);
+            }
+        } catch (IOException e) {
+            counters.failed++;
+            log.warn("Upload GC could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /** Pauses after every full batch of deletes so a large backlog does not saturate the disk. */
+    private void throttle(Counters counters) {
+        if (counters.deleted % batchSize != 0 || batchPauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private long sizeWithVariants(Path file, String name) {
+        long size = sizeOf(file);
+        for (int width : ImageVariantService.WIDTHS) {
+            size += sizeOf(imageVariantService.variantPath(name, width));
+        }
+        return size;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /** False for files that vanished since they were listed, e.g. deleted by a request meanwhile. */
+    private static boolean olderThan(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** The stored file name behind a picture value, which may still carry an upload URL prefix. */
+    private static String fileName(String picture) {
+        return picture.substring(picture.lastIndexOf('/') + 1);
+    }
+
+    private static String baseName(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? filename : filename.substring(0, dot);
+    }
+
+    private static final class Counters {
+        long scanned;
+        long deleted;
+        long reclaimedBytes;
+        long failed;
+
+        void deleted(long bytes) {
+            deleted++;
+            reclaimedBytes += bytes;
+        }
+    }
+
+    /** What one run found and freed; {@code referenced} counts distinct picture names in the database. */
+    public record Report(Instant finishedAt, long scanned, long referenced, long deleted, long reclaimedBytes,
+                         long failed, long durationMillis) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ForumAppBackend.service;
+
+import com.example.ForumAppBackend.entity.Role;
+import com.example.ForumAppBackend.entity.User;
+
+/** The cached identity of a user: what write paths check before acting for them. */
+public record UserRef(Long id, String username, String email, boolean banned, Role role) {
+
+    /**
+     * A detached stand-in for the user, for setting as the author or voter of a new row without
+     * loading the user. It carries no score, password or phone number.
+     */
+    public User toUser() {
+        User user = new User(id);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setBanned(banned);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -9,10 +9,15 @@ import com.example.ForumAppBackend.repository.QuestionVoteRepository;
 import com.example.ForumAppBackend.repository.AnswerVoteRepository;
 import com.example.ForumAppBackend.repository.AnswerRepository;
 import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.search.QuestionSearchService;
+import com.example.ForumAppBackend.search.TrendingService;
+import com.example.ForumAppBackend.vote.VotePipeline;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -23,44 +28,85 @@ public class UserService {
     private final AnswerVoteRepository answerVoteRepository;
     private final AnswerRepository answerRepository;
     private final QuestionRepository questionRepository;
+    private final QuestionSearchService questionSearchService;
+    private final QuestionTagService questionTagService;
+    private final TrendingService trendingService;
+    private final LeaderboardService leaderboardService;
+    private final VotePipeline votePipeline;
+    private final FileUploadService fileUploadService;
+    private final EntityCache entityCache;
+    private final QuestionDetailCache questionDetailCache;
 
     public UserService(UserRepository userRepository,
                        QuestionVoteRepository questionVoteRepository,
                        AnswerVoteRepository answerVoteRepository,
                        AnswerRepository answerRepository,
-                       QuestionRepository questionRepository) {
+                       QuestionRepository questionRepository,
+                       QuestionSearchService questionSearchService,
+                       QuestionTagService questionTagService,
+                       TrendingService trendingService,
+                       LeaderboardService leaderboardService,
+                       VotePipeline votePipeline,
+                       FileUploadService fileUploadService,
+                       EntityCache entityCache,
+                       QuestionDetailCache questionDetailCache) {
         this.userRepository = userRepository;
         this.questionVoteRepository = questionVoteRepository;
         this.answerVoteRepository = answerVoteRepository;
         this.answerRepository = answerRepository;
         this.questionRepository = questionRepository;
+        this.questionSearchService = questionSearchService;
+        this.questionTagService = questionTagService;
+        this.trendingService = trendingService;
+        this.leaderboardService = leaderboardService;
+        this.votePipeline = votePipeline;
+        this.fileUploadService = fileUploadService;
+        this.entityCache = entityCache;
+        this.questionDetailCache = questionDetailCache;
     }
 
     public User createUser(User user) {
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
+        if (entityCache.findUserByEmail(user.getEmail()).isPresent()) {
             throw new RuntimeException("User with this email already exists.");
         }
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        leaderboardService.userCreated(saved);
+        return saved;
     }
 
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    /** The user, with reputation changes still queued in the vote pipeline shown as pendingScore. */
     public User getUserById(Long id) {
-        return userRepository.findById(id).orElse(null);
+        User user = userRepository.findById(id).orElse(null);
+        votePipeline.overlay(user);
+        return user;
     }
 
+    /** A rename bumps the versions of every post showing the user, so their ETags change. */
+    @Transactional
     public User updateUser(Long id, User updatedData) {
         User existingUser = getUserById(id);
         if (existingUser != null) {
+            String oldEmail = existingUser.getEmail();
+            boolean renamed = !Objects.equals(existingUser.getUsername(), updatedData.getUsername());
             existingUser.setUsername(updatedData.getUsername());
             existingUser.setEmail(updatedData.getEmail());
             if (updatedData.getPassword() != null && !updatedData.getPassword().isBlank()) {
                 existingUser.setPassword(updatedData.getPassword());
             }
             existingUser.setPhoneNumber(updatedData.getPhoneNumber());
-            return userRepository.save(existingUser);
+            User saved = userRepository.save(existingUser);
+            entityCache.userChanged(id, oldEmail);
+            if (renamed) {
+                // Authors and voters are shown by username in question and answer bodies
+                questionRepository.bumpVersionsShowing(id);
+                answerRepository.bumpVersionsShowing(id);
+                questionDetailCache.invalidateAll();
+            }
+            return saved;
         }
         return null;
     }
@@ -72,6 +118,9 @@ public class UserService {
             return false;
         }
         // Remove votes cast by this user (so no FK from question_votes/answer_votes to user)
+        questionRepository.revokeVotesBy(id);
+        questionRepository.bumpVersionsForAnswerVotesBy(id);
+        answerRepository.revokeVotesBy(id);
         questionVoteRepository.deleteByVoter_Id(id);
         answerVoteRepository.deleteByVoter_Id(id);
         // Before deleting user's answers: clear acceptedAnswerId on questions that had this user's answer accepted
@@ -83,13 +132,35 @@ public class UserService {
                 q.setAcceptedAnswerId(null);
                 q.setStatus(QuestionStatus.RECEIVED);
                 questionRepository.save(q);
+                questionRepository.bumpVersion(q.getId());
+                entityCache.questionChanged(q.getId());
             }
         }
         // Remove user's answers (so no FK from answers to user)
+        questionRepository.discountAnswersBy(id);
         answerRepository.deleteAll(answerRepository.findByAuthor_Id(id));
         // Remove user's questions (cascade removes their answers, tags, votes)
-        questionRepository.deleteAll(questionRepository.findByAuthor_IdOrderByCreationDateTimeDesc(id));
+        List<Question> userQuestions = questionRepository.findByAuthor_IdOrderByCreationDateTimeDesc(id);
+        List<String> pictures = new ArrayList<>();
+        userAnswers.forEach(a -> pictures.add(a.getPicture()));
+        for (Question q : userQuestions) {
+            pictures.add(q.getPicture());
+            q.getAnswers().stream()
+                    .filter(a -> a.getAuthor() == null || !id.equals(a.getAuthor().getId()))
+                    .forEach(a -> pictures.add(a.getPicture()));
+        }
+        userQuestions.forEach(questionTagService::questionDeleted);
+        questionRepository.deleteAll(userQuestions);
         userRepository.delete(existingUser);
+        pictures.forEach(fileUploadService::release);
+        leaderboardService.userDeleted(id);
+        entityCache.userChanged(id, existingUser.getEmail());
+        userQuestions.forEach(q -> entityCache.questionChanged(q.getId()));
+        questionDetailCache.invalidateAll();
+
+        userAnswers.stream().map(a -> a.getQuestion().getId()).distinct().forEach(questionSearchService::questionChanged);
+        userQuestions.forEach(q -> questionSearchService.questionDeleted(q.getId()));
+        userQuestions.forEach(q -> trendingService.questionDeleted(q.getId()));
         return true;
     }
 
@@ -109,6 +180,7 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         user.setBanned(true);
+        entityCache.userChanged(userId, user.getEmail());
         return userRepository.save(user);
     }
 
@@ -117,6 +189,7 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         user.setBanned(false);
+        entityCache.userChanged(userId, user.getEmail());
         return userRepository.save(user);
     }
 
@@ -138,7 +211,10 @@ public class UserService {
         for (User user : users) {
             if (user.getEmail() != null && user.getEmail().endsWith("@example.com")) {
                 userRepository.delete(user);
+                leaderboardService.userDeleted(user.getId());
+                entityCache.userChanged(user.getId(), user.getEmail());
             }
         }
+        questionDetailCache.invalidateAll();
     }
 }
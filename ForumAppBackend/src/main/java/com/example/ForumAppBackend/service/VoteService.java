@@ -5,18 +5,26 @@ import com.example.ForumAppBackend.repository.QuestionVoteRepository;
 import com.example.ForumAppBackend.repository.AnswerVoteRepository;
 import com.example.ForumAppBackend.repository.QuestionRepository;
 import com.example.ForumAppBackend.repository.AnswerRepository;
-import com.example.ForumAppBackend.repository.UserRepository;
+import com.example.ForumAppBackend.search.TrendingService;
+import com.example.ForumAppBackend.vote.ScoreDelta;
+import com.example.ForumAppBackend.vote.VotePipeline;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 public class VoteService {
     private final QuestionVoteRepository questionVoteRepository;
     private final AnswerVoteRepository answerVoteRepository;
     private final QuestionRepository questionRepository;
     private final AnswerRepository answerRepository;
-    private final UserRepository userRepository;
+    private final EntityCache entityCache;
+    private final QuestionDetailCache questionDetailCache;
+    private final VotePipeline votePipeline;
+    private final TrendingService trendingService;
 
     // Score constants according to requirements
     private static final double QUESTION_UPVOTE_POINTS = 2.5;
@@ -30,12 +38,18 @@ public class VoteService {
             AnswerVoteRepository answerVoteRepository,
             QuestionRepository questionRepository,
             AnswerRepository answerRepository,
-            UserRepository userRepository) {
+            EntityCache entityCache,
+            QuestionDetailCache questionDetailCache,
+            VotePipeline votePipeline,
+            TrendingService trendingService) {
         this.questionVoteRepository = questionVoteRepository;
         this.answerVoteRepository = answerVoteRepository;
         this.questionRepository = questionRepository;
         this.answerRepository = answerRepository;
-        this.userRepository = userRepository;
+        this.entityCache = entityCache;
+        this.questionDetailCache = questionDetailCache;
+        this.votePipeline = votePipeline;
+        this.trendingService = trendingService;
     }
 
     @Transactional
@@ -44,55 +58,59 @@ public class VoteService {
             throw new IllegalArgumentException("Vote value must be 1 or -1");
         }
 
-        Question question = questionRepository.findById(questionId)
+        // Question and voter come from the entity cache; neither row is read to record the vote
+        QuestionRef question = entityCache.findQuestion(questionId)
                 .orElseThrow(() -> new IllegalArgumentException("Question not found"));
-        User voter = userRepository.findById(voterId)
+        UserRef voter = entityCache.findUser(voterId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        if (question.getAuthor().getId().equals(voterId)) {
+        if (voterId.equals(question.authorId())) {
             throw new IllegalArgumentException("Cannot vote on your own question");
         }
 
         QuestionVote existingVote = questionVoteRepository.findByQuestionIdAndVoterId(questionId, voterId)
                 .orElse(null);
 
-        // Update author's score
-        User author = question.getAuthor();
+        // Every branch below changes the question's votes, so its ETag must change in this transaction
+        questionRepository.bumpVersion(questionId);
+        questionDetailCache.invalidate(questionId);
+
+        // Scores change through atomic increments (or the write-behind pipeline), never read-modify-write
+        Long authorId = question.authorId();
         if (existingVote != null) {
             if (existingVote.getValue() == value) {
                 // If voting the same way, remove the vote and revert score
-                double scoreChange = -calculateQuestionScoreChange(existingVote.getValue());
-                author.setScore(author.getScore() + scoreChange);
-                userRepository.save(author);
+                votePipeline.record(List.of(
+                        ScoreDelta.user(authorId, -calculateQuestionScoreChange(existingVote.getValue())),
+                        ScoreDelta.question(questionId, -existingVote.getValue())));
+                trendingService.questionVoted(questionId, -existingVote.getValue());
                 questionVoteRepository.delete(existingVote);
                 return null;
             } else {
                 // If voting differently, update the vote and adjust score
-                double oldScoreChange = -calculateQuestionScoreChange(existingVote.getValue());
-                double newScoreChange = calculateQuestionScoreChange(value);
-                author.setScore(author.getScore() + oldScoreChange + newScoreChange);
-                userRepository.save(author);
+                votePipeline.record(List.of(
+                        ScoreDelta.user(authorId, calculateQuestionScoreChange(value) - calculateQuestionScoreChange(existingVote.getValue())),
+                        ScoreDelta.question(questionId, value - existingVote.getValue())));
+                trendingService.questionVoted(questionId, value - existingVote.getValue());
                 existingVote.setValue(value);
                 return questionVoteRepository.save(existingVote);
             }
         } else {
             // Create new vote
             QuestionVote newVote = new QuestionVote();
-            newVote.setQuestion(question);
-            newVote.setVoter(voter);
+            newVote.setQuestion(questionRepository.getReferenceById(questionId));
+            newVote.setVoter(voter.toUser());
             newVote.setValue(value);
 
-            // Update scores
-            double authorScoreChange = calculateQuestionScoreChange(value);
-            author.setScore(author.getScore() + authorScoreChange);
-
+            List<ScoreDelta> deltas = new ArrayList<>();
+            deltas.add(ScoreDelta.user(authorId, calculateQuestionScoreChange(value)));
             // Apply downvote penalty to voter
             if (value == -1) {
-                voter.setScore(voter.getScore() + DOWNVOTE_PENALTY);
-                userRepository.save(voter);
+                deltas.add(ScoreDelta.user(voterId, DOWNVOTE_PENALTY));
             }
-
-            userRepository.save(author);
+            deltas.add(ScoreDelta.question(questionId, value));
+            votePipeline.record(deltas);
+            trendingService.questionVoted(questionId, value);
             return questionVoteRepository.save(newVote);
         }
     }
@@ -105,7 +123,7 @@ public class VoteService {
 
         Answer answer = answerRepository.findById(answerId)
                 .orElseThrow(() -> new IllegalArgumentException("Answer not found"));
-        User voter = userRepository.findById(voterId)
+        UserRef voter = entityCache.findUser(voterId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         if (answer.getAuthor().getId().equals(voterId)) {
@@ -115,22 +133,27 @@ public class VoteService {
         AnswerVote existingVote = answerVoteRepository.findByAnswerIdAndVoterId(answerId, voterId)
                 .orElse(null);
 
-        // Update author's score
-        User author = answer.getAuthor();
+        // Scores change through atomic increments (or the write-behind pipeline), never read-modify-write
+        Long authorId = answer.getAuthor().getId();
+        Long questionId = answer.getQuestion().getId();
+        answerRepository.bumpVersion(answerId);
+        questionRepository.bumpVersion(questionId);
+        questionDetailCache.invalidate(questionId);
         if (existingVote != null) {
             if (existingVote.getValue() == value) {
                 // If voting the same way, remove the vote and revert score
-                double scoreChange = -calculateAnswerScoreChange(existingVote.getValue());
-                author.setScore(author.getScore() + scoreChange);
-                userRepository.save(author);
+                votePipeline.record(List.of(
+                        ScoreDelta.user(authorId, -calculateAnswerScoreChange(existingVote.getValue())),
+                        ScoreDelta.answer(answerId, -existingVote.getValue())));
+                trendingService.answerVoted(questionId, -existingVote.getValue());
                 answerVoteRepository.delete(existingVote);
                 return null;
             } else {
                 // If voting differently, update the vote and adjust score
-                double oldScoreChange = -calculateAnswerScoreChange(existingVote.getValue());
-                double newScoreChange = calculateAnswerScoreChange(value);
-                author.setScore(author.getScore() + oldScoreChange + newScoreChange);
-                userRepository.save(author);
+                votePipeline.record(List.of(
+                        ScoreDelta.user(authorId, calculateAnswerScoreChange(value) - calculateAnswerScoreChange(existingVote.getValue())),
+                        ScoreDelta.answer(answerId, value - existingVote.getValue())));
+                trendingService.answerVoted(questionId, value - existingVote.getValue());
                 existingVote.setValue(value);
                 return answerVoteRepository.save(existingVote);
             }
@@ -138,20 +161,18 @@ public class VoteService {
             // Create new vote
             AnswerVote newVote = new AnswerVote();
             newVote.setAnswer(answer);
-            newVote.setVoter(voter);
+            newVote.setVoter(voter.toUser());
             newVote.setValue(value);
 
-            // Update scores
-            double authorScoreChange = calculateAnswerScoreChange(value);
-            author.setScore(author.getScore() + authorScoreChange);
-
+            List<ScoreDelta> deltas = new ArrayList<>();
+            deltas.add(ScoreDelta.user(authorId, calculateAnswerScoreChange(value)));
             // Apply downvote penalty to voter
             if (value == -1) {
-                voter.setScore(voter.getScore() + DOWNVOTE_PENALTY);
-                userRepository.save(voter);
+                deltas.add(ScoreDelta.user(voterId, DOWNVOTE_PENALTY));
             }
-
-            userRepository.save(author);
+            deltas.add(ScoreDelta.answer(answerId, value));
+            votePipeline.record(deltas);
+            trendingService.answerVoted(questionId, value);
             return answerVoteRepository.save(newVote);
         }
     }
@@ -0,0 +1,23 @@
+package com.example.ForumAppBackend.vote;
+
+/** A change to one stored score: a user's reputation or a question's or answer's vote total. */
+public record ScoreDelta(Target target, long id, double delta) {
+
+    public enum Target {
+        USER,
+        QUESTION,
+        ANSWER
+    }
+
+    public static ScoreDelta user(Long id, double delta) {
+        return new ScoreDelta(Target.USER, id, delta);
+    }
+
+    public static ScoreDelta question(Long id, long delta) {
+        return new ScoreDelta(Target.QUESTION, id, delta);
+    }
+
+    public static ScoreDelta answer(Long id, long delta) {
+        return new ScoreDelta(Target.ANSWER, id, delta);
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.ForumAppBackend.vote;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of score deltas, split into numbered segments. Each append is one
+ * checksummed record (id, kind, count, deltas, CRC32) forced to disk before it returns, so a
+ * crash loses at most a torn final record, which {@link #read(long)} detects and skips.
+ * Records are written before the vote commits and marked aborted if it rolls back; a record may
+ * be written again under the same id in a later segment, and {@link #replay} counts it once. A
+ * crash can cut the abort mark short, so the journal alone does not say which votes committed.
+ * The directory also holds the journal's id, which keys its checkpoint in the database.
+ * Not thread-safe; the owner serializes access.
+ */
+public final class VoteJournal implements AutoCloseable {
+
+    private static final String PREFIX = "votes-";
+    private static final String SUFFIX = ".log";
+    private static final String ID_FILE = "journal-id";
+    private static final byte PREPARED = 0;
+    private static final byte ABORTED = 1;
+    private static final int HEADER_BYTES = Long.BYTES + 1 + Integer.BYTES;
+    private static final int DELTA_BYTES = 1 + Long.BYTES + Double.BYTES;
+
+    /** A journal record: the deltas of one vote, or the mark that the vote with this id rolled back. */
+    public record Entry(long id, boolean aborted, List<ScoreDelta> deltas) {
+    }
+
+    private final Path dir;
+    private final String id;
+    private long segment;
+    private int sequence;
+    private FileChannel channel;
+
+    /** Opens the journal; new appends go to a segment numbered after every existing one. */
+    public VoteJournal(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        this.id = readOrCreateId(dir.resolve(ID_FILE));
+        List<Long> existing = segments();
+        this.segment = existing.isEmpty() ? 1 : existing.getLast() + 1;
+        this.channel = open(segment);
+    }
+
+    /** Identifies this journal directory, wherever it is mounted. */
+    public String id() {
+        return id;
+    }
+
+    /** Journals the deltas of one vote and returns the record id, unique within the directory. */
+    public long append(List<ScoreDelta> deltas) throws IOException {
+        long recordId = (segment << 32) | (sequence++ & 0xFFFFFFFFL);
+        write(recordId, PREPARED, deltas);
+        return recordId;
+    }
+
+    /** Writes a record again into the current segment, e.g. to keep it past a checkpoint. */
+    public void append(long recordId, List<ScoreDelta> deltas) throws IOException {
+        write(recordId, PREPARED, deltas);
+    }
+
+    /** Marks the record's vote as rolled back, so replays leave its deltas out. */
+    public void abort(long recordId) throws IOException {
+        write(recordId, ABORTED, List.of());
+    }
+
+    public long currentSegment() {
+        return segment;
+    }
+
+    /** Closes the current segment and starts a new one; returns the number of the closed segment. */
+    public long rotate() throws IOException {
+        channel.close();
+        long closed = segment++;
+        sequence = 0;
+        channel = open(segment);
+        return closed;
+    }
+
+    /** Numbers of the segments on disk, oldest first. */
+    public List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /** Every intact record of the segment, in append order; stops at the first torn or corrupt record. */
+    public List<Entry> read(long segmentNumber) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file(segmentNumber)));
+        ScoreDelta.Target[] targets = ScoreDelta.Target.values();
+        List<Entry> entries = new ArrayList<>();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            long recordId = buffer.getLong();
+            byte kind = buffer.get();
+            int count = buffer.getInt();
+            if ((kind != PREPARED && kind != ABORTED) || count < 0
+                    || buffer.remaining() < (long) count * DELTA_BYTES + Long.BYTES) {
+                break;
+            }
+            List<ScoreDelta> deltas = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int target = buffer.get();
+                long targetId = buffer.getLong();
+                double delta = buffer.getDouble();
+                if (target < 0 || target >= targets.length) {
+                    return entries;
+                }
+                deltas.add(new ScoreDelta(targets[target], targetId, delta));
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), start, buffer.position() - start);
+            if (crc.getValue() != buffer.getLong()) {
+                break;
+            }
+            entries.add(new Entry(recordId, kind == ABORTED, deltas));
+        }
+        return entries;
+    }
+
+    /**
+     * Deltas of every committed vote journaled in the segments, each record counted once however
+     * many times it was written. Aborted records are left out, and so are records {@code committed}
+     * does not confirm: their vote may have rolled back without the abort mark reaching the disk.
+     */
+    public List<ScoreDelta> replay(Collection<Long> segmentNumbers, LongPredicate committed) throws IOException {
+        Map<Long, List<ScoreDelta>> prepared = new LinkedHashMap<>();
+        Set<Long> aborted = new HashSet<>();
+        for (long segmentNumber : segmentNumbers) {
+            for (Entry entry : read(segmentNumber)) {
+                if (entry.aborted()) {
+                    aborted.add(entry.id());
+                } else {
+                    prepared.putIfAbsent(entry.id(), entry.deltas());
+                }
+            }
+        }
+        List<ScoreDelta> deltas = new ArrayList<>();
+        prepared.forEach((recordId, recordDeltas) -> {
+            if (!aborted.contains(recordId) && committed.test(recordId)) {
+                deltas.addAll(recordDeltas);
+            }
+        });
+        return deltas;
+    }
+
+    public void delete(long segmentNumber) throws IOException {
+        Files.deleteIfExists(file(segmentNumber));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void write(long recordId, byte kind, List<ScoreDelta> deltas) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + deltas.size() * DELTA_BYTES + Long.BYTES);
+        buffer.putLong(recordId);
+        buffer.put(kind);
+        buffer.putInt(deltas.size());
+        for (ScoreDelta delta : deltas) {
+            buffer.put((byte) delta.target().ordinal());
+            buffer.putLong(delta.id());
+            buffer.putDouble(delta.delta());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    private static String readOrCreateId(Path file) throws IOException {
+        if (Files.exists(file)) {
+            return Files.readString(file, StandardCharsets.UTF_8).trim();
+        }
+        String created = UUID.randomUUID().toString();
+        Path tmp = file.resolveSibling(ID_FILE + ".tmp");
+        Files.writeString(tmp, created, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return created;
+    }
+
+    private FileChannel open(long segmentNumber) throws IOException {
+        return FileChannel.open(file(segmentNumber), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path file(long segmentNumber) {
+        return dir.resolve(PREFIX + segmentNumber + SUFFIX);
+    }
+}
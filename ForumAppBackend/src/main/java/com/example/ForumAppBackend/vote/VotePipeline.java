@@ -0,0 +1,382 @@
+package com.example.ForumAppBackend.vote;
+
+import com.example.ForumAppBackend.dto.AnswerSummary;
+import com.example.ForumAppBackend.entity.Answer;
+import com.example.ForumAppBackend.entity.Question;
+import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.entity.VoteJournalCheckpoint;
+import com.example.ForumAppBackend.repository.AnswerRepository;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.repository.ScoreBatchRepository;
+import com.example.ForumAppBackend.repository.UserRepository;
+import com.example.ForumAppBackend.repository.VoteJournalCheckpointRepository;
+import com.example.ForumAppBackend.repository.VoteJournalCommitRepository;
+import com.example.ForumAppBackend.service.LeaderboardService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Where vote score deltas go. By default they are applied in the voting transaction as atomic
+ * increments. With {@code votes.pipeline.enabled=true} they are write-behind: the deltas are
+ * forced to a local {@link VoteJournal} before the vote commits (and marked aborted if it rolls
+ * back), coalesced in memory once it has, and a background flusher applies the net change per
+ * user, question and answer as JDBC batches. The voting transaction also inserts a commit mark
+ * for its record. Journal segments newer than this journal's database checkpoint are replayed at
+ * startup, counting only records with a mark, so a vote that rolled back before its abort reached
+ * the journal is not applied. Reads can overlay not-yet-flushed deltas so voters see their own
+ * votes immediately.
+ */
+@Service
+public class VotePipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(VotePipeline.class);
+
+    private final boolean enabled;
+    private final Path journalDir;
+    private final UserRepository userRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerRepository answerRepository;
+    private final ScoreBatchRepository scoreBatchRepository;
+    private final VoteJournalCheckpointRepository checkpointRepository;
+    private final VoteJournalCommitRepository commitRepository;
+    private final LeaderboardService leaderboardService;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Not a monitor: journal appends force to disk, which would pin a virtual thread's carrier. */
+    private final ReentrantLock lock = new ReentrantLock();
+    private VoteJournal journal;
+    /** Accepted deltas not yet handed to the flusher, net per target and id. */
+    private Map<ScoreDelta.Target, Map<Long, Double>> pending = emptyDeltas();
+    /** Records whose deltas are in {@link #pending}; their commit marks go when those are applied. */
+    private List<Long> pendingRecords = new ArrayList<>();
+    /** Deltas of the flush in progress; still overlaid on reads until that flush commits. */
+    private Map<ScoreDelta.Target, Map<Long, Double>> inFlight = emptyDeltas();
+    /** Journaled deltas, by record id, of votes that have not committed or rolled back yet. */
+    private final Map<Long, List<ScoreDelta>> inDoubt = new HashMap<>();
+
+    public VotePipeline(
+            @Value("${votes.pipeline.enabled:false}") boolean enabled,
+            @Value("${votes.pipeline.journal-dir:vote-journal}") String journalDir,
+            UserRepository userRepository,
+            QuestionRepository questionRepository,
+            AnswerRepository answerRepository,
+            ScoreBatchRepository scoreBatchRepository,
+            VoteJournalCheckpointRepository checkpointRepository,
+            VoteJournalCommitRepository commitRepository,
+            LeaderboardService leaderboardService,
+            PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.journalDir = Path.of(journalDir);
+        this.userRepository = userRepository;
+        this.questionRepository = questionRepository;
+        this.answerRepository = answerRepository;
+        this.scoreBatchRepository = scoreBatchRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.commitRepository = commitRepository;
+        this.leaderboardService = leaderboardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /** Replays journal segments the database has not seen yet, before any new vote is accepted. */
+    @PostConstruct
+    public void recover() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new VoteJournal(journalDir);
+        long checkpoint = checkpointRepository.findById(journal.id())
+                .map(VoteJournalCheckpoint::getLastAppliedSegment)
+                .orElse(0L);
+        List<Long> closed = journal.segments().stream().filter(s -> s < journal.currentSegment()).toList();
+        List<Long> unapplied = closed.stream().filter(s -> s > checkpoint).toList();
+        if (!unapplied.isEmpty()) {
+            List<ScoreDelta> deltas = journal.replay(unapplied, commitRepository.findRecordIds(journal.id())::contains);
+            Map<ScoreDelta.Target, Map<Long, Double>> recovered = emptyDeltas();
+            merge(recovered, deltas);
+            long last = unapplied.getLast();
+            transactionTemplate.executeWithoutResult(status -> {
+                apply(recovered, last);
+                // Every closed segment is applied now, and no vote of this journal is still open
+                commitRepository.deleteAll(journal.id());
+            });
+            log.info("Replayed {} vote score deltas from journal segments up to {}", deltas.size(), last);
+        }
+        for (long segment : closed) {
+            journal.delete(segment);
+        }
+    }
+
+    /**
+     * Applies the deltas in the caller's transaction, or journals them just before it commits,
+     * together with a commit mark in that transaction, and queues them for the flusher once it
+     * has, so a crash after the commit cannot lose them. Without a transaction, one is started
+     * for the mark.
+     */
+    public void record(List<ScoreDelta> deltas) {
+        if (!enabled) {
+            deltas.forEach(this::applyNow);
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> record(deltas));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean prepared;
+            private Long recordId;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                recordId = prepare(deltas);
+                prepared = true;
+                if (recordId != null) {
+                    commitRepository.markCommitted(journal.id(), recordId);
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (prepared) {
+                    resolve(recordId, deltas, status == STATUS_COMMITTED);
+                }
+            }
+        });
+    }
+
+    /** Applies everything accepted so far, coalesced, in one transaction. */
+    @Scheduled(fixedDelayString = "${votes.pipeline.flush-interval-ms:500}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        Map<ScoreDelta.Target, Map<Long, Double>> batch;
+        List<Long> batchRecords;
+        long segment;
+        lock.lock();
+        try {
+            if (pending.values().stream().allMatch(Map::isEmpty)) {
+                return;
+            }
+            try {
+                segment = journal.rotate();
+                // Votes journaled in the closed segment that have not committed are not in this batch;
+                // their records must outlive the checkpoint it writes
+                for (Map.Entry<Long, List<ScoreDelta>> record : inDoubt.entrySet()) {
+                    journal.append(record.getKey(), record.getValue());
+                }
+            } catch (IOException e) {
+                log.warn("Could not rotate vote journal, will retry: {}", e.getMessage());
+                return;
+            }
+            batch = pending;
+            batchRecords = pendingRecords;
+            inFlight = batch;
+            pending = emptyDeltas();
+            pendingRecords = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                apply(batch, segment);
+                commitRepository.delete(journal.id(), batchRecords);
+            });
+        } catch (RuntimeException e) {
+            // The journal still holds these deltas; keep them pending so the next flush retries
+            log.warn("Vote score flush failed, will retry: {}", e.getMessage());
+            lock.lock();
+            try {
+                batch.forEach((target, byId) -> byId.forEach((id, delta) -> pending.get(target).merge(id, delta, Double::sum)));
+                pendingRecords.addAll(batchRecords);
+                inFlight = emptyDeltas();
+            } finally {
+                lock.unlock();
+            }
+            return;
+        }
+        lock.lock();
+        try {
+            inFlight = emptyDeltas();
+        } finally {
+            lock.unlock();
+        }
+        leaderboardService.scoresChanged(batch.get(ScoreDelta.Target.USER));
+        try {
+            for (long closed : journal.segments()) {
+                if (closed <= segment) {
+                    journal.delete(closed);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete flushed vote journal segments: {}", e.getMessage());
+        }
+    }
+
+    /** Adds not-yet-flushed vote deltas to the question and its answers, for read-your-writes. */
+    public void overlay(Question question) {
+        if (!enabled || question == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            question.setPendingVoteScore(Math.round(pendingLocked(ScoreDelta.Target.QUESTION, question.getId())));
+            for (Answer answer : question.getAnswers()) {
+                overlayLocked(answer);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void overlay(List<Answer> answers) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            answers.forEach(this::overlayLocked);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void overlaySummaries(List<AnswerSummary> answers) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            answers.forEach(a -> a.setPendingVoteScore(Math.round(pendingLocked(ScoreDelta.Target.ANSWER, a.getId()))));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void overlay(User user) {
+        if (!enabled || user == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            user.setPendingScore(pendingLocked(ScoreDelta.Target.USER, user.getId()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (enabled) {
+            flush();
+            journal.close();
+        }
+    }
+
+    /** Journals a vote's deltas; returns the record id, or null if they could not be written. */
+    private Long prepare(List<ScoreDelta> deltas) {
+        lock.lock();
+        try {
+            long recordId = journal.append(deltas);
+            inDoubt.put(recordId, deltas);
+            return recordId;
+        } catch (IOException e) {
+            log.error("Could not journal vote score deltas, they are only held in memory: {}", e.getMessage());
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Queues a committed vote's deltas for the flusher, or marks a rolled back one's record aborted. */
+    private void resolve(Long recordId, List<ScoreDelta> deltas, boolean committed) {
+        lock.lock();
+        try {
+            if (recordId != null) {
+                inDoubt.remove(recordId);
+            }
+            if (committed) {
+                merge(pending, deltas);
+                if (recordId != null) {
+                    pendingRecords.add(recordId);
+                }
+            } else if (recordId != null) {
+                journal.abort(recordId);
+            }
+        } catch (IOException e) {
+            log.warn("Could not mark rolled back vote deltas aborted, a crash would replay them: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void apply(Map<ScoreDelta.Target, Map<Long, Double>> deltas, long segment) {
+        scoreBatchRepository.addToUserScores(new TreeMap<>(deltas.get(ScoreDelta.Target.USER)));
+        scoreBatchRepository.addToQuestionVoteScores(rounded(deltas.get(ScoreDelta.Target.QUESTION)));
+        scoreBatchRepository.addToAnswerVoteScores(rounded(deltas.get(ScoreDelta.Target.ANSWER)));
+        checkpointRepository.save(new VoteJournalCheckpoint(journal.id(), segment));
+    }
+
+    private void applyNow(ScoreDelta delta) {
+        switch (delta.target()) {
+            case USER -> {
+                userRepository.adjustScore(delta.id(), delta.delta());
+                leaderboardService.scoresChanged(Map.of(delta.id(), delta.delta()));
+            }
+            case QUESTION -> questionRepository.adjustVoteScore(delta.id(), Math.round(delta.delta()));
+            case ANSWER -> answerRepository.adjustVoteScore(delta.id(), Math.round(delta.delta()));
+        }
+    }
+
+    private void overlayLocked(Answer answer) {
+        answer.setPendingVoteScore(Math.round(pendingLocked(ScoreDelta.Target.ANSWER, answer.getId())));
+    }
+
+    private double pendingLocked(ScoreDelta.Target target, Long id) {
+        return pending.get(target).getOrDefault(id, 0.0) + inFlight.get(target).getOrDefault(id, 0.0);
+    }
+
+    private static SortedMap<Long, Long> rounded(Map<Long, Double> deltas) {
+        SortedMap<Long, Long> rounded = new TreeMap<>();
+        deltas.forEach((id, delta) -> {
+            long value = Math.round(delta);
+            if (value != 0) {
+                rounded.put(id, value);
+            }
+        });
+        return rounded;
+    }
+
+    private static void merge(Map<ScoreDelta.Target, Map<Long, Double>> into, List<ScoreDelta> deltas) {
+        for (ScoreDelta delta : deltas) {
+            into.get(delta.target()).merge(delta.id(), delta.delta(), Double::sum);
+        }
+    }
+
+    private static Map<ScoreDelta.Target, Map<Long, Double>> emptyDeltas() {
+        Map<ScoreDelta.Target, Map<Long, Double>> deltas = new EnumMap<>(ScoreDelta.Target.class);
+        for (ScoreDelta.Target target : ScoreDelta.Target.values()) {
+            deltas.put(target, new HashMap<>());
+        }
+        return deltas;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.ForumAppBackend.config;
+
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Prometheus drops meters whose tag keys clash with an existing name, so check what actually gets scraped. */
+@SpringBootTest
+class MetricsConfigTest {
+
+    @Autowired
+    private PrometheusMeterRegistry prometheus;
+
+    @Test
+    void exportsOwnMetricsNextToTheSpringCaches() {
+        assertThat(prometheus.scrape()).contains(
+                "forum_cache_question_details_gets_total{result=\"hit\"}",
+                "forum_cache_question_details_gets_total{result=\"miss\"}",
+                "forum_cache_question_details_evictions_total",
+                "forum_cache_question_details_size",
+                "forum_cache_question_details_bytes",
+                "forum_db_bulkhead_available",
+                "forum_uploads_bytes_total",
+                "cache_gets_total{cache=");
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.ForumAppBackend.controller;
+
+import com.example.ForumAppBackend.service.StoredFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileRangeResponderTest {
+
+    private static final long SIZE = 1000;
+
+    @Test
+    void parsesClosedRangesAndClampsTheirEnd() {
+        assertThat(FileRangeResponder.parseRange("bytes=0-99", SIZE)).containsExactly(0, 100);
+        assertThat(FileRangeResponder.parseRange("bytes= 10 - 19 ", SIZE)).containsExactly(10, 20);
+        assertThat(FileRangeResponder.parseRange("bytes=900-5000", SIZE)).containsExactly(900, 1000);
+        assertThat(FileRangeResponder.parseRange("bytes=999-999", SIZE)).containsExactly(999, 1000);
+    }
+
+    @Test
+    void parsesOpenEndedRanges() {
+        assertThat(FileRangeResponder.parseRange("bytes=500-", SIZE)).containsExactly(500, 1000);
+        assertThat(FileRangeResponder.parseRange("bytes=0-", SIZE)).containsExactly(0, 1000);
+    }
+
+    @Test
+    void parsesSuffixRanges() {
+        assertThat(FileRangeResponder.parseRange("bytes=-100", SIZE)).containsExactly(900, 1000);
+        // A suffix longer than the file means the whole file
+        assertThat(FileRangeResponder.parseRange("bytes=-5000", SIZE)).containsExactly(0, 1000);
+        assertThat(FileRangeResponder.parseRange("bytes=-0", SIZE)).isEmpty();
+    }
+
+    @Test
+    void rangesStartingPastTheEndAreUnsatisfiable() {
+        assertThat(FileRangeResponder.parseRange("bytes=1000-", SIZE)).isEmpty();
+        assertThat(FileRangeResponder.parseRange("bytes=1000-1200", SIZE)).isEmpty();
+        assertThat(FileRangeResponder.parseRange("bytes=0-10", 0)).isEmpty();
+    }
+
+    @Test
+    void multiRangeAndMalformedHeadersServeTheWholeFile() {
+        assertThat(FileRangeResponder.parseRange("bytes=0-1,5-6", SIZE)).isNull();
+        assertThat(FileRangeResponder.parseRange("bytes=-1, 0-0", SIZE)).isNull();
+        assertThat(FileRangeResponder.parseRange("items=0-1", SIZE)).isNull();
+        assertThat(FileRangeResponder.parseRange("bytes=10", SIZE)).isNull();
+        assertThat(FileRangeResponder.parseRange("bytes=a-b", SIZE)).isNull();
+        assertThat(FileRangeResponder.parseRange("bytes=20-10", SIZE)).isNull();
+    }
+
+    @Test
+    void respondsWithPartialContentOrRangeNotSatisfiable(@TempDir Path dir) throws IOException {
+        Path path = Files.writeString(dir.resolve("abc.txt"), "0123456789");
+        StoredFile file = new StoredFile("abc", path, "text/plain", 10, true);
+
+        MockHttpServletResponse partial = respond(file, "bytes=-3");
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+        assertThat(partial.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("789");
+
+        MockHttpServletResponse unsatisfiable = respond(file, "bytes=10-");
+        assertThat(unsatisfiable.getStatus()).isEqualTo(416);
+        assertThat(unsatisfiable.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+        assertThat(unsatisfiable.getContentAsByteArray()).isEmpty();
+
+        MockHttpServletResponse whole = respond(file, "bytes=0-1,4-5");
+        assertThat(whole.getStatus()).isEqualTo(200);
+        assertThat(whole.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("0123456789");
+    }
+
+    private static MockHttpServletResponse respond(StoredFile file, String range) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/upload/image/abc.txt");
+        request.addHeader(HttpHeaders.RANGE, range);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileRangeResponder.respond(file, request, response);
+        return response;
+    }
+}
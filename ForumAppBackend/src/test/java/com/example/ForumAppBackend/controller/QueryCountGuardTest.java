@@ -0,0 +1,329 @@
+package com.example.ForumAppBackend.controller;
+
+import com.example.ForumAppBackend.entity.*;
+import com.example.ForumAppBackend.repository.*;
+import com.example.ForumAppBackend.service.LeaderboardService;
+import com.example.ForumAppBackend.service.QuestionDetailCache;
+import com.example.ForumAppBackend.service.QuestionTagService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the number of SQL statements each endpoint may issue. The seeded question has
+ * more answers and votes than any budget below, so a regression to per-row (N+1) loading fails.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountGuardTest {
+
+    private static final int VOTERS = 6;
+    private static final int ANSWERS = 20;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private QuestionTagRepository questionTagRepository;
+    @Autowired
+    private QuestionVoteRepository questionVoteRepository;
+    @Autowired
+    private AnswerVoteRepository answerVoteRepository;
+    @Autowired
+    private QuestionTagService questionTagService;
+    @Autowired
+    private QuestionDetailCache questionDetailCache;
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    private MockMvc mockMvc;
+    private SqlStatementCounter sql;
+    private User author;
+    private Question question;
+
+    @BeforeAll
+    void seed() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        sql = new SqlStatementCounter();
+
+        author = userRepository.save(newUser("author"));
+        List<User> voters = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            voters.add(userRepository.save(newUser("voter" + i)));
+        }
+
+        question = new Question();
+        question.setTitle("Seeded question");
+        question.setText("How do I keep query counts flat?");
+        question.setCreationDateTime(LocalDateTime.now());
+        question.setAuthor(author);
+        question = questionRepository.save(question);
+
+        for (String name : List.of("java", "spring", "hibernate")) {
+            questionTagRepository.save(new QuestionTag(question, tagRepository.save(new Tag(name))));
+        }
+        for (User voter : voters) {
+            QuestionVote vote = new QuestionVote();
+            vote.setQuestion(question);
+            vote.setVoter(voter);
+            vote.setValue(1);
+            questionVoteRepository.save(vote);
+        }
+        for (int i = 0; i < ANSWERS; i++) {
+            Answer answer = new Answer();
+            answer.setText("Answer " + i);
+            answer.setCreationDateTime(LocalDateTime.now());
+            answer.setQuestion(question);
+            answer.setAuthor(voters.get(i % VOTERS));
+            answer = answerRepository.save(answer);
+            for (User voter : voters) {
+                if (!voter.getId().equals(answer.getAuthor().getId())) {
+                    AnswerVote vote = new AnswerVote();
+                    vote.setAnswer(answer);
+                    vote.setVoter(voter);
+                    vote.setValue(i % 2 == 0 ? 1 : -1);
+                    answerVoteRepository.save(vote);
+                }
+            }
+        }
+        // Seeded through the repositories, so the tag bitmap index has to be reloaded
+        questionTagService.loadTagIndex();
+    }
+
+    @Test
+    void questionDetailLoadsInFixedNumberOfStatements() throws Exception {
+        questionDetailCache.invalidateAll();
+        assertStatementsAtMost(10, "/api/questions/{id}", question.getId());
+    }
+
+    @Test
+    void feedIsASingleProjectionQuery() throws Exception {
+        assertStatementsAtMost(1, "/api/questions");
+        assertStatementsAtMost(1, "/api/questions?limit=10");
+    }
+
+    @Test
+    void userListingChecksTheUserThenProjects() throws Exception {
+        assertStatementsAtMost(2, "/api/questions/user/{userId}", author.getId());
+        assertStatementsAtMost(2, "/api/questions/user/{userId}?limit=10", author.getId());
+    }
+
+    @Test
+    void tagFilterIsASingleProjectionQuery() throws Exception {
+        assertStatementsAtMost(1, "/api/questions/filter?tag=java");
+        assertStatementsAtMost(1, "/api/questions/filter?tag=java&limit=10");
+        assertStatementsAtMost(1, "/api/questions/filter?tag={tag}&limit=10", "java AND NOT kotlin");
+    }
+
+    @Test
+    void searchIsASingleProjectionQuery() throws Exception {
+        assertStatementsAtMost(1, "/api/questions/search?q=seeded");
+    }
+
+    @Test
+    void answersForQuestionLoadInFixedNumberOfStatements() throws Exception {
+        assertStatementsAtMost(8, "/api/answers/question/{questionId}", question.getId());
+    }
+
+    @Test
+    void answerPageIsAProjectionWithoutVoteRows() throws Exception {
+        assertStatementsAtMost(4, "/api/answers/question/{questionId}?limit=10", question.getId());
+        assertStatementsAtMost(4, "/api/answers/question/{questionId}?sort=newest&limit=10", question.getId());
+    }
+
+    @Test
+    void matchingETagAnswers304WithOnlyTheVersionLookup() throws Exception {
+        String etag = mockMvc.perform(get("/api/questions/{id}", question.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        questionDetailCache.invalidateAll();
+        sql.reset();
+        mockMvc.perform(get("/api/questions/{id}", question.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(sql.count()).as("SQL statements issued by a revalidated question detail").isEqualTo(1);
+    }
+
+    @Test
+    void cachedQuestionDetailIsServedWithoutSql() throws Exception {
+        String etag = mockMvc.perform(get("/api/questions/{id}", question.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        sql.reset();
+        mockMvc.perform(get("/api/questions/{id}", question.getId()).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/questions/{id}", question.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertThat(sql.count()).as("SQL statements issued by cached question details").isZero();
+    }
+
+    @Test
+    void acceptingAnAnswerChangesTheETagsOfBothAnswers() throws Exception {
+        Question solved = new Question();
+        solved.setTitle("Question to solve");
+        solved.setText("Which answer is right?");
+        solved.setCreationDateTime(LocalDateTime.now());
+        solved.setAuthor(author);
+        solved = questionRepository.save(solved);
+        Answer first = newAnswer(solved, "First");
+        Answer second = newAnswer(solved, "Second");
+
+        String firstTag = answerETag(first);
+        accept(solved, first);
+        mockMvc.perform(get("/api/answers/{id}", first.getId()).header(HttpHeaders.IF_NONE_MATCH, firstTag))
+                .andExpect(status().isOk());
+
+        firstTag = answerETag(first);
+        String secondTag = answerETag(second);
+        accept(solved, second);
+        mockMvc.perform(get("/api/answers/{id}", first.getId()).header(HttpHeaders.IF_NONE_MATCH, firstTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/answers/{id}", second.getId()).header(HttpHeaders.IF_NONE_MATCH, secondTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void renamingAUserChangesTheETagsOfPostsShowingThem() throws Exception {
+        User renamed = userRepository.save(newUser("before-rename"));
+        Question shown = new Question();
+        shown.setTitle("Question with a renamed voter");
+        shown.setText("Who answered?");
+        shown.setCreationDateTime(LocalDateTime.now());
+        shown.setAuthor(author);
+        shown = questionRepository.save(shown);
+        QuestionVote vote = new QuestionVote();
+        vote.setQuestion(shown);
+        vote.setVoter(renamed);
+        vote.setValue(1);
+        questionVoteRepository.save(vote);
+        Answer answer = newAnswer(shown, "By the renamed user");
+        answer.setAuthor(renamed);
+        answer = answerRepository.save(answer);
+
+        var detail = mockMvc.perform(get("/api/questions/{id}", shown.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(detail.getContentAsString()).contains("before-rename").doesNotContain("@test.local");
+        String questionTag = detail.getHeader(HttpHeaders.ETAG);
+        String answerTag = answerETag(answer);
+
+        mockMvc.perform(put("/api/users/{id}", renamed.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"after-rename\", \"email\": \"before-rename@test.local\"}"))
+                .andExpect(status().isOk());
+
+        String body = mockMvc.perform(get("/api/questions/{id}", shown.getId()).header(HttpHeaders.IF_NONE_MATCH, questionTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).contains("after-rename").doesNotContain("before-rename");
+        mockMvc.perform(get("/api/answers/{id}", answer.getId()).header(HttpHeaders.IF_NONE_MATCH, answerTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void authorScoresAreLookedUpWithoutSql() throws Exception {
+        leaderboardService.rebuild();
+
+        sql.reset();
+        String scores = mockMvc.perform(get("/api/users/scores").param("ids", author.getId() + ",-1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(scores).isEqualTo("{\"" + author.getId() + "\":0.0}");
+        assertThat(sql.count()).as("SQL statements issued by a score lookup").isZero();
+
+        String tooMany = String.join(",", Collections.nCopies(101, author.getId().toString()));
+        mockMvc.perform(get("/api/users/scores").param("ids", tooMany)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void tagListIsASingleQuery() throws Exception {
+        assertStatementsAtMost(1, "/api/tags");
+        assertStatementsAtMost(1, "/api/tags?sort=popular&limit=10");
+    }
+
+    @Test
+    void questionCreationCostDoesNotGrowWithTagCount() throws Exception {
+        // Fills the author cache, which the measured creations then share
+        statementsCreatingQuestion("\"warmup\"");
+        long oneTag = statementsCreatingQuestion("\"solo\"");
+        long eightTags = statementsCreatingQuestion("\"java\", \"spring\", \"t1\", \"t2\", \"t3\", \"t4\", \"t5\", \"t6\"");
+        assertThat(eightTags)
+                .as("SQL statements issued creating a question with 8 tags rather than 1")
+                .isEqualTo(oneTag);
+    }
+
+    private long statementsCreatingQuestion(String tagNames) throws Exception {
+        sql.reset();
+        mockMvc.perform(post("/api/questions/user/{userId}", author.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Tagged question\", \"text\": \"Body\", \"tagNames\": [" + tagNames + "]}"))
+                .andExpect(status().isCreated());
+        return sql.count();
+    }
+
+    private Answer newAnswer(Question target, String text) {
+        Answer answer = new Answer();
+        answer.setText(text);
+        answer.setCreationDateTime(LocalDateTime.now());
+        answer.setQuestion(target);
+        answer.setAuthor(author);
+        return answerRepository.save(answer);
+    }
+
+    private String answerETag(Answer answer) throws Exception {
+        String etag = mockMvc.perform(get("/api/answers/{id}", answer.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+
+    private void accept(Question target, Answer answer) throws Exception {
+        mockMvc.perform(put("/api/questions/{questionId}/accept/{answerId}", target.getId(), answer.getId())
+                        .param("userId", author.getId().toString()))
+                .andExpect(status().isOk());
+    }
+
+    private void assertStatementsAtMost(long budget, String url, Object... uriVariables) throws Exception {
+        sql.reset();
+        mockMvc.perform(get(url, uriVariables)).andExpect(status().isOk());
+        assertThat(sql.count())
+                .as("SQL statements issued by GET %s", url)
+                .isLessThanOrEqualTo(budget);
+    }
+
+    private static User newUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@test.local");
+        user.setPassword("secret");
+        return user;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.ForumAppBackend.controller;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the JDBC statements Hibernate prepares on the calling thread between {@link #reset()}
+ * and {@link #count()}. MockMvc handles requests on the test thread, so work other threads do
+ * after commit, such as search index refreshes, is left out and cannot make counts flaky.
+ */
+class SqlStatementCounter {
+
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    private long start;
+
+    void reset() {
+        start = STATEMENTS.get()[0];
+    }
+
+    long count() {
+        return STATEMENTS.get()[0] - start;
+    }
+
+    /** Registered as Hibernate's statement inspector by the test properties. */
+    static class Inspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.get()[0]++;
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.ForumAppBackend.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class InvertedIndexTest {
+
+    private static final int TITLE_BOOST = 3;
+    private static final List<String> VOCABULARY = List.of(
+            "alpha", "beta", "gamma", "delta", "epsilon", "zeta", "eta", "theta", "c", "r");
+    private static final Comparator<SearchHit> BEST_FIRST = Comparator
+            .comparingDouble(SearchHit::score)
+            .thenComparingLong(SearchHit::questionId)
+            .reversed();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void scoresAreBm25OverAllSegments() {
+        Random random = new Random(7);
+        InvertedIndex index = new InvertedIndex(TITLE_BOOST);
+        Map<Long, Map<String, Integer>> documents = new HashMap<>();
+        // One segment per document, merged in tiers as they accumulate
+        for (long id = 1; id <= 250; id++) {
+            SearchDocument document = randomDocument(random, id);
+            index.index(document);
+            documents.put(id, TextAnalyzer.termFrequencies(document, TITLE_BOOST));
+        }
+
+        for (String query : List.of("alpha", "alpha beta", "gamma delta epsilon", "zeta C", "theta r eta")) {
+            Map<Long, Double> expected = bm25(documents, TextAnalyzer.tokenize(query));
+            List<SearchHit> hits = index.search(query, 0, 20);
+
+            assertThat(hits).as(query).hasSize(Math.min(20, expected.size()));
+            assertThat(hits).as(query).isSortedAccordingTo(BEST_FIRST);
+            Set<Long> returned = new HashSet<>();
+            for (SearchHit hit : hits) {
+                assertThat((double) hit.score()).as("%s, question %d", query, hit.questionId())
+                        .isCloseTo(expected.get(hit.questionId()), within(1e-3));
+                returned.add(hit.questionId());
+            }
+            double lowest = hits.getLast().score();
+            expected.forEach((id, score) -> {
+                if (!returned.contains(id)) {
+                    assertThat(score).as("%s, question %d left out", query, id).isLessThanOrEqualTo(lowest + 1e-3);
+                }
+            });
+        }
+    }
+
+    @Test
+    void titleMatchesOutrankBodyMatches() {
+        InvertedIndex index = new InvertedIndex(TITLE_BOOST);
+        index.index(new SearchDocument(1, "Pinning", "Virtual threads pin carriers inside synchronized", List.of()));
+        index.index(new SearchDocument(2, "Virtual threads", "Pinning inside synchronized blocks", List.of()));
+        index.index(new SearchDocument(3, "Unrelated", "Nothing to see", List.of()));
+
+        assertThat(index.search("virtual threads", 0, 10)).extracting(SearchHit::questionId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void tiesFavourNewerQuestionsAndPagesSplitTheRanking() {
+        InvertedIndex index = new InvertedIndex(TITLE_BOOST);
+        for (long id = 1; id <= 9; id++) {
+            index.index(new SearchDocument(id, "Same title", "Same body", List.of()));
+        }
+
+        List<SearchHit> all = index.search("title", 0, 9);
+        assertThat(all).extracting(SearchHit::questionId).containsExactly(9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L);
+        assertThat(index.search("title", 3, 3)).isEqualTo(all.subList(3, 6));
+        assertThat(index.search("title", 8, 5)).isEqualTo(all.subList(8, 9));
+        assertThat(index.search("title", 9, 5)).isEmpty();
+        assertThat(index.search("title", 0, 0)).isEmpty();
+        assertThat(index.search("the", 0, 5)).as("stop words only").isEmpty();
+    }
+
+    @Test
+    void replacedAndRemovedDocumentsAreNotFound() {
+        InvertedIndex index = new InvertedIndex(TITLE_BOOST);
+        index.index(new SearchDocument(1, "Alpha", "", List.of()));
+        index.index(new SearchDocument(2, "Alpha beta", "", List.of()));
+        index.index(new SearchDocument(1, "Beta", "", List.of()));
+
+        assertThat(index.search("alpha", 0, 10)).extracting(SearchHit::questionId).containsExactly(2L);
+        assertThat(index.search("beta", 0, 10)).extracting(SearchHit::questionId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.documentCount()).isEqualTo(2);
+
+        index.remove(2);
+        assertThat(index.search("alpha", 0, 10)).isEmpty();
+        assertThat(index.search("beta", 0, 10)).extracting(SearchHit::questionId).containsExactly(1L);
+        assertThat(index.documentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void snapshotRestoresTheSameRanking() throws IOException {
+        Random random = new Random(11);
+        InvertedIndex index = new InvertedIndex(TITLE_BOOST);
+        for (long id = 1; id <= 40; id++) {
+            index.index(randomDocument(random, id));
+        }
+        List<List<SearchHit>> before = new ArrayList<>();
+        for (String query : VOCABULARY) {
+            before.add(index.search(query, 0, 10));
+        }
+
+        Path file = dir.resolve("questions.idx");
+        index.compactAndWrite(file);
+        InvertedIndex restored = new InvertedIndex(TITLE_BOOST);
+        restored.load(file);
+
+        assertThat(restored.documentCount()).isEqualTo(40);
+        for (int q = 0; q < VOCABULARY.size(); q++) {
+            assertThat(restored.search(VOCABULARY.get(q), 0, 10)).as(VOCABULARY.get(q)).isEqualTo(before.get(q));
+            assertThat(index.search(VOCABULARY.get(q), 0, 10)).as("compacted " + VOCABULARY.get(q)).isEqualTo(before.get(q));
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotSnapshots() throws IOException {
+        Path file = Files.write(dir.resolve("garbage.idx"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThatThrownBy(() -> new InvertedIndex(TITLE_BOOST).load(file)).isInstanceOf(IOException.class);
+    }
+
+    /** Textbook BM25 of every document matching any of the terms. */
+    private static Map<Long, Double> bm25(Map<Long, Map<String, Integer>> documents, List<String> query) {
+        List<String> terms = query.stream().distinct().toList();
+        double averageLength = documents.values().stream()
+                .mapToInt(frequencies -> frequencies.values().stream().mapToInt(Integer::intValue).sum())
+                .average().orElseThrow();
+        Map<Long, Double> scores = new HashMap<>();
+        for (String term : terms) {
+            long df = documents.values().stream().filter(frequencies -> frequencies.containsKey(term)).count();
+            double idf = Math.log(1 + (documents.size() - df + 0.5) / (df + 0.5));
+            documents.forEach((id, frequencies) -> {
+                Integer tf = frequencies.get(term);
+                if (tf != null) {
+                    int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+                    double norm = InvertedIndex.K1 * (1 - InvertedIndex.B + InvertedIndex.B * length / averageLength);
+                    scores.merge(id, idf * tf * (InvertedIndex.K1 + 1) / (tf + norm), Double::sum);
+                }
+            });
+        }
+        return scores;
+    }
+
+    private static SearchDocument randomDocument(Random random, long id) {
+        return new SearchDocument(id, words(random, 1 + random.nextInt(4)), words(random, random.nextInt(30)),
+                List.of(words(random, random.nextInt(15)), words(random, random.nextInt(15))));
+    }
+
+    /** Words skewed towards the start of the vocabulary, so terms have very different frequencies. */
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int rank = (int) (VOCABULARY.size() * Math.pow(random.nextDouble(), 2));
+            text.append(VOCABULARY.get(rank)).append(' ');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.ForumAppBackend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeaderboardTest {
+
+    @Test
+    void ranksByScoreWithSharedRanksForTies() {
+        Leaderboard board = new Leaderboard();
+        board.put(1, 10);
+        board.put(2, 20);
+        board.put(3, 10);
+        board.put(4, 5);
+        board.put(5, 20);
+
+        assertThat(board.page(null, null, 10)).containsExactly(
+                new Leaderboard.Entry(2, 20, 1),
+                new Leaderboard.Entry(5, 20, 1),
+                new Leaderboard.Entry(1, 10, 3),
+                new Leaderboard.Entry(3, 10, 3),
+                new Leaderboard.Entry(4, 5, 5));
+        assertThat(board.find(3)).isEqualTo(new Leaderboard.Entry(3, 10, 3));
+        assertThat(board.find(4)).isEqualTo(new Leaderboard.Entry(4, 5, 5));
+        assertThat(board.find(6)).isNull();
+    }
+
+    @Test
+    void pagesContinueAfterTheCursorWithTheirRanks() {
+        Leaderboard board = new Leaderboard();
+        board.put(1, 10);
+        board.put(2, 20);
+        board.put(3, 10);
+        board.put(4, 5);
+        board.put(5, 20);
+
+        assertThat(board.page(20.0, 5L, 2)).containsExactly(
+                new Leaderboard.Entry(1, 10, 3),
+                new Leaderboard.Entry(3, 10, 3));
+        // Starting inside a run of ties keeps the run's rank
+        assertThat(board.page(10.0, 1L, 10)).containsExactly(
+                new Leaderboard.Entry(3, 10, 3),
+                new Leaderboard.Entry(4, 5, 5));
+        // A cursor left behind by a user whose score has since changed still finds its place
+        assertThat(board.page(15.0, 9L, 10)).extracting(Leaderboard.Entry::userId).containsExactly(1L, 3L, 4L);
+        assertThat(board.page(5.0, 4L, 10)).isEmpty();
+    }
+
+    @Test
+    void adjustsAndRemovesUsers() {
+        Leaderboard board = new Leaderboard();
+        board.put(1, 10);
+        board.put(2, 20);
+
+        board.adjust(1, 15);
+        board.adjust(3, 100);
+        assertThat(board.page(null, null, 10)).containsExactly(
+                new Leaderboard.Entry(1, 25, 1),
+                new Leaderboard.Entry(2, 20, 2));
+
+        board.put(2, 30);
+        board.remove(1);
+        board.remove(3);
+        assertThat(board.size()).isEqualTo(1);
+        assertThat(board.page(null, null, 10)).containsExactly(new Leaderboard.Entry(2, 30, 1));
+        assertThat(board.find(1)).isNull();
+    }
+
+    @Test
+    void matchesASortedListUnderRandomUpdates() {
+        Random random = new Random(42);
+        Leaderboard board = new Leaderboard();
+        Map<Long, Double> reference = new HashMap<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            long userId = 1 + random.nextInt(300);
+            // Few distinct scores, so ties are common
+            double score = random.nextInt(40);
+            switch (random.nextInt(4)) {
+                case 0, 1 -> {
+                    board.put(userId, score);
+                    reference.put(userId, score);
+                }
+                case 2 -> {
+                    double delta = random.nextInt(7) - 3;
+                    board.adjust(userId, delta);
+                    reference.computeIfPresent(userId, (id, previous) -> previous + delta);
+                }
+                default -> {
+                    board.remove(userId);
+                    reference.remove(userId);
+                }
+            }
+            if (step % 500 == 0) {
+                assertMatches(board, reference, random);
+            }
+        }
+        assertMatches(board, reference, random);
+    }
+
+    private static void assertMatches(Leaderboard board, Map<Long, Double> reference, Random random) {
+        List<Leaderboard.Entry> expected = ranked(reference);
+        assertThat(board.size()).isEqualTo(expected.size());
+        assertThat(board.page(null, null, Integer.MAX_VALUE)).isEqualTo(expected);
+
+        for (Leaderboard.Entry entry : expected) {
+            assertThat(board.find(entry.userId())).isEqualTo(entry);
+        }
+
+        int limit = 1 + random.nextInt(25);
+        List<Leaderboard.Entry> paged = new ArrayList<>();
+        List<Leaderboard.Entry> page = board.page(null, null, limit);
+        while (!page.isEmpty()) {
+            assertThat(page.size()).isLessThanOrEqualTo(limit);
+            paged.addAll(page);
+            Leaderboard.Entry last = page.get(page.size() - 1);
+            page = board.page(last.score(), last.userId(), limit);
+        }
+        assertThat(paged).isEqualTo(expected);
+
+        if (!expected.isEmpty()) {
+            int from = random.nextInt(expected.size());
+            Leaderboard.Entry cursor = expected.get(from);
+            assertThat(board.page(cursor.score(), cursor.userId(), limit))
+                    .isEqualTo(expected.subList(from + 1, Math.min(expected.size(), from + 1 + limit)));
+        }
+    }
+
+    /** Highest score first, ties by ascending id; a user's rank is one more than the number of higher scores. */
+    private static List<Leaderboard.Entry> ranked(Map<Long, Double> scores) {
+        List<Map.Entry<Long, Double>> sorted = new ArrayList<>(scores.entrySet());
+        sorted.sort(Comparator.<Map.Entry<Long, Double>>comparingDouble(Map.Entry::getValue).reversed()
+                .thenComparing(Map.Entry::getKey));
+        List<Leaderboard.Entry> entries = new ArrayList<>();
+        for (Map.Entry<Long, Double> user : sorted) {
+            long higher = scores.values().stream().filter(score -> score > user.getValue()).count();
+            entries.add(new Leaderboard.Entry(user.getKey(), user.getValue(), 1 + higher));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ForumAppBackend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostingListTest {
+
+    /** Ordinal gaps and frequencies spanning one to five varint bytes. */
+    private static final int[][] POSTINGS = {
+            {0, 1}, {1, 127}, {128, 128}, {300, 16_384}, {70_000, 2}, {2_100_000, 1}, {Integer.MAX_VALUE, Integer.MAX_VALUE}};
+
+    @Test
+    void cursorReturnsPostingsAsAdded() {
+        assertThat(read(build())).containsExactly(POSTINGS);
+    }
+
+    @Test
+    void surviveWriteAndRead() throws IOException {
+        PostingList list = build();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            list.writeTo(out);
+        }
+        PostingList copy = PostingList.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertThat(copy.size()).isEqualTo(POSTINGS.length);
+        assertThat(read(copy)).containsExactly(POSTINGS);
+    }
+
+    @Test
+    void emptyListHasNoPostings() {
+        PostingList list = new PostingList.Builder().build();
+        assertThat(list.size()).isZero();
+        assertThat(list.cursor().next()).isFalse();
+    }
+
+    @Test
+    void rejectsOrdinalsOutOfOrder() {
+        PostingList.Builder builder = new PostingList.Builder();
+        builder.add(5, 1);
+        assertThatThrownBy(() -> builder.add(5, 1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> builder.add(4, 1)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static PostingList build() {
+        PostingList.Builder builder = new PostingList.Builder();
+        for (int[] posting : POSTINGS) {
+            builder.add(posting[0], posting[1]);
+        }
+        return builder.build();
+    }
+
+    private static List<int[]> read(PostingList list) {
+        List<int[]> postings = new ArrayList<>();
+        PostingList.Cursor cursor = list.cursor();
+        while (cursor.next()) {
+            postings.add(new int[]{cursor.ordinal(), cursor.frequency()});
+        }
+        return postings;
+    }
+}
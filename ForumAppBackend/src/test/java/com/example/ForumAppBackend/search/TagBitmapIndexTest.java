@@ -0,0 +1,136 @@
+package com.example.ForumAppBackend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagBitmapIndexTest {
+
+    private static final List<String> TAGS = List.of("java", "spring", "kotlin", "hibernate", "spring boot");
+
+    @Test
+    void combinesTagsWithAndOrNot() {
+        TagBitmapIndex index = new TagBitmapIndex();
+        index.tagQuestion("java", 1);
+        index.tagQuestion("spring", 1);
+        index.tagQuestion("java", 2);
+        index.tagQuestion("hibernate", 2);
+        index.tagQuestion("kotlin", 3);
+        index.tagQuestion("spring", 3);
+        index.addQuestion(4);
+
+        assertThat(matches(index, "java AND spring")).containsExactly(1L);
+        assertThat(matches(index, "java OR kotlin")).containsExactly(3L, 2L, 1L);
+        assertThat(matches(index, "java AND NOT hibernate")).containsExactly(1L);
+        assertThat(matches(index, "NOT java")).containsExactly(4L, 3L);
+        assertThat(matches(index, "(java OR kotlin) AND spring")).containsExactly(3L, 1L);
+        assertThat(matches(index, "spring AND NOT (java OR hibernate)")).containsExactly(3L);
+        assertThat(matches(index, "java AND unknown")).isEmpty();
+        assertThat(matches(index, "NOT unknown")).containsExactly(4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void untaggedAndRemovedQuestionsStopMatching() {
+        TagBitmapIndex index = new TagBitmapIndex();
+        index.tagQuestion("java", 1);
+        index.tagQuestion("java", 2);
+        index.tagQuestion("spring", 2);
+
+        index.untagQuestion("java", 2);
+        assertThat(matches(index, "java OR spring")).containsExactly(2L, 1L);
+        assertThat(matches(index, "java AND spring")).isEmpty();
+
+        index.removeQuestion(1);
+        assertThat(matches(index, "java")).isEmpty();
+        assertThat(matches(index, "NOT spring")).isEmpty();
+
+        index.untagQuestion("unknown", 2);
+        assertThat(matches(index, "spring")).containsExactly(2L);
+    }
+
+    @Test
+    void pagesNewestFirstBelowTheCursor() {
+        TagBitmapIndex index = new TagBitmapIndex();
+        for (long id = 1; id <= 10; id++) {
+            index.tagQuestion("java", id);
+        }
+
+        assertThat(index.newestMatching(TagExpression.parse("java"), null, 3)).containsExactly(10L, 9L, 8L);
+        assertThat(index.newestMatching(TagExpression.parse("java"), 8L, 3)).containsExactly(7L, 6L, 5L);
+        assertThat(index.newestMatching(TagExpression.parse("java"), 3L, 3)).containsExactly(2L, 1L);
+        assertThat(index.newestMatching(TagExpression.parse("java"), 1L, 3)).isEmpty();
+        assertThat(index.newestMatching(TagExpression.parse("java"), 100L, 2)).containsExactly(10L, 9L);
+        assertThat(index.newestMatching(TagExpression.parse("spring"), null, 3)).isEmpty();
+    }
+
+    @Test
+    void pagingMatchesBruteForceEvaluation() {
+        Random random = new Random(42);
+        TagBitmapIndex index = new TagBitmapIndex();
+        Map<Long, Set<String>> tagsById = new TreeMap<>();
+        for (long id = 1; id <= 2_000; id++) {
+            // Sparse ids, so cursors also fall between matches
+            if (random.nextInt(3) == 0) {
+                continue;
+            }
+            Set<String> tags = new HashSet<>();
+            for (String tag : TAGS) {
+                if (random.nextInt(3) == 0) {
+                    tags.add(tag);
+                    index.tagQuestion(tag, id);
+                }
+            }
+            index.addQuestion(id);
+            tagsById.put(id, tags);
+        }
+
+        for (String filter : List.of("java", "java AND spring", "java OR kotlin AND NOT hibernate",
+                "NOT (spring OR \"spring boot\")", "(java OR kotlin) AND (spring OR hibernate) AND NOT \"spring boot\"")) {
+            TagExpression expression = TagExpression.parse(filter);
+            List<Long> expected = tagsById.entrySet().stream()
+                    .filter(e -> holds(expression, e.getValue()))
+                    .map(Map.Entry::getKey)
+                    .sorted((a, b) -> Long.compare(b, a))
+                    .toList();
+
+            for (int pageSize : new int[]{1, 7, 100}) {
+                List<Long> paged = new ArrayList<>();
+                Long cursor = null;
+                List<Long> page;
+                do {
+                    page = index.newestMatching(expression, cursor, pageSize);
+                    assertThat(page.size()).isLessThanOrEqualTo(pageSize);
+                    paged.addAll(page);
+                    cursor = page.isEmpty() ? null : page.getLast();
+                } while (page.size() == pageSize);
+                assertThat(paged).as("%s in pages of %d", filter, pageSize).isEqualTo(expected);
+            }
+
+            // A cursor on an id that does not match starts below it all the same
+            long between = 1_000;
+            assertThat(index.newestMatching(expression, between, 5))
+                    .isEqualTo(expected.stream().filter(id -> id < between).limit(5).toList());
+        }
+    }
+
+    private static List<Long> matches(TagBitmapIndex index, String filter) {
+        return index.newestMatching(TagExpression.parse(filter), null, Integer.MAX_VALUE);
+    }
+
+    private static boolean holds(TagExpression expression, Set<String> tags) {
+        return switch (expression) {
+            case TagExpression.Tag tag -> tags.contains(tag.name());
+            case TagExpression.And and -> holds(and.left(), tags) && holds(and.right(), tags);
+            case TagExpression.Or or -> holds(or.left(), tags) || holds(or.right(), tags);
+            case TagExpression.Not not -> !holds(not.operand(), tags);
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.ForumAppBackend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextAnalyzerTest {
+
+    @Test
+    void foldsCaseAndAccentsAndSplitsOnPunctuation() {
+        assertThat(TextAnalyzer.tokenize("Café-Crème, NAÏVE déjà_vu!"))
+                .containsExactly("cafe", "creme", "naive", "deja", "vu");
+    }
+
+    @Test
+    void dropsStopWordsButKeepsSingleLetterTerms() {
+        assertThat(TextAnalyzer.tokenize("How do I call C from R and a Java app?"))
+                .containsExactly("call", "c", "r", "java", "app");
+    }
+
+    @Test
+    void dropsOverlongTerms() {
+        String longTerm = "x".repeat(41);
+        assertThat(TextAnalyzer.tokenize("keep " + longTerm + " " + "y".repeat(40)))
+                .containsExactly("keep", "y".repeat(40));
+    }
+
+    @Test
+    void foldsCommonPlurals() {
+        assertThat(TextAnalyzer.tokenize("queries indexes matches classes threads status analysis"))
+                .containsExactly("query", "index", "match", "class", "thread", "status", "analysis");
+        assertThat(TextAnalyzer.stem("bus")).isEqualTo("bus");
+        assertThat(TextAnalyzer.stem("ties")).isEqualTo("tie");
+    }
+
+    @Test
+    void nullAndEmptyTextHaveNoTerms() {
+        assertThat(TextAnalyzer.tokenize(null)).isEmpty();
+        assertThat(TextAnalyzer.tokenize("")).isEmpty();
+        assertThat(TextAnalyzer.tokenize(" -- !")).isEmpty();
+    }
+
+    @Test
+    void titleTermsCountTitleBoostTimes() {
+        SearchDocument document = new SearchDocument(1, "Spring queries", "A query in Spring",
+                List.of("Use native queries", "or JPQL"));
+        Map<String, Integer> frequencies = TextAnalyzer.termFrequencies(document, 3);
+        assertThat(frequencies).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "spring", 4, "query", 5, "use", 1, "native", 1, "jpql", 1));
+    }
+}
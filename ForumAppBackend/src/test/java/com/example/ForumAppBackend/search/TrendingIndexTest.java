@@ -0,0 +1,219 @@
+package com.example.ForumAppBackend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/** Times are epoch seconds passed in by the test, so the clock is whatever each test says it is. */
+class TrendingIndexTest {
+
+    private static final double HOUR = 3600;
+    private static final long T0 = 1_700_000_000L;
+
+    @Test
+    void scoresHalveEveryHalfLife() throws IOException {
+        TrendingIndex index = new TrendingIndex(HOUR, 10, T0);
+        index.add(1, 1.0, T0);
+        index.add(2, 1.0, T0 + 3600);
+        index.add(3, 4.0, T0 - 7200);
+
+        Snapshot snapshot = Snapshot.of(index);
+        assertThat(snapshot.scoreAt(1, T0)).isCloseTo(1.0, offset(1e-12));
+        assertThat(snapshot.scoreAt(1, T0 + 3600)).isCloseTo(0.5, offset(1e-12));
+        assertThat(snapshot.scoreAt(2, T0 + 3600)).isCloseTo(1.0, offset(1e-12));
+        assertThat(snapshot.scoreAt(3, T0 + 3600)).isCloseTo(0.5, offset(1e-12));
+
+        index.add(1, 1.0, T0 + 3600);
+        assertThat(Snapshot.of(index).scoreAt(1, T0 + 3600)).isCloseTo(1.5, offset(1e-12));
+    }
+
+    @Test
+    void anEventOneHalfLifeOlderCountsHalf() {
+        TrendingIndex index = new TrendingIndex(HOUR, 10, T0);
+        index.add(1, 1.9, T0);
+        index.add(2, 1.0, T0 + 3600);
+        index.add(3, 2.1, T0);
+        index.add(4, 3.9, T0 - 3600);
+
+        // At T0 + 3600: 3 -> 1.05, 2 -> 1.0, 4 -> 0.975, 1 -> 0.95
+        assertThat(index.top(10)).containsExactly(3L, 2L, 4L, 1L);
+        assertThat(index.top(2)).containsExactly(3L, 2L);
+
+        index.add(2, -0.5, T0 + 3600);
+        assertThat(index.top(10)).containsExactly(3L, 4L, 1L, 2L);
+    }
+
+    @Test
+    void equalScoresRankTheNewerQuestionFirst() {
+        TrendingIndex index = new TrendingIndex(HOUR, 10, T0);
+        index.add(5, 1.0, T0);
+        index.add(9, 1.0, T0);
+        index.add(7, 1.0, T0);
+
+        assertThat(index.top(10)).containsExactly(9L, 7L, 5L);
+    }
+
+    @Test
+    void rescalesToANewLandmarkWithoutChangingTheRanking() throws IOException {
+        TrendingIndex index = new TrendingIndex(1, 10, T0);
+        index.add(1, 4.0, T0);
+        index.add(2, 1.0, T0 + 1);
+        index.add(3, 1.0, T0 + 100);
+
+        // 300 half-lives past the landmark: 2^300 would overflow scores soon, so everything moves to T0 + 300
+        index.add(4, 1.0, T0 + 300);
+        Snapshot snapshot = Snapshot.of(index);
+        assertThat(snapshot.landmark).isEqualTo(T0 + 300);
+        assertThat(snapshot.scores.get(4L)).isEqualTo(1.0);
+        assertThat(snapshot.scores.get(3L)).isCloseTo(Math.pow(2, -200), offset(Math.pow(2, -200) * 1e-9));
+        assertThat(snapshot.scores.get(1L) / snapshot.scores.get(2L)).isCloseTo(2.0, offset(1e-9));
+        assertThat(index.top(10)).containsExactly(4L, 3L, 1L, 2L);
+
+        index.add(2, 2.0, T0 + 300);
+        assertThat(index.top(10)).containsExactly(2L, 4L, 3L, 1L);
+    }
+
+    @Test
+    void keepsScoresFiniteOverManyLandmarks() throws IOException {
+        TrendingIndex index = new TrendingIndex(1, 10, T0);
+        for (long t = T0; t <= T0 + 100_000; t += 50) {
+            index.add((t - T0) / 50 % 2 == 0 ? 1 : 2, 1.0, t);
+        }
+        index.add(3, 1.5, T0 + 100_000);
+
+        Snapshot snapshot = Snapshot.of(index);
+        assertThat(snapshot.scores.values()).allSatisfy(score -> assertThat(score).isFinite());
+        assertThat(snapshot.scoreAt(3, T0 + 100_000)).isCloseTo(1.5, offset(1e-9));
+        // The event at T0 + 100000 went to question 1 on top of a sum of 2^-50 + 2^-100 + ...
+        assertThat(snapshot.scoreAt(1, T0 + 100_000)).isCloseTo(1.0, offset(1e-9));
+        assertThat(index.top(10)).containsExactly(3L, 1L, 2L);
+    }
+
+    @Test
+    void evictsTheLowestScoreBeyondCapacity() throws IOException {
+        TrendingIndex index = new TrendingIndex(HOUR, 3, T0);
+        index.add(1, 1.0, T0);
+        index.add(2, 2.0, T0);
+        index.add(3, 3.0, T0);
+        index.add(4, 4.0, T0);
+
+        assertThat(index.size()).isEqualTo(3);
+        assertThat(index.top(10)).containsExactly(4L, 3L, 2L);
+
+        // An event too small to get in is dropped at once
+        index.add(5, 0.5, T0);
+        assertThat(index.top(10)).containsExactly(4L, 3L, 2L);
+
+        // An evicted question restarts from its next event: 1.5, not 2.5
+        index.add(1, 1.5, T0);
+        assertThat(index.top(10)).containsExactly(4L, 3L, 2L);
+        index.add(1, 2.5, T0);
+        assertThat(index.top(10)).containsExactly(4L, 3L, 1L);
+        assertThat(Snapshot.of(index).scores.get(1L)).isEqualTo(2.5);
+    }
+
+    @Test
+    void removedQuestionsLeaveTheRanking() {
+        TrendingIndex index = new TrendingIndex(HOUR, 10, T0);
+        index.add(1, 1.0, T0);
+        index.add(2, 2.0, T0);
+
+        index.remove(2);
+        index.remove(42);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.top(10)).containsExactly(1L);
+        index.add(2, 0.5, T0);
+        assertThat(index.top(10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void snapshotRoundTripKeepsScoresAndLandmark() throws IOException {
+        TrendingIndex index = new TrendingIndex(HOUR, 10, T0);
+        for (int q = 1; q <= 6; q++) {
+            index.add(q, q, T0 + q * 600L);
+        }
+
+        TrendingIndex restored = TrendingIndex.readFrom(input(bytes(index)), HOUR, 10);
+
+        assertThat(restored).isNotNull();
+        assertThat(restored.top(10)).isEqualTo(index.top(10));
+        assertThat(Snapshot.of(restored).landmark).isEqualTo(T0);
+        assertThat(Snapshot.of(restored).scores).isEqualTo(Snapshot.of(index).scores);
+
+        index.add(1, 10.0, T0 + 7200);
+        restored.add(1, 10.0, T0 + 7200);
+        assertThat(Snapshot.of(restored).scores).isEqualTo(Snapshot.of(index).scores);
+    }
+
+    @Test
+    void snapshotOfAnotherHalfLifeIsNotRestored() throws IOException {
+        TrendingIndex index = new TrendingIndex(HOUR, 10, T0);
+        index.add(1, 1.0, T0);
+
+        assertThat(TrendingIndex.readFrom(input(bytes(index)), 2 * HOUR, 10)).isNull();
+    }
+
+    @Test
+    void snapshotRestoredIntoASmallerCapacityKeepsTheBest() throws IOException {
+        TrendingIndex index = new TrendingIndex(HOUR, 10, T0);
+        for (int q = 1; q <= 6; q++) {
+            index.add(q, q, T0);
+        }
+
+        TrendingIndex restored = TrendingIndex.readFrom(input(bytes(index)), HOUR, 3);
+
+        assertThat(restored.size()).isEqualTo(3);
+        assertThat(restored.top(10)).containsExactly(6L, 5L, 4L);
+        restored.add(7, 10.0, T0);
+        assertThat(restored.top(10)).containsExactly(7L, 6L, 5L);
+    }
+
+    private static byte[] bytes(TrendingIndex index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.writeTo(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    /** The stored state as {@link TrendingIndex#writeTo} writes it: half-life, landmark and raw scores. */
+    private static final class Snapshot {
+
+        final double halfLife;
+        final long landmark;
+        final Map<Long, Double> scores = new LinkedHashMap<>();
+
+        private Snapshot(DataInputStream in) throws IOException {
+            in.readInt();
+            halfLife = in.readDouble();
+            landmark = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                scores.put(in.readLong(), in.readDouble());
+            }
+        }
+
+        static Snapshot of(TrendingIndex index) throws IOException {
+            return new Snapshot(input(bytes(index)));
+        }
+
+        /** The question's score decayed to the given time. */
+        double scoreAt(long questionId, long epochSecond) {
+            return scores.get(questionId) * Math.pow(2, -(epochSecond - landmark) / halfLife);
+        }
+    }
+}
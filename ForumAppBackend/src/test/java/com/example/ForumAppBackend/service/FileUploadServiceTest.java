@@ -0,0 +1,130 @@
+package com.example.ForumAppBackend.service;
+
+import com.example.ForumAppBackend.entity.Question;
+import com.example.ForumAppBackend.entity.Upload;
+import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.repository.UploadRepository;
+import com.example.ForumAppBackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Reference counting of deduplicated uploads, and the races it has with re-uploads and the upload GC. */
+@SpringBootTest
+class FileUploadServiceTest {
+
+    @Autowired
+    private FileUploadService fileUploadService;
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private UploadRepository uploadRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Test
+    void identicalContentsAreStoredOnceAndCountedPerReference() throws IOException {
+        String contents = "shared " + UUID.randomUUID();
+        String first = upload("first.txt", contents);
+        String second = upload("second.txt", contents);
+        assertThat(second).isEqualTo(first);
+
+        fileUploadService.retain(first);
+        fileUploadService.retain("/uploads/" + second);
+        assertThat(refCount(first)).isEqualTo(2);
+
+        fileUploadService.release(first);
+        assertThat(refCount(first)).isEqualTo(1);
+        assertThat(path(first)).exists();
+
+        fileUploadService.release(first);
+        assertThat(uploadRepository.existsById(first)).isFalse();
+        assertThat(path(first)).doesNotExist();
+    }
+
+    @Test
+    void replacingAPictureMovesTheReference() throws IOException {
+        String before = upload("before.txt", "before " + UUID.randomUUID());
+        String after = upload("after.txt", "after " + UUID.randomUUID());
+        fileUploadService.retain(before);
+
+        fileUploadService.replace(before, after);
+
+        assertThat(uploadRepository.existsById(before)).isFalse();
+        assertThat(path(before)).doesNotExist();
+        assertThat(refCount(after)).isEqualTo(1);
+        assertThat(fileUploadService.deleteIfUnreferenced(after)).isFalse();
+        assertThat(path(after)).exists();
+    }
+
+    @Test
+    void retainingAMissingUploadFailsAndRollsThePostBack() {
+        String missing = "missing-" + UUID.randomUUID() + ".png";
+        assertThatThrownBy(() -> fileUploadService.retain(missing)).isInstanceOf(IllegalArgumentException.class);
+
+        User author = new User();
+        author.setUsername("upload-author-" + UUID.randomUUID());
+        author.setEmail(author.getUsername() + "@test.local");
+        author.setPassword("secret");
+        Long authorId = userRepository.save(author).getId();
+        Question question = new Question();
+        question.setTitle("Question with a collected picture");
+        question.setText("The picture went while this was written");
+        question.setPicture(missing);
+
+        assertThatThrownBy(() -> questionService.createQuestion(authorId, question, List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(questionRepository.countByPicture(missing)).isZero();
+    }
+
+    @Test
+    void uploadingAgainRestartsTheGracePeriod() throws IOException {
+        String contents = "collected " + UUID.randomUUID();
+        String name = upload("old.txt", contents);
+        Files.setLastModifiedTime(path(name), FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        Instant cutoff = Instant.now().minus(Duration.ofHours(24));
+
+        // The GC marked the file as old and unreferenced, then the same contents came in again
+        assertThat(upload("again.txt", contents)).isEqualTo(name);
+
+        assertThat(fileUploadService.deleteIfUnreferenced(name, cutoff)).isFalse();
+        assertThat(path(name)).exists();
+        assertThat(uploadRepository.existsById(name)).isTrue();
+        fileUploadService.retain(name);
+        assertThat(refCount(name)).isEqualTo(1);
+    }
+
+    private String upload(String originalName, String contents) throws IOException {
+        return fileUploadService.uploadFile(new MockMultipartFile("file", originalName, "text/plain",
+                contents.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private long refCount(String filename) {
+        return uploadRepository.findById(filename).map(Upload::getRefCount).orElseThrow();
+    }
+
+    private Path path(String filename) {
+        return Paths.get(uploadDir).resolve(filename);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.ForumAppBackend.service;
+
+import com.example.ForumAppBackend.dto.CursorPage;
+import com.example.ForumAppBackend.dto.QuestionSummary;
+import com.example.ForumAppBackend.entity.Question;
+import com.example.ForumAppBackend.entity.QuestionTag;
+import com.example.ForumAppBackend.entity.Tag;
+import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.repository.QuestionTagRepository;
+import com.example.ForumAppBackend.repository.TagRepository;
+import com.example.ForumAppBackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tag listings page through the tag bitmap index once it is loaded and through SQL before that,
+ * so both have to walk the questions in the same order.
+ */
+@SpringBootTest
+class QuestionTagPagingTest {
+
+    private static final String TAG = "pagingorder";
+    private static final int PAGE = 2;
+
+    @Autowired
+    private QuestionService questionService;
+    @Autowired
+    private QuestionTagService questionTagService;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private QuestionTagRepository questionTagRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void indexAndSqlFallbackPageInTheSameOrder() {
+        User author = new User();
+        author.setUsername("paging-author");
+        author.setEmail("paging-author@test.local");
+        author.setPassword("secret");
+        author = userRepository.save(author);
+        Tag tag = tagRepository.save(new Tag(TAG));
+        // Creation times run against the ids, e.g. imported posts or clock adjustments
+        LocalDateTime base = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Question question = new Question();
+            question.setTitle("Paged question " + i);
+            question.setText("Body " + i);
+            question.setCreationDateTime(base.minusMinutes(i % 2 == 0 ? i : 10 * i));
+            question.setAuthor(author);
+            question = questionRepository.save(question);
+            questionTagRepository.save(new QuestionTag(question, tag));
+            ids.add(question.getId());
+        }
+        questionTagService.loadTagIndex();
+        List<Long> highestFirst = ids.stream().sorted(Comparator.reverseOrder()).toList();
+
+        List<Long> fromIndex = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<QuestionSummary> page = questionService.getByTagPage(TAG, after, PAGE);
+            page.getItems().forEach(summary -> fromIndex.add(summary.getId()));
+            after = page.getNextCursor();
+        } while (after != null);
+
+        List<Long> fromSql = new ArrayList<>();
+        List<QuestionSummary> rows = questionRepository.findSummariesByTag(TAG, Limit.of(PAGE));
+        while (!rows.isEmpty()) {
+            rows.forEach(summary -> fromSql.add(summary.getId()));
+            rows = questionRepository.findSummariesByTagBefore(TAG, rows.getLast().getId(), Limit.of(PAGE));
+        }
+
+        assertThat(fromIndex).isEqualTo(highestFirst);
+        assertThat(fromSql).isEqualTo(highestFirst);
+        assertThat(questionService.getByTag(TAG)).extracting(QuestionSummary::getId).isEqualTo(highestFirst);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.ForumAppBackend.service;
+
+import com.example.ForumAppBackend.entity.Question;
+import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.repository.UploadRepository;
+import com.example.ForumAppBackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the collector over the test upload directory. Files are aged by hand past the default
+ * 24 hour grace period rather than by configuring a shorter one, so the context stays shared.
+ */
+@SpringBootTest
+class UploadGarbageCollectorTest {
+
+    private static final FileTime TWO_DAYS_AGO = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+
+    @Autowired
+    private UploadGarbageCollector collector;
+    @Autowired
+    private FileUploadService fileUploadService;
+    @Autowired
+    private ImageVariantService imageVariantService;
+    @Autowired
+    private UploadRepository uploadRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Test
+    void sweepsOldUnreferencedFilesAndKeepsTheRest() throws IOException {
+        String abandoned = upload("abandoned");
+        String attached = upload("attached");
+        String fresh = upload("fresh");
+        attach(attached);
+        age(path(abandoned));
+        age(path(attached));
+
+        Path interrupted = Files.createTempFile(Paths.get(uploadDir), FileUploadService.TEMP_PREFIX,
+                FileUploadService.TEMP_SUFFIX);
+        age(interrupted);
+        Files.createDirectories(imageVariantService.variantDir());
+        Path orphanVariant = imageVariantService.variantPath("gone-" + UUID.randomUUID() + ".png", 160);
+        Files.write(orphanVariant, new byte[] {1, 2, 3});
+        age(orphanVariant);
+
+        UploadGarbageCollector.Report report = collector.collect();
+
+        assertThat(report).isNotNull();
+        assertThat(report.deleted()).isGreaterThanOrEqualTo(3);
+        assertThat(collector.lastReport()).isSameAs(report);
+        assertThat(path(abandoned)).doesNotExist();
+        assertThat(uploadRepository.existsById(abandoned)).isFalse();
+        assertThat(interrupted).doesNotExist();
+        assertThat(orphanVariant).doesNotExist();
+        assertThat(path(attached)).exists();
+        assertThat(uploadRepository.existsById(attached)).isTrue();
+        // Still inside the grace period, e.g. an upload whose post is being written
+        assertThat(path(fresh)).exists();
+        assertThat(uploadRepository.existsById(fresh)).isTrue();
+    }
+
+    @Test
+    void scheduledRunsLeaveTheSchedulerThread() throws Exception {
+        String abandoned = upload("abandoned on schedule");
+        age(path(abandoned));
+
+        collector.scheduledCollect();
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (Files.exists(path(abandoned)) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(path(abandoned)).doesNotExist();
+    }
+
+    /** Stores unique contents, so no other test's upload is shared. */
+    private String upload(String label) throws IOException {
+        byte[] contents = (label + " " + UUID.randomUUID()).getBytes(StandardCharsets.UTF_8);
+        return fileUploadService.uploadFile(new MockMultipartFile("file", label + ".txt", "text/plain", contents));
+    }
+
+    private void attach(String picture) {
+        User author = new User();
+        author.setUsername("gc-author-" + UUID.randomUUID());
+        author.setEmail(author.getUsername() + "@test.local");
+        author.setPassword("secret");
+        author = userRepository.save(author);
+        Question question = new Question();
+        question.setTitle("Question with a picture");
+        question.setText("See the picture");
+        question.setCreationDateTime(LocalDateTime.now());
+        question.setAuthor(author);
+        question.setPicture(picture);
+        questionRepository.save(question);
+        fileUploadService.retain(picture);
+    }
+
+    private Path path(String filename) {
+        return Paths.get(uploadDir).resolve(filename);
+    }
+
+    private static void age(Path file) throws IOException {
+        Files.setLastModifiedTime(file, TWO_DAYS_AGO);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.ForumAppBackend.service;
+
+import com.example.ForumAppBackend.entity.Answer;
+import com.example.ForumAppBackend.entity.Question;
+import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.repository.AnswerRepository;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires thousands of concurrent votes at one author and checks that no reputation or vote
+ * score update is lost, which the old read-modify-write on the loaded User could not promise.
+ */
+@SpringBootTest
+class VoteServiceConcurrencyTest {
+
+    private static final int VOTERS = 1500;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private VoteService voteService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private AnswerRepository answerRepository;
+
+    @Test
+    void parallelVotesOnOneAuthorAreNeverLost() throws Exception {
+        User author = userRepository.save(newUser("stress-author"));
+        Question question = new Question();
+        question.setTitle("Popular question");
+        question.setText("Everyone votes on this");
+        question.setCreationDateTime(LocalDateTime.now());
+        question.setAuthor(author);
+        question = questionRepository.save(question);
+        Answer answer = new Answer();
+        answer.setText("Popular answer");
+        answer.setCreationDateTime(LocalDateTime.now());
+        answer.setQuestion(question);
+        answer.setAuthor(author);
+        answer = answerRepository.save(answer);
+
+        List<User> voters = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            voters.add(userRepository.save(newUser("stress-voter" + i)));
+        }
+
+        Long questionId = question.getId();
+        Long answerId = answer.getId();
+        List<Future<?>> votes = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < VOTERS; i++) {
+                Long voterId = voters.get(i).getId();
+                int questionVote = questionVote(i);
+                int answerVote = answerVote(i);
+                votes.add(pool.submit(() -> voteService.voteQuestion(questionId, voterId, questionVote)));
+                votes.add(pool.submit(() -> voteService.voteAnswer(answerId, voterId, answerVote)));
+            }
+            for (Future<?> vote : votes) {
+                vote.get();
+            }
+        }
+
+        double expectedAuthorScore = 0;
+        long expectedQuestionScore = 0;
+        long expectedAnswerScore = 0;
+        for (int i = 0; i < VOTERS; i++) {
+            expectedAuthorScore += questionVote(i) == 1 ? 2.5 : -1.5;
+            expectedAuthorScore += answerVote(i) == 1 ? 5.0 : -2.5;
+            expectedQuestionScore += questionVote(i);
+            expectedAnswerScore += answerVote(i);
+        }
+        assertThat(userRepository.findById(author.getId()).orElseThrow().getScore()).isEqualTo(expectedAuthorScore);
+        assertThat(questionRepository.findById(questionId).orElseThrow().getVoteScore()).isEqualTo(expectedQuestionScore);
+        assertThat(answerRepository.findById(answerId).orElseThrow().getVoteScore()).isEqualTo(expectedAnswerScore);
+        // Voters who downvoted both get the penalty twice
+        User doubleDownvoter = userRepository.findById(voters.get(3).getId()).orElseThrow();
+        assertThat(doubleDownvoter.getScore()).isEqualTo(-3.0);
+    }
+
+    private static int questionVote(int voter) {
+        return voter % 2 == 0 ? 1 : -1;
+    }
+
+    private static int answerVote(int voter) {
+        return voter % 3 == 0 ? -1 : 1;
+    }
+
+    private static User newUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@test.local");
+        user.setPassword("secret");
+        return user;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.ForumAppBackend.vote;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VoteJournalTest {
+
+    private static final List<ScoreDelta> FIRST = List.of(ScoreDelta.user(1L, 2.5), ScoreDelta.question(10L, 1));
+    private static final List<ScoreDelta> SECOND = List.of(ScoreDelta.user(2L, -1.5), ScoreDelta.answer(20L, -1));
+    /** Confirms every record, as if each vote's commit mark were found. */
+    private static final LongPredicate ALL = recordId -> true;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsRecordsBackInAppendOrder() throws IOException {
+        try (VoteJournal journal = new VoteJournal(dir)) {
+            long first = journal.append(FIRST);
+            long second = journal.append(SECOND);
+            journal.abort(second);
+
+            assertThat(first).isNotEqualTo(second);
+            assertThat(journal.read(journal.currentSegment())).containsExactly(
+                    new VoteJournal.Entry(first, false, FIRST),
+                    new VoteJournal.Entry(second, false, SECOND),
+                    new VoteJournal.Entry(second, true, List.of()));
+        }
+    }
+
+    @Test
+    void tornFinalRecordIsSkipped() throws IOException {
+        Path segment = writeTwoRecords();
+        byte[] bytes = Files.readAllBytes(segment);
+
+        for (int cut : new int[]{1, 8, 20, bytes.length / 2 - 1}) {
+            Files.write(segment, Arrays.copyOf(bytes, bytes.length - cut));
+            assertThat(deltas(1)).as("%d bytes cut", cut).isEqualTo(FIRST);
+        }
+    }
+
+    @Test
+    void corruptFinalRecordIsSkipped() throws IOException {
+        Path segment = writeTwoRecords();
+        byte[] bytes = Files.readAllBytes(segment);
+        int secondRecord = bytes.length / 2;
+
+        // A flipped delta bit fails the checksum; a bad record kind or count is rejected before it
+        for (int offset : new int[]{bytes.length - 12, secondRecord + 8, secondRecord + 9}) {
+            byte[] corrupt = bytes.clone();
+            corrupt[offset] ^= 0x40;
+            Files.write(segment, corrupt);
+            assertThat(deltas(1)).as("byte %d flipped", offset).isEqualTo(FIRST);
+        }
+    }
+
+    @Test
+    void rotationStartsANewSegmentAndReopeningContinuesAfterTheLast() throws IOException {
+        String id;
+        try (VoteJournal journal = new VoteJournal(dir)) {
+            id = journal.id();
+            assertThat(journal.currentSegment()).isEqualTo(1);
+            journal.append(FIRST);
+            assertThat(journal.rotate()).isEqualTo(1);
+            assertThat(journal.currentSegment()).isEqualTo(2);
+            journal.append(SECOND);
+
+            assertThat(journal.segments()).containsExactly(1L, 2L);
+            assertThat(journal.replay(List.of(1L), ALL)).isEqualTo(FIRST);
+            assertThat(journal.replay(List.of(2L), ALL)).isEqualTo(SECOND);
+        }
+        try (VoteJournal reopened = new VoteJournal(dir)) {
+            assertThat(reopened.id()).isEqualTo(id);
+            assertThat(reopened.currentSegment()).isEqualTo(3);
+            assertThat(reopened.segments()).containsExactly(1L, 2L, 3L);
+
+            reopened.delete(1);
+            assertThat(reopened.segments()).containsExactly(2L, 3L);
+        }
+    }
+
+    @Test
+    void replayCountsCopiedRecordsOnceAndLeavesOutAbortedOnes() throws IOException {
+        try (VoteJournal journal = new VoteJournal(dir)) {
+            long carried = journal.append(FIRST);
+            long rolledBack = journal.append(SECOND);
+            journal.rotate();
+            // Both were still in doubt when the segment closed, so both were written again
+            journal.append(carried, FIRST);
+            journal.append(rolledBack, SECOND);
+            journal.abort(rolledBack);
+
+            assertThat(journal.replay(List.of(1L, 2L), ALL)).isEqualTo(FIRST);
+            assertThat(journal.replay(List.of(2L), ALL)).isEqualTo(FIRST);
+            assertThat(journal.replay(List.of(2L, 1L), ALL)).isEqualTo(FIRST);
+        }
+    }
+
+    @Test
+    void replayLeavesOutRecordsTheCallerCannotConfirm() throws IOException {
+        try (VoteJournal journal = new VoteJournal(dir)) {
+            long committed = journal.append(FIRST);
+            // Rolled back, but the process died before the abort mark was written
+            journal.append(SECOND);
+
+            assertThat(journal.replay(List.of(1L), recordId -> recordId == committed)).isEqualTo(FIRST);
+            assertThat(journal.replay(List.of(1L), recordId -> false)).isEmpty();
+        }
+    }
+
+    @Test
+    void journalsInOtherDirectoriesHaveOtherIds() throws IOException {
+        try (VoteJournal first = new VoteJournal(dir.resolve("a"));
+             VoteJournal second = new VoteJournal(dir.resolve("b"))) {
+            assertThat(first.id()).isNotBlank().isNotEqualTo(second.id());
+        }
+    }
+
+    /** Two records of equal size in segment 1. */
+    private Path writeTwoRecords() throws IOException {
+        try (VoteJournal journal = new VoteJournal(dir)) {
+            journal.append(FIRST);
+            journal.append(SECOND);
+        }
+        return dir.resolve("votes-1.log");
+    }
+
+    private List<ScoreDelta> deltas(long segment) throws IOException {
+        try (VoteJournal journal = new VoteJournal(dir)) {
+            return journal.replay(List.of(segment), ALL);
+        }
+    }
+}
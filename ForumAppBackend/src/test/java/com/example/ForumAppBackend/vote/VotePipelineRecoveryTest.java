@@ -0,0 +1,146 @@
+package com.example.ForumAppBackend.vote;
+
+import com.example.ForumAppBackend.entity.User;
+import com.example.ForumAppBackend.repository.AnswerRepository;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.repository.ScoreBatchRepository;
+import com.example.ForumAppBackend.repository.UserRepository;
+import com.example.ForumAppBackend.repository.VoteJournalCheckpointRepository;
+import com.example.ForumAppBackend.repository.VoteJournalCommitRepository;
+import com.example.ForumAppBackend.service.LeaderboardService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Restarts write-behind pipelines over journals left on disk and checks that every committed
+ * journaled delta reaches the scores exactly once, per journal.
+ */
+@SpringBootTest
+class VotePipelineRecoveryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private QuestionRepository questionRepository;
+    @Autowired
+    private AnswerRepository answerRepository;
+    @Autowired
+    private ScoreBatchRepository scoreBatchRepository;
+    @Autowired
+    private VoteJournalCheckpointRepository checkpointRepository;
+    @Autowired
+    private VoteJournalCommitRepository commitRepository;
+    @Autowired
+    private LeaderboardService leaderboardService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void segmentsAreReplayedOnceAcrossRestarts() throws IOException {
+        User user = userRepository.save(newUser("journaled"));
+        Path journalDir = dir.resolve("journal");
+        try (VoteJournal journal = new VoteJournal(journalDir)) {
+            commitRepository.markCommitted(journal.id(), journal.append(List.of(ScoreDelta.user(user.getId(), 5.0))));
+            long rolledBack = journal.append(List.of(ScoreDelta.user(user.getId(), 100.0)));
+            journal.abort(rolledBack);
+        }
+        Path segment = journalDir.resolve("votes-1.log");
+        byte[] leftBehind = Files.readAllBytes(segment);
+
+        restart(journalDir);
+        assertThat(score(user)).isEqualTo(5.0);
+        assertThat(segment).doesNotExist();
+
+        // As if the process died after the checkpoint committed but before the segment was deleted
+        Files.write(segment, leftBehind);
+        restart(journalDir);
+        assertThat(score(user)).isEqualTo(5.0);
+    }
+
+    @Test
+    void eachJournalHasItsOwnCheckpoint() throws IOException {
+        User user = userRepository.save(newUser("two-instances"));
+        for (String instance : List.of("a", "b")) {
+            try (VoteJournal journal = new VoteJournal(dir.resolve(instance))) {
+                commitRepository.markCommitted(journal.id(), journal.append(List.of(ScoreDelta.user(user.getId(), 2.5))));
+            }
+        }
+
+        // Both journals numbered their first segment 1; b's must not look applied after a's replay
+        restart(dir.resolve("a"));
+        restart(dir.resolve("b"));
+        assertThat(score(user)).isEqualTo(5.0);
+    }
+
+    @Test
+    void recordsWithoutACommitMarkAreNotReplayed() throws IOException {
+        User user = userRepository.save(newUser("in-doubt"));
+        Path journalDir = dir.resolve("in-doubt");
+        String journalId;
+        try (VoteJournal journal = new VoteJournal(journalDir)) {
+            journalId = journal.id();
+            commitRepository.markCommitted(journalId, journal.append(List.of(ScoreDelta.user(user.getId(), 1.0))));
+            // Prepared, then the vote rolled back and the process died before the abort was journaled
+            journal.append(List.of(ScoreDelta.user(user.getId(), 100.0)));
+        }
+
+        restart(journalDir);
+        assertThat(score(user)).isEqualTo(1.0);
+        assertThat(commitRepository.findRecordIds(journalId)).isEmpty();
+    }
+
+    @Test
+    void votesLeaveNoCommitMarksOnceFlushed() throws IOException {
+        User user = userRepository.save(newUser("flushed"));
+        Path journalDir = dir.resolve("flushed");
+        VotePipeline pipeline = pipeline(journalDir);
+        pipeline.recover();
+        String journalId = Files.readString(journalDir.resolve("journal-id")).trim();
+        try {
+            pipeline.record(List.of(ScoreDelta.user(user.getId(), 2.5)));
+            assertThat(commitRepository.findRecordIds(journalId)).hasSize(1);
+
+            pipeline.flush();
+            assertThat(score(user)).isEqualTo(2.5);
+            assertThat(commitRepository.findRecordIds(journalId)).isEmpty();
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    private void restart(Path journalDir) throws IOException {
+        VotePipeline pipeline = pipeline(journalDir);
+        pipeline.recover();
+        pipeline.shutdown();
+    }
+
+    private VotePipeline pipeline(Path journalDir) {
+        return new VotePipeline(true, journalDir.toString(), userRepository, questionRepository, answerRepository,
+                scoreBatchRepository, checkpointRepository, commitRepository, leaderboardService, transactionManager);
+    }
+
+    private double score(User user) {
+        return userRepository.findById(user.getId()).orElseThrow().getScore();
+    }
+
+    private static User newUser(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@test.local");
+        user.setPassword("secret");
+        return user;
+    }
+}
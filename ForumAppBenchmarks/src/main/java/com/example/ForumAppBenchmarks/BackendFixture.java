@@ -0,0 +1,148 @@
+package com.example.ForumAppBenchmarks;
+
+import com.example.ForumAppBackend.ForumAppBackendApplication;
+import com.example.ForumAppBackend.search.QuestionSearchService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * The whole backend booted on an in-memory H2 database, for benchmarks that go through Spring
+ * beans or HTTP. {@link #seeded} fills the database with {@link DatasetGenerator} and then
+ * restarts the application on it, so
+ * the search, tag and trending indexes are built at startup exactly as after a deploy. Any
+ * property, including the datasource, can be overridden with {@code -jvmArgs "-D..."}.
+ */
+final class BackendFixture implements AutoCloseable {
+
+    /** Title words; the first ones double as the most used tag names. */
+    static final String[] WORDS = {
+            "java", "spring", "hibernate", "postgresql", "docker", "react", "kotlin", "maven",
+            "gradle", "junit", "jpa", "rest", "security", "cache", "thread", "stream", "lambda",
+            "index", "query", "transaction", "deadlock", "memory", "leak", "timeout", "socket",
+            "upload", "image", "json", "parse", "deploy", "config", "bean", "proxy", "lazy",
+            "session", "token", "cookie", "cors", "build", "test"
+    };
+
+    private static final String H2_OPTIONS = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;NON_KEYWORDS=VALUE;LOCK_TIMEOUT=10000";
+
+    private final Path dataDir;
+    private final ConfigurableApplicationContext context;
+    /** Shape of the seeded data; ids of every table run densely from 1. */
+    final DatasetGenerator.Dataset dataset;
+    final long answers;
+
+    private BackendFixture(Path dataDir, ConfigurableApplicationContext context,
+                           DatasetGenerator.Dataset dataset, long answers) {
+        this.dataDir = dataDir;
+        this.context = context;
+        this.dataset = dataset;
+        this.answers = answers;
+    }
+
+    /** An application on an empty database. */
+    static BackendFixture empty(String name, boolean web, String... properties) throws IOException {
+        Path dataDir = Files.createTempDirectory(name + "-bench");
+        ConfigurableApplicationContext context = boot(dataDir, "search-index", name + System.nanoTime(),
+                "create-drop", web, properties);
+        return new BackendFixture(dataDir, context, null, 0);
+    }
+
+    /**
+     * An application restarted on a database holding {@code questions} questions with their
+     * answers, votes and tags. Returns once the search index has been rebuilt.
+     */
+    static BackendFixture seeded(String name, long questions, boolean web, String... properties)
+            throws IOException, SQLException {
+        Path dataDir = Files.createTempDirectory(name + "-bench");
+        String database = name + System.nanoTime();
+        DatasetGenerator.Counts counts;
+        try (ConfigurableApplicationContext seeding = boot(dataDir, "seed-index", database, "create", false, properties)) {
+            counts = DatasetGenerator.generate(seeding.getBean(DataSource.class), questions, 42, false);
+        }
+        // A fresh index directory, so the restart rebuilds from the data instead of loading a snapshot
+        ConfigurableApplicationContext context = boot(dataDir, "search-index", database, "none", web, properties);
+        awaitSearchIndex(context.getBean(QuestionSearchService.class));
+        return new BackendFixture(dataDir, context, new DatasetGenerator.Dataset(questions), counts.answers());
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /** Base URL of the embedded server; only for fixtures started with {@code web}. */
+    String baseUrl() {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    Path uploadDir() {
+        return dataDir.resolve("uploads");
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(dataDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext boot(Path dataDir, String indexDir, String database, String ddl,
+                                                       boolean web, String... properties) {
+        List<String> defaults = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:" + database + H2_OPTIONS,
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=" + ddl,
+                "file.upload-dir=" + dataDir.resolve("uploads"),
+                "search.index.dir=" + dataDir.resolve(indexDir),
+                "votes.pipeline.journal-dir=" + dataDir.resolve("vote-journal"),
+                "logging.level.root=WARN"));
+        defaults.addAll(List.of(properties));
+        return new SpringApplicationBuilder(ForumAppBackendApplication.class)
+                .web(web ? WebApplicationType.SERVLET : WebApplicationType.NONE)
+                .properties(defaults.toArray(String[]::new))
+                .run();
+    }
+
+    /** {@code count} random words from {@link #WORDS}, space separated. */
+    static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static void awaitSearchIndex(QuestionSearchService search) {
+        long deadline = System.nanoTime() + 600_000_000_000L;
+        while (!search.isReady()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Search index was not rebuilt within 10 minutes");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.example.ForumAppBenchmarks;
+
+import com.example.ForumAppBackend.ForumAppBackendApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk loads a synthetic forum through JDBC batches: users, tags, questions with their tags and
+ * votes, and answers with their votes. Activity is Zipf-like (s = 1): a few users write and vote
+ * the most, a few tags are on most questions and a few questions collect most of the votes.
+ * Scores, counters, statuses and tag usage are what the application would have left behind.
+ * <p>
+ * Ids are dense from 1, so callers pick rows by id without keeping lists, and identity columns
+ * are restarted past them so the application keeps inserting normally. Runs against the schema
+ * Hibernate creates; the tables must exist and be empty. On PostgreSQL, add
+ * {@code reWriteBatchedInserts=true} to the JDBC URL.
+ */
+public final class DatasetGenerator {
+
+    /** Rows per JDBC batch; a commit follows every {@link #COMMIT_EVERY} questions. */
+    private static final int BATCH_SIZE = 1000;
+    private static final int COMMIT_EVERY = 1000;
+
+    // Reputation changes, as in VoteService
+    private static final double QUESTION_UPVOTE_POINTS = 2.5;
+    private static final double QUESTION_DOWNVOTE_POINTS = -1.5;
+    private static final double ANSWER_UPVOTE_POINTS = 5.0;
+    private static final double ANSWER_DOWNVOTE_POINTS = -2.5;
+    private static final double DOWNVOTE_PENALTY = -1.5;
+
+    private DatasetGenerator() {
+    }
+
+    /**
+     * Sizes and id ranges of a generated dataset, all derived from the question count, so a
+     * driver pointed at a running instance only needs to know that count.
+     */
+    public static final class Dataset {
+
+        private final long users;
+        private final long tags;
+        private final long questions;
+        private final Zipf userRanks;
+        private final Zipf questionRanks;
+
+        public Dataset(long questions) {
+            this.users = Math.max(50, questions / 5);
+            this.tags = Math.clamp(questions / 100, 200, 20_000);
+            this.questions = questions;
+            this.userRanks = new Zipf(users);
+            this.questionRanks = new Zipf(questions);
+        }
+
+        public long users() {
+            return users;
+        }
+
+        public long tags() {
+            return tags;
+        }
+
+        public long questions() {
+            return questions;
+        }
+
+        /** A user id, active users far more likely than others. */
+        public long activeUser(SplittableRandom random) {
+            return userRanks.idOf(Zipf.rank(random, users));
+        }
+
+        /** A question id, the most voted questions far more likely than others. */
+        public long popularQuestion(SplittableRandom random) {
+            return questionRanks.idOf(Zipf.rank(random, questions));
+        }
+
+        /** Popularity rank of a question, 1 for the most voted. */
+        long questionRank(long questionId) {
+            return questionRanks.rankOf(questionId);
+        }
+
+        /** A tag id; ids are in order of popularity, so low ids are the common tags. */
+        public long popularTag(SplittableRandom random) {
+            return Zipf.rank(random, tags);
+        }
+
+        public String tagName(long tagId) {
+            return tagId <= BackendFixture.WORDS.length ? BackendFixture.WORDS[(int) tagId - 1] : "tag" + tagId;
+        }
+    }
+
+    /**
+     * Zipf (s = 1) ranks by inverting the continuous approximation of its distribution, and a
+     * fixed permutation of [1, n] from rank to id so that popular rows are spread over the ids.
+     */
+    static final class Zipf {
+
+        private final long n;
+        /** Coprime to n, which makes rank to id a bijection. */
+        private final long stride;
+        private final long inverse;
+
+        Zipf(long n) {
+            this.n = n;
+            long candidate = 1_000_003;
+            while (n > 1 && BigInteger.valueOf(candidate).gcd(BigInteger.valueOf(n)).longValue() != 1) {
+                candidate += 2;
+            }
+            this.stride = n > 1 ? candidate % n : 0;
+            this.inverse = n > 1 ? BigInteger.valueOf(stride).modInverse(BigInteger.valueOf(n)).longValue() : 0;
+        }
+
+        /** Rank in [1, n]; P(rank <= k) is about ln k / ln n. */
+        static long rank(SplittableRandom random, long n) {
+            return Math.min(n, (long) Math.pow(n, random.nextDouble()));
+        }
+
+        long idOf(long rank) {
+            return 1 + mulMod(rank - 1, stride);
+        }
+
+        long rankOf(long id) {
+            return 1 + mulMod(id - 1, inverse);
+        }
+
+        /** Exact: both factors are below n, so the product fits in a long for any n under 3 billion. */
+        private long mulMod(long a, long b) {
+            return n <= 1 ? 0 : a * b % n;
+        }
+    }
+
+    /**
+     * Loads into whatever {@code spring.datasource.url} points at (by default a file database in
+     * {@code ./forum-data}) after recreating the schema, e.g.
+     * {@code java -Dspring.datasource.url=jdbc:postgresql://localhost/forumdb?reWriteBatchedInserts=true
+     * -cp target/benchmarks.jar com.example.ForumAppBenchmarks.DatasetGenerator 1000000}.
+     * Existing forum tables are dropped.
+     */
+    public static void main(String[] args) throws SQLException {
+        long questions = args.length > 0 ? Long.parseLong(args[0].replace("_", "")) : 10_000;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ForumAppBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:file:./forum-data/forum;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=VALUE",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "search.index.dir=./forum-data/search-index",
+                        "logging.level.root=WARN")
+                .run()) {
+            long started = System.nanoTime();
+            Counts counts = generate(context.getBean(DataSource.class), questions, 42, true);
+            System.out.printf("Loaded %s in %d s%n", counts, (System.nanoTime() - started) / 1_000_000_000);
+        }
+    }
+
+    /** Rows written per table. */
+    public record Counts(long users, long tags, long questions, long questionTags, long questionVotes,
+                         long answers, long answerVotes) {
+    }
+
+    public static Counts generate(DataSource dataSource, long questions, long seed, boolean progress) throws SQLException {
+        Dataset dataset = new Dataset(questions);
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] userScores = new double[(int) dataset.users() + 1];
+        long[] tagUsage = new long[(int) dataset.tags() + 1];
+        // Question of rank r gets about c / r votes, for about three votes per question overall
+        double c = 3.0 * questions / (Math.log(questions) + 0.5772);
+        long voterStride = new Zipf(dataset.users()).stride;
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (Batch users = new Batch(connection,
+                    "insert into users (id, username, email, password, is_banned, score, role) values (?, ?, ?, ?, false, 0, 'USER')")) {
+                for (long id = 1; id <= dataset.users(); id++) {
+                    users.add(id, "user" + id, "user" + id + "@example.test", "secret");
+                }
+            }
+            try (Batch tags = new Batch(connection, "insert into tags (id, name, usage_count) values (?, ?, 0)")) {
+                for (long id = 1; id <= dataset.tags(); id++) {
+                    tags.add(id, dataset.tagName(id));
+                }
+            }
+            connection.commit();
+
+            long questionTagId = 0;
+            long questionVoteId = 0;
+            long answerId = 0;
+            long answerVoteId = 0;
+            LocalDateTime start = LocalDateTime.now().minusMinutes(questions);
+            try (Batch questionRows = new Batch(connection,
+                    "insert into questions (id, title, text, creation_date_time, vote_score, version, answer_count, "
+                            + "last_activity_at, status, accepted_answer_id, author_id) values (?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?)");
+                 Batch questionTags = new Batch(connection,
+                         "insert into question_tags (id, question_id, tag_id) values (?, ?, ?)", questionRows);
+                 Batch questionVotes = new Batch(connection,
+                         "insert into question_votes (id, question_id, voter_id, value) values (?, ?, ?, ?)", questionRows);
+                 Batch answers = new Batch(connection,
+                         "insert into answers (id, text, creation_date_time, vote_score, version, question_id, author_id) "
+                                 + "values (?, ?, ?, ?, 0, ?, ?)", questionRows);
+                 Batch answerVotes = new Batch(connection,
+                         "insert into answer_votes (id, answer_id, voter_id, value) values (?, ?, ?, ?)", answers)) {
+
+                for (long q = 1; q <= questions; q++) {
+                    long author = dataset.activeUser(random);
+                    LocalDateTime created = start.plusMinutes(q);
+                    long votes = Math.min(dataset.users() - 1, Math.round(c / dataset.questionRank(q)));
+                    int answerCount = random.nextInt(6);
+                    long firstAnswer = answerId + 1;
+                    Long accepted = answerCount > 0 && random.nextInt(3) == 0 ? firstAnswer + random.nextInt(answerCount) : null;
+                    String status = accepted != null ? "SOLVED" : answerCount > 0 ? "IN_PROGRESS" : "RECEIVED";
+
+                    // Votes first, so the question row carries their sum
+                    List<long[]> voteRows = new ArrayList<>();
+                    long score = 0;
+                    long voter = random.nextLong(dataset.users());
+                    for (long v = 0; v < votes; v++) {
+                        voter = (voter + voterStride) % dataset.users();
+                        if (voter + 1 == author) {
+                            voter = (voter + voterStride) % dataset.users();
+                        }
+                        int value = random.nextInt(7) == 0 ? -1 : 1;
+                        score += value;
+                        userScores[(int) author] += value == 1 ? QUESTION_UPVOTE_POINTS : QUESTION_DOWNVOTE_POINTS;
+                        if (value == -1) {
+                            userScores[(int) voter + 1] += DOWNVOTE_PENALTY;
+                        }
+                        voteRows.add(new long[]{++questionVoteId, voter + 1, value});
+                    }
+                    questionRows.add(q, BackendFixture.words(random, 8), BackendFixture.words(random, 20),
+                            Timestamp.valueOf(created), score, answerCount, Timestamp.valueOf(created.plusMinutes(answerCount)),
+                            status, accepted, author);
+                    for (long[] vote : voteRows) {
+                        questionVotes.add(vote[0], q, vote[1], (int) vote[2]);
+                    }
+
+                    int tagCount = 1 + random.nextInt(3);
+                    long[] chosen = new long[tagCount];
+                    for (int t = 0; t < tagCount; t++) {
+                        long tag;
+                        do {
+                            tag = dataset.popularTag(random);
+                        } while (contains(chosen, t, tag));
+                        chosen[t] = tag;
+                        tagUsage[(int) tag]++;
+                        questionTags.add(++questionTagId, q, tag);
+                    }
+
+                    for (int a = 0; a < answerCount; a++) {
+                        long answerAuthor = dataset.activeUser(random);
+                        long id = ++answerId;
+                        // Answers to popular questions collect votes too
+                        long answerVoteCount = Math.min(dataset.users() - 1, Math.round(votes * random.nextDouble() * 0.5));
+                        long answerScore = 0;
+                        List<long[]> answerVoteRows = new ArrayList<>();
+                        long answerVoter = random.nextLong(dataset.users());
+                        for (long v = 0; v < answerVoteCount; v++) {
+                            answerVoter = (answerVoter + voterStride) % dataset.users();
+                            if (answerVoter + 1 == answerAuthor) {
+                                answerVoter = (answerVoter + voterStride) % dataset.users();
+                            }
+                            int value = random.nextInt(5) == 0 ? -1 : 1;
+                            answerScore += value;
+                            userScores[(int) answerAuthor] += value == 1 ? ANSWER_UPVOTE_POINTS : ANSWER_DOWNVOTE_POINTS;
+                            if (value == -1) {
+                                userScores[(int) answerVoter + 1] += DOWNVOTE_PENALTY;
+                            }
+                            answerVoteRows.add(new long[]{++answerVoteId, answerVoter + 1, value});
+                        }
+                        answers.add(id, BackendFixture.words(random, 15), Timestamp.valueOf(created.plusMinutes(a + 1)),
+                                answerScore, q, answerAuthor);
+                        for (long[] vote : answerVoteRows) {
+                            answerVotes.add(vote[0], id, vote[1], (int) vote[2]);
+                        }
+                    }
+
+                    if (q % COMMIT_EVERY == 0) {
+                        answerVotes.flush();
+                        questionVotes.flush();
+                        questionTags.flush();
+                        connection.commit();
+                    }
+                    if (progress && q % Math.max(1, questions / 10) == 0) {
+                        System.out.printf("%d%% (%d questions)%n", q * 100 / questions, q);
+                    }
+                }
+            }
+            connection.commit();
+
+            try (Batch scores = new Batch(connection, "update users set score = ? where id = ?")) {
+                for (int id = 1; id < userScores.length; id++) {
+                    if (userScores[id] != 0) {
+                        scores.add(userScores[id], (long) id);
+                    }
+                }
+            }
+            try (Batch usage = new Batch(connection, "update tags set usage_count = ? where id = ?")) {
+                for (int id = 1; id < tagUsage.length; id++) {
+                    if (tagUsage[id] != 0) {
+                        usage.add(tagUsage[id], (long) id);
+                    }
+                }
+            }
+            restartIdentity(connection, "users", dataset.users());
+            restartIdentity(connection, "tags", dataset.tags());
+            restartIdentity(connection, "questions", questions);
+            restartIdentity(connection, "question_tags", questionTagId);
+            restartIdentity(connection, "question_votes", questionVoteId);
+            restartIdentity(connection, "answers", answerId);
+            restartIdentity(connection, "answer_votes", answerVoteId);
+            connection.commit();
+            return new Counts(dataset.users(), dataset.tags(), questions, questionTagId, questionVoteId, answerId, answerVoteId);
+        }
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Standard SQL, understood by H2 and PostgreSQL identity columns alike. */
+    private static void restartIdentity(Connection connection, String table, long lastId) throws SQLException {
+        try (PreparedStatement restart = connection.prepareStatement(
+                "alter table " + table + " alter column id restart with " + (lastId + 1))) {
+            restart.execute();
+        }
+    }
+
+    /**
+     * A prepared statement filled in batches. Parents are flushed before this batch, so child
+     * rows never reach the database ahead of the rows their foreign keys point to.
+     */
+    private static final class Batch implements AutoCloseable {
+
+        private final PreparedStatement statement;
+        private final Batch[] parents;
+        private int pending;
+
+        Batch(Connection connection, String sql, Batch... parents) throws SQLException {
+            this.statement = connection.prepareStatement(sql);
+            this.parents = parents;
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            for (Batch parent : parents) {
+                parent.flush();
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.ForumAppBenchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sending one stored image over a loopback socket: the old serving path (probe the content type,
+ * then stream the file through a heap buffer as the Resource converter does) versus the new one
+ * (content type from cached upload metadata, bytes moved with {@link FileChannel#transferTo},
+ * which the OS turns into sendfile for a socket target). A background thread drains the socket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageServingBenchmark {
+
+    @Param({"65536", "1048576", "8388608"})
+    public int bytes;
+
+    private Path dir;
+    private Path image;
+    private final Map<String, String> contentTypes = new ConcurrentHashMap<>();
+    private ServerSocketChannel server;
+    private SocketChannel client;
+    private OutputStream clientStream;
+    private Thread drain;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("image-bench");
+        image = dir.resolve("3f6c1d2e-image.png");
+        byte[] content = new byte[bytes];
+        new Random(42).nextBytes(content);
+        Files.write(image, content);
+        contentTypes.put(image.getFileName().toString(), "image/png");
+
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(server.getLocalAddress());
+        SocketChannel accepted = server.accept();
+        clientStream = Channels.newOutputStream(client);
+        drain = new Thread(() -> {
+            ByteBuffer sink = ByteBuffer.allocateDirect(1 << 20);
+            try {
+                while (accepted.read(sink.clear()) >= 0) {
+                    // discard
+                }
+            } catch (IOException ignored) {
+            }
+        }, "socket-drain");
+        drain.setDaemon(true);
+        drain.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        client.close();
+        server.close();
+        drain.join(1000);
+        Files.deleteIfExists(image);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public long probeAndCopy() throws IOException {
+        String contentType = Files.probeContentType(image);
+        long sent;
+        try (InputStream in = Files.newInputStream(image)) {
+            sent = in.transferTo(clientStream);
+        }
+        return sent + (contentType == null ? 0 : contentType.length());
+    }
+
+    @Benchmark
+    public long cachedMetadataTransferTo() throws IOException {
+        String contentType = contentTypes.get(image.getFileName().toString());
+        long sent = 0;
+        try (FileChannel channel = FileChannel.open(image, StandardOpenOption.READ)) {
+            long size = channel.size();
+            while (sent < size) {
+                sent += channel.transferTo(sent, size - sent, client);
+            }
+        }
+        return sent + contentType.length();
+    }
+}
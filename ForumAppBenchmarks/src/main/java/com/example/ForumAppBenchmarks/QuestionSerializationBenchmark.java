@@ -0,0 +1,121 @@
+package com.example.ForumAppBenchmarks;
+
+import com.example.ForumAppBackend.entity.Answer;
+import com.example.ForumAppBackend.entity.AnswerVote;
+import com.example.ForumAppBackend.entity.Question;
+import com.example.ForumAppBackend.entity.QuestionTag;
+import com.example.ForumAppBackend.entity.QuestionVote;
+import com.example.ForumAppBackend.entity.Tag;
+import com.example.ForumAppBackend.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Jackson serialization of a question detail graph (author, tags, votes, answers with their
+ * authors and votes), which is what a question detail cache miss pays on top of loading it:
+ * plain JSON, and JSON plus the gzip copy the cache also keeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionSerializationBenchmark {
+
+    @Param({"5", "50"})
+    public int answers;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private Question question;
+
+    @Setup(Level.Trial)
+    public void build() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<User> users = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            User user = new User();
+            user.setId(i);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@bench.local");
+            user.setScore(random.nextInt(1000));
+            users.add(user);
+        }
+        LocalDateTime created = LocalDateTime.of(2026, 1, 15, 10, 30);
+        question = new Question();
+        question.setId(1L);
+        question.setTitle(BackendFixture.words(random, 8));
+        question.setText(BackendFixture.words(random, 120));
+        question.setCreationDateTime(created);
+        question.setLastActivityAt(created.plusHours(3));
+        question.setAuthor(users.getFirst());
+        for (int t = 0; t < 3; t++) {
+            Tag tag = new Tag(BackendFixture.WORDS[t]);
+            tag.setId(t + 1L);
+            question.getQuestionTags().add(new QuestionTag(question, tag));
+        }
+        for (int v = 1; v < 11; v++) {
+            QuestionVote vote = new QuestionVote();
+            vote.setId((long) v);
+            vote.setQuestion(question);
+            vote.setVoter(users.get(v));
+            vote.setValue(1);
+            question.getVotes().add(vote);
+        }
+        question.setVoteScore(10);
+        long voteId = 1;
+        for (int a = 0; a < answers; a++) {
+            Answer answer = new Answer();
+            answer.setId(a + 1L);
+            answer.setText(BackendFixture.words(random, 60));
+            answer.setCreationDateTime(created.plusMinutes(a + 1));
+            answer.setQuestion(question);
+            answer.setAuthor(users.get(1 + random.nextInt(users.size() - 1)));
+            for (int v = 0; v < 4; v++) {
+                AnswerVote vote = new AnswerVote();
+                vote.setId(voteId++);
+                vote.setAnswer(answer);
+                vote.setVoter(users.get(random.nextInt(users.size())));
+                vote.setValue(random.nextInt(4) == 0 ? -1 : 1);
+                answer.getVotes().add(vote);
+            }
+            question.getAnswers().add(answer);
+        }
+        question.setAnswerCount(answers);
+    }
+
+    @Benchmark
+    public byte[] json() {
+        return jsonMapper.writeValueAsBytes(question);
+    }
+
+    @Benchmark
+    public byte[] jsonAndGzip() throws IOException {
+        byte[] json = jsonMapper.writeValueAsBytes(question);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ForumAppBenchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole backend over HTTP, with Tomcat on its platform-thread pool versus on virtual threads,
+ * under more concurrent clients than Tomcat has threads. Measures the keyset question feed and
+ * question votes; SampleTime mode reports the latency percentiles, and the {@code busy} counter
+ * the requests the database bulkhead (on by default only with virtual threads) turned away with
+ * 503. The default H2 database answers in microseconds, so the gap widens with a real one: pass
+ * {@code -jvmArgs "-Dspring.datasource.url=jdbc:postgresql://... -Dspring.datasource.username=..."}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(400)
+@Fork(1)
+public class RequestExecutionBenchmark {
+
+    private static final int QUESTIONS = 1000;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private BackendFixture backend;
+    private HttpClient client;
+    private String baseUrl;
+    private DatasetGenerator.Dataset dataset;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, SQLException {
+        backend = BackendFixture.seeded("requests", QUESTIONS, true, "spring.threads.virtual.enabled=" + virtualThreads);
+        dataset = backend.dataset;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUrl = backend.baseUrl();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        client.close();
+        backend.close();
+    }
+
+    /** Per client thread: its random stream and how its requests were answered. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Client {
+        final SplittableRandom random = new SplittableRandom();
+        public long busy;
+        public long failed;
+
+        void record(int status) {
+            if (status == 503) {
+                busy++;
+            } else if (status >= 500) {
+                failed++;
+            }
+        }
+    }
+
+    @Benchmark
+    public int feedPage(Client client) throws Exception {
+        return send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/questions?limit=20")).GET());
+    }
+
+    @Benchmark
+    public int voteQuestion(Client client) throws Exception {
+        long question = dataset.popularQuestion(client.random);
+        long user = dataset.activeUser(client.random);
+        int value = client.random.nextBoolean() ? 1 : -1;
+        URI uri = URI.create(baseUrl + "/api/votes/question/" + question + "/user/" + user + "?value=" + value);
+        return send(client, HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private int send(Client state, HttpRequest.Builder request) throws Exception {
+        int status = client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        state.record(status);
+        return status;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.ForumAppBenchmarks;
+
+import com.example.ForumAppBackend.search.TagBitmapIndex;
+import com.example.ForumAppBackend.search.TagExpression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page (20 newest ids) of a boolean tag filter, answered by {@link TagBitmapIndex}
+ * versus the {@code exists} / {@code not exists} join the SQL path would need per term.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagFilterBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final String[] TAGS = {
+            "java", "spring", "hibernate", "kotlin", "react", "postgresql", "docker", "maven",
+            "javascript", "css", "python", "gradle", "junit", "jpa", "rest", "security"
+    };
+
+    private static final String AND_NOT_SQL = """
+            select q.id from questions q
+            where exists (select 1 from question_tags qt join tags t on t.id = qt.tag_id where qt.question_id = q.id and t.name = ?)
+              and exists (select 1 from question_tags qt join tags t on t.id = qt.tag_id where qt.question_id = q.id and t.name = ?)
+              and not exists (select 1 from question_tags qt join tags t on t.id = qt.tag_id where qt.question_id = q.id and t.name = ?)
+            order by q.id desc limit ?""";
+
+    private static final String OR_SQL = """
+            select q.id from questions q
+            where exists (select 1 from question_tags qt join tags t on t.id = qt.tag_id where qt.question_id = q.id and t.name in (?, ?))
+            order by q.id desc limit ?""";
+
+    @Param({"10000", "100000"})
+    public int questions;
+
+    private final TagBitmapIndex index = new TagBitmapIndex();
+    private final TagExpression andNot = TagExpression.parse("java AND spring AND NOT hibernate");
+    private final TagExpression or = TagExpression.parse("java OR kotlin");
+    private Connection connection;
+    private PreparedStatement andNotQuery;
+    private PreparedStatement orQuery;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:tagfilter;MODE=PostgreSQL");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table questions (id bigint primary key)");
+            ddl.execute("create table tags (id bigint primary key, name varchar(255) unique not null)");
+            ddl.execute("create table question_tags (id bigint auto_increment primary key, question_id bigint not null, tag_id bigint not null)");
+            ddl.execute("create index idx_question_tags_tag_question on question_tags (tag_id, question_id)");
+            ddl.execute("create index idx_question_tags_question on question_tags (question_id)");
+        }
+        try (PreparedStatement tag = connection.prepareStatement("insert into tags (id, name) values (?, ?)")) {
+            for (int t = 0; t < TAGS.length; t++) {
+                tag.setLong(1, t + 1);
+                tag.setString(2, TAGS[t]);
+                tag.addBatch();
+            }
+            tag.executeBatch();
+        }
+        Random random = new Random(42);
+        connection.setAutoCommit(false);
+        try (PreparedStatement question = connection.prepareStatement("insert into questions (id) values (?)");
+             PreparedStatement link = connection.prepareStatement("insert into question_tags (question_id, tag_id) values (?, ?)")) {
+            for (long id = 1; id <= questions; id++) {
+                question.setLong(1, id);
+                question.addBatch();
+                index.addQuestion(id);
+                for (int t = 0; t < TAGS.length; t++) {
+                    // Skewed usage: early tags are far more common, as on a real forum
+                    if (random.nextDouble() < 0.6 / (t + 1)) {
+                        link.setLong(1, id);
+                        link.setLong(2, t + 1);
+                        link.addBatch();
+                        index.tagQuestion(TAGS[t], id);
+                    }
+                }
+                if (id % 1000 == 0) {
+                    question.executeBatch();
+                    link.executeBatch();
+                }
+            }
+            question.executeBatch();
+            link.executeBatch();
+        }
+        connection.commit();
+        andNotQuery = connection.prepareStatement(AND_NOT_SQL);
+        andNotQuery.setString(1, "java");
+        andNotQuery.setString(2, "spring");
+        andNotQuery.setString(3, "hibernate");
+        andNotQuery.setInt(4, PAGE_SIZE);
+        orQuery = connection.prepareStatement(OR_SQL);
+        orQuery.setString(1, "java");
+        orQuery.setString(2, "kotlin");
+        orQuery.setInt(3, PAGE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> bitmapAndNot() {
+        return index.newestMatching(andNot, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Long> sqlAndNot() throws SQLException {
+        return ids(andNotQuery);
+    }
+
+    @Benchmark
+    public List<Long> bitmapOr() {
+        return index.newestMatching(or, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Long> sqlOr() throws SQLException {
+        return ids(orQuery);
+    }
+
+    private static List<Long> ids(PreparedStatement query) throws SQLException {
+        List<Long> ids = new ArrayList<>(PAGE_SIZE);
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.ForumAppBenchmarks;
+
+import com.example.ForumAppBackend.entity.Tag;
+import com.example.ForumAppBackend.service.TagService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tag resolution in {@link TagService}: {@code createOrGetTag} for a tag that exists, and for one
+ * that does not yet, and {@code resolveTagIds} for the ten names of a typical post once they are
+ * in the id cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagResolutionBenchmark {
+
+    @Param({"1000", "10000"})
+    public int questions;
+
+    private BackendFixture backend;
+    private TagService tagService;
+    private final List<String> postTags = Arrays.asList(BackendFixture.WORDS).subList(0, 10);
+    private long created;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, SQLException {
+        backend = BackendFixture.seeded("tags", questions, false);
+        tagService = backend.bean(TagService.class);
+        // Each call commits, which is when resolved ids enter the cache
+        postTags.forEach(tagService::createOrGetTag);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        backend.close();
+    }
+
+    @Benchmark
+    public Tag createOrGetExisting() {
+        return tagService.createOrGetTag("spring");
+    }
+
+    @Benchmark
+    public Tag createOrGetNew() {
+        return tagService.createOrGetTag("new-tag-" + created++);
+    }
+
+    @Benchmark
+    public Map<String, Long> resolveCachedPostTags() {
+        return tagService.resolveTagIds(postTags);
+    }
+}
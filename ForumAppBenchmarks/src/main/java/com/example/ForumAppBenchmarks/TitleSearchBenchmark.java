@@ -0,0 +1,73 @@
+package com.example.ForumAppBenchmarks;
+
+import com.example.ForumAppBackend.dto.QuestionSummary;
+import com.example.ForumAppBackend.repository.QuestionRepository;
+import com.example.ForumAppBackend.search.QuestionSearchService;
+import com.example.ForumAppBackend.search.SearchHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page (20 hits) of a title search: the {@code like} query in {@link QuestionRepository},
+ * which the search endpoint falls back to while the index loads, versus the in-memory inverted
+ * index it normally answers from. {@code term} is a common word and a rare one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TitleSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000"})
+    public int questions;
+
+    @Param({"spring", "deadlock"})
+    public String term;
+
+    private BackendFixture backend;
+    private QuestionRepository questionRepository;
+    private QuestionSearchService questionSearchService;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, SQLException {
+        backend = BackendFixture.seeded("search", questions, false);
+        questionRepository = backend.bean(QuestionRepository.class);
+        questionSearchService = backend.bean(QuestionSearchService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        backend.close();
+    }
+
+    @Benchmark
+    public List<QuestionSummary> repositoryLike() {
+        return questionRepository.searchSummariesByTitle(term, Limit.of(PAGE_SIZE));
+    }
+
+    @Benchmark
+    public List<SearchHit> invertedIndex() {
+        return questionSearchService.search(term, 0, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.ForumAppBenchmarks;
+
+import com.example.ForumAppBackend.service.FileUploadService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * {@link FileUploadService#uploadFile} on a PNG of random pixels: new contents, which are hashed,
+ * stored and recorded, and contents already stored, which are hashed and dropped. New uploads
+ * also queue variant generation, which runs on its own threads as in production. Stored files
+ * are removed after every iteration so the disk does not fill up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UploadBenchmark {
+
+    /** Width and height of the image; 256 is about 200 KB as PNG, 1024 about 3 MB. */
+    @Param({"256", "1024"})
+    public int side;
+
+    private BackendFixture backend;
+    private FileUploadService fileUploadService;
+    private byte[] png;
+    private long uploads;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        backend = BackendFixture.empty("uploads", false);
+        fileUploadService = backend.bean(FileUploadService.class);
+        BufferedImage image = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < side; y++) {
+            for (int x = 0; x < side; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        // Room for a counter after IEND, which decoders ignore, to make every upload unique
+        png = new byte[out.size() + Long.BYTES];
+        System.arraycopy(out.toByteArray(), 0, png, 0, out.size());
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeStoredFiles() throws IOException {
+        if (!Files.isDirectory(backend.uploadDir())) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(backend.uploadDir())) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                if (Files.isRegularFile(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // A variant worker moved a file while the tree was walked; the next iteration gets it
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        backend.close();
+    }
+
+    @Benchmark
+    public String uploadNew() throws IOException {
+        byte[] contents = png.clone();
+        ByteBuffer.wrap(contents).putLong(contents.length - Long.BYTES, uploads++);
+        return fileUploadService.uploadFile(new BytesMultipartFile(contents));
+    }
+
+    @Benchmark
+    public String uploadDuplicate() throws IOException {
+        return fileUploadService.uploadFile(new BytesMultipartFile(png));
+    }
+
+    /** A multipart upload already held in memory, as Spring hands over small ones. */
+    private record BytesMultipartFile(byte[] contents) implements MultipartFile {
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return "screenshot.png";
+        }
+
+        @Override
+        public String getContentType() {
+            return "image/png";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return contents.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return contents.length;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return contents;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(contents);
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            Files.write(dest.toPath(), contents);
+        }
+    }
+}
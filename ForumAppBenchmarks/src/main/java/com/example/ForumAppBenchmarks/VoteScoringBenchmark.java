@@ -0,0 +1,80 @@
+package com.example.ForumAppBenchmarks;
+
+import com.example.ForumAppBackend.service.VoteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One vote through {@link VoteService}: the vote row, the version bump and the score changes for
+ * the post and its author, applied inline or handed to the write-behind pipeline. Voters and
+ * questions follow the seeded Zipf popularity, so the mix of new, changed and withdrawn votes and
+ * the contention on hot rows match real traffic.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VoteScoringBenchmark {
+
+    @Param({"1000", "10000"})
+    public int questions;
+
+    @Param({"false", "true"})
+    public boolean pipeline;
+
+    private BackendFixture backend;
+    private VoteService voteService;
+    private DatasetGenerator.Dataset dataset;
+    private long answers;
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, SQLException {
+        backend = BackendFixture.seeded("votes", questions, false, "votes.pipeline.enabled=" + pipeline);
+        voteService = backend.bean(VoteService.class);
+        dataset = backend.dataset;
+        answers = backend.answers;
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        backend.close();
+    }
+
+    @Benchmark
+    public Object voteQuestion() {
+        try {
+            return voteService.voteQuestion(dataset.popularQuestion(random), dataset.activeUser(random), random.nextBoolean() ? 1 : -1);
+        } catch (IllegalArgumentException e) {
+            // Voting on one's own question; active users write more of them, but it stays rare
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Object voteAnswer() {
+        try {
+            return voteService.voteAnswer(1 + random.nextLong(answers), dataset.activeUser(random), random.nextBoolean() ? 1 : -1);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
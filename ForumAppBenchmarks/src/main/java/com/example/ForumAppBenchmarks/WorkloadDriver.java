@@ -0,0 +1,261 @@
+package com.example.ForumAppBenchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Replays a weighted read/write mix over HTTP and reports throughput and p50/p99/p999 latency per
+ * endpoint. Clients run closed loop on virtual threads: each sends its next request as soon as
+ * the previous one is answered, picking users, questions and tags with the same Zipf skew the
+ * {@link DatasetGenerator} wrote them with. Without {@code --target} an embedded backend on H2 is
+ * seeded and started first; with it, the instance must hold a generated dataset of
+ * {@code --questions} questions.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.example.ForumAppBenchmarks.WorkloadDriver \
+ *     --questions=100000 --clients=64 --warmup=10 --duration=60 \
+ *     --mix=feed=40,detail=40,vote-question=20 [--target=http://localhost:8080] [--virtual-threads=false]
+ * </pre>
+ */
+public final class WorkloadDriver {
+
+    private static final String DEFAULT_MIX = "feed=25,detail=25,answers=10,search=5,filter=5,tags=3,suggest=2,"
+            + "vote-question=12,vote-answer=8,answer=3,question=2";
+
+    /** Every request kind the mix can name, in report order. */
+    private static final Map<String, RequestFactory> OPERATIONS = new LinkedHashMap<>();
+
+    static {
+        OPERATIONS.put("feed", (t, r) -> get(t, "/api/questions?limit=20"));
+        OPERATIONS.put("detail", (t, r) -> get(t, "/api/questions/" + t.dataset().popularQuestion(r)));
+        OPERATIONS.put("answers", (t, r) -> get(t, "/api/answers/question/" + t.dataset().popularQuestion(r) + "?limit=20"));
+        OPERATIONS.put("search", (t, r) -> get(t, "/api/questions/search?q=" + BackendFixture.words(r, 1)));
+        OPERATIONS.put("filter", (t, r) -> get(t, "/api/questions/filter?limit=20&tag="
+                + URLEncoder.encode(t.dataset().tagName(t.dataset().popularTag(r)), StandardCharsets.UTF_8)));
+        OPERATIONS.put("tags", (t, r) -> get(t, "/api/tags?sort=popular&limit=20"));
+        OPERATIONS.put("suggest", (t, r) -> get(t, "/api/tags/suggest?prefix=" + BackendFixture.words(r, 1).substring(0, 2)));
+        OPERATIONS.put("vote-question", (t, r) -> post(t, "/api/votes/question/" + t.dataset().popularQuestion(r)
+                + "/user/" + t.dataset().activeUser(r) + "?value=" + vote(r), null));
+        OPERATIONS.put("vote-answer", (t, r) -> post(t, "/api/votes/answer/" + (1 + r.nextLong(t.answers()))
+                + "/user/" + t.dataset().activeUser(r) + "?value=" + vote(r), null));
+        OPERATIONS.put("answer", (t, r) -> post(t, "/api/answers/user/" + t.dataset().activeUser(r)
+                + "/question/" + t.dataset().popularQuestion(r), "{\"text\":\"" + BackendFixture.words(r, 15) + "\"}"));
+        OPERATIONS.put("question", (t, r) -> post(t, "/api/questions/user/" + t.dataset().activeUser(r),
+                "{\"title\":\"" + BackendFixture.words(r, 8) + "\",\"text\":\"" + BackendFixture.words(r, 20)
+                        + "\",\"tagNames\":[\"" + t.dataset().tagName(t.dataset().popularTag(r)) + "\"]}"));
+    }
+
+    private WorkloadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        long questions = Long.parseLong(options.getOrDefault("questions", "10000").replace("_", ""));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        long warmupNanos = Long.parseLong(options.getOrDefault("warmup", "10")) * 1_000_000_000L;
+        long durationNanos = Long.parseLong(options.getOrDefault("duration", "60")) * 1_000_000_000L;
+        String[] names = mixNames(options.getOrDefault("mix", DEFAULT_MIX));
+        int[] cumulativeWeights = mixWeights(options.getOrDefault("mix", DEFAULT_MIX));
+
+        BackendFixture backend = null;
+        Target target;
+        if (options.containsKey("target")) {
+            // Answer ids of a generated dataset: about 2.5 per question, so 2 per question are all there
+            target = new Target(options.get("target"), new DatasetGenerator.Dataset(questions), 2 * questions);
+        } else {
+            System.out.printf("Seeding %d questions...%n", questions);
+            backend = BackendFixture.seeded("workload", questions, true,
+                    "spring.threads.virtual.enabled=" + options.getOrDefault("virtual-threads", "true"));
+            target = new Target(backend.baseUrl(), backend.dataset, backend.answers);
+        }
+
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            System.out.printf("%d clients against %s: %d s warmup, %d s measured%n",
+                    clients, target.baseUrl(), warmupNanos / 1_000_000_000L, durationNanos / 1_000_000_000L);
+            long start = System.nanoTime();
+            Recorder[][] recorders = new Recorder[clients][];
+            List<Thread> threads = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                Recorder[] own = recorders[c] = newRecorders(names.length);
+                SplittableRandom random = new SplittableRandom(1000L + c);
+                threads.add(Thread.ofVirtual().name("workload-client-" + c).start(() -> runClient(client, target,
+                        names, cumulativeWeights, own, random, start + warmupNanos, start + warmupNanos + durationNanos)));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            report(names, recorders, durationNanos);
+        } finally {
+            if (backend != null) {
+                backend.close();
+            }
+        }
+    }
+
+    private static void runClient(HttpClient client, Target target, String[] names, int[] cumulativeWeights,
+                                  Recorder[] recorders, SplittableRandom random, long measureFrom, long end) {
+        while (System.nanoTime() < end) {
+            int op = Arrays.binarySearch(cumulativeWeights, random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]) + 1);
+            if (op < 0) {
+                op = -op - 1;
+            }
+            HttpRequest request = OPERATIONS.get(names[op]).create(target, random);
+            long sent = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException e) {
+                status = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (sent >= measureFrom) {
+                recorders[op].record(System.nanoTime() - sent, status);
+            }
+        }
+    }
+
+    private static void report(String[] names, Recorder[][] recorders, long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        System.out.printf("%n%-14s %9s %9s %6s %6s %6s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "4xx", "5xx", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        Recorder all = new Recorder();
+        for (int op = 0; op < names.length; op++) {
+            Recorder merged = new Recorder();
+            for (Recorder[] client : recorders) {
+                merged.add(client[op]);
+            }
+            all.add(merged);
+            print(names[op], merged, seconds);
+        }
+        print("total", all, seconds);
+    }
+
+    private static void print(String name, Recorder recorder, double seconds) {
+        long[] latencies = Arrays.copyOf(recorder.latencies, recorder.count);
+        Arrays.sort(latencies);
+        System.out.printf("%-14s %9d %9.1f %6d %6d %6d %9.2f %9.2f %9.2f %9.2f%n",
+                name, recorder.count, recorder.count / seconds, recorder.clientErrors, recorder.serverErrors,
+                recorder.failures, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), percentile(latencies, 1.0));
+    }
+
+    /** Nearest-rank percentile in milliseconds. */
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static String[] mixNames(String mix) {
+        return Arrays.stream(mix.split(",")).map(entry -> {
+            String name = entry.substring(0, Math.max(0, entry.indexOf('='))).trim();
+            if (!OPERATIONS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown operation '" + name + "' in mix; known: " + OPERATIONS.keySet());
+            }
+            return name;
+        }).toArray(String[]::new);
+    }
+
+    private static int[] mixWeights(String mix) {
+        int[] cumulative = Arrays.stream(mix.split(","))
+                .mapToInt(entry -> Integer.parseInt(entry.substring(entry.indexOf('=') + 1).trim()))
+                .toArray();
+        if (Arrays.stream(cumulative).anyMatch(weight -> weight < 1)) {
+            throw new IllegalArgumentException("Mix weights must be positive; leave an operation out instead: " + mix);
+        }
+        Arrays.parallelPrefix(cumulative, Integer::sum);
+        return cumulative;
+    }
+
+    private static Recorder[] newRecorders(int count) {
+        Recorder[] recorders = new Recorder[count];
+        Arrays.setAll(recorders, i -> new Recorder());
+        return recorders;
+    }
+
+    private static int vote(SplittableRandom random) {
+        return random.nextInt(5) == 0 ? -1 : 1;
+    }
+
+    private static HttpRequest get(Target target, String path) {
+        return HttpRequest.newBuilder(URI.create(target.baseUrl() + path))
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+    }
+
+    private static HttpRequest post(Target target, String path, String json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(target.baseUrl() + path));
+        if (json == null) {
+            return request.POST(HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return request.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    /** The instance under load and the ids its data holds. */
+    private record Target(String baseUrl, DatasetGenerator.Dataset dataset, long answers) {
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpRequest create(Target target, SplittableRandom random);
+    }
+
+    /** One client's results for one endpoint; merged once the run is over, so never shared. */
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long clientErrors;
+        private long serverErrors;
+        private long failures;
+
+        void record(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (status == 0) {
+                failures++;
+            } else if (status >= 500) {
+                serverErrors++;
+            } else if (status >= 400) {
+                clientErrors++;
+            }
+        }
+
+        void add(Recorder other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            clientErrors += other.clientErrors;
+            serverErrors += other.serverErrors;
+            failures += other.failures;
+        }
+    }
+}
@@ -4,7 +4,7 @@ import VoteButtons from '../Common/VoteButtons';
 import { updateAnswer, deleteAnswer } from '../../services/answerService';
 import './AnswerItem.css';
 
-export default function AnswerItem({ answer, onAnswerUpdated }) {
+export default function AnswerItem({ answer, authorScore, onAnswerUpdated }) {
   const { user } = useAuth();
   const isAuthor = user && answer.author?.id === user.id;
   const isModerator = user && user.role === 'MODERATOR';
@@ -77,10 +77,12 @@ export default function AnswerItem({ answer, onAnswerUpdated }) {
             <div className="answer-meta">
               <div className="author-info">
                 <span className="author-name">Answer by {answer.author?.username}</span>
-                <span className="author-score" title="User score">
-                  <i className="bi bi-star-fill text-warning me-1"></i>
-                  {answer.author?.score.toFixed(1)}
-                </span>
+                {authorScore != null && (
+                  <span className="author-score" title="User score">
+                    <i className="bi bi-star-fill text-warning me-1"></i>
+                    {authorScore.toFixed(1)}
+                  </span>
+                )}
               </div>
               <span className="answer-date">
                 {new Date(answer.creationDateTime).toLocaleString()}
@@ -1,9 +1,11 @@
 import React, { useState, useEffect, useCallback } from 'react';
 import { getAnswersForQuestion } from '../../services/answerService';
+import userService from '../../services/userService';
 import AnswerItem from './AnswerItem';
 
 export default function AnswersList({ questionId }) {
   const [answers, setAnswers] = useState([]);
+  const [authorScores, setAuthorScores] = useState({});
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState(null);
 
@@ -11,6 +13,11 @@ export default function AnswersList({ questionId }) {
     try {
       const data = await getAnswersForQuestion(questionId);
       setAnswers(data);
+      const authorIds = [...new Set(data.map(answer => answer.author?.id).filter(Boolean))].slice(0, 100);
+      if (authorIds.length > 0) {
+        // Scores are optional: the answers still show if the lookup fails
+        userService.getScores(authorIds).then(setAuthorScores).catch(() => {});
+      }
     } catch (err) {
       setError('Error loading answers');
     } finally {
@@ -41,6 +48,7 @@ export default function AnswersList({ questionId }) {
         <AnswerItem 
           key={answer.id} 
           answer={answer} 
+          authorScore={authorScores[answer.author?.id]}
           onAnswerUpdated={loadAnswers}
         />
       ))}
@@ -130,9 +130,7 @@ export default function QuestionDetail() {
   };
 
   const sortedAnswers = [...answers].sort((a, b) => {
-    const votesA = a.votes ? a.votes.length : 0;
-    const votesB = b.votes ? b.votes.length : 0;
-    return votesB - votesA;
+    return (b.voteScore || 0) - (a.voteScore || 0);
     });
 
   if (isLoading) {
@@ -260,7 +258,7 @@ export default function QuestionDetail() {
                   <img 
                     src={`http://localhost:8080/api/upload/image/${encodeURIComponent(
                       question.picture.includes('/') ? question.picture.split('/').pop() : question.picture
-                    )}`}
+                    )}?w=1280`}
                     alt={`Image for question: ${question.title}`}
                     className="question-detail-image"
                     onError={(e) => {
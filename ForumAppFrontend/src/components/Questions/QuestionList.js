@@ -3,11 +3,11 @@ import { Link } from 'react-router-dom';
 import './QuestionList.css';
 
 function voteSum(q) {
-  return (q.votes || []).reduce((s, v) => s + (v?.value ?? 0), 0);
+  return q.voteScore ?? 0;
 }
 
 function answerCount(q) {
-  return (q.answers || []).length;
+  return q.answerCount ?? 0;
 }
 
 export default function QuestionList({
@@ -84,12 +84,12 @@ export default function QuestionList({
             <Link to={`/questions/${question.id}`} className="question-body">
               <h3 className="question-title">{question.title}</h3>
               <p className="question-excerpt">
-                {question.text.length > 180 ? `${question.text.substring(0, 180).trim()}...` : question.text}
+                {question.excerpt.length > 180 ? `${question.excerpt.substring(0, 180).trim()}...` : question.excerpt}
               </p>
               <div className="question-footer">
                 <div className="question-tags">
-                  {question.questionTags?.map(qt => (
-                    <span key={qt.id} className="question-tag">{qt.tag.name}</span>
+                  {question.tagNames?.map(name => (
+                    <span key={name} className="question-tag">{name}</span>
                   ))}
                 </div>
                 <div className="question-meta">
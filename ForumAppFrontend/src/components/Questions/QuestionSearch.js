@@ -1,6 +1,6 @@
 import React, { useState, useEffect, useMemo, useRef } from 'react';
-import { getAllQuestions, searchQuestions, filterQuestionsByTag, getQuestionsByUser } from '../../services/questionService';
-import { getAllTags } from '../../services/tagService';
+import { getAllQuestions, getTrendingQuestions, searchQuestions, filterQuestionsByTag, getQuestionsByUser } from '../../services/questionService';
+import { getPopularTags } from '../../services/tagService';
 import QuestionList from './QuestionList';
 import './QuestionSearch.css';
 import { useAuth } from '../../context/AuthContext';
@@ -9,13 +9,15 @@ import userService from '../../services/userService';
 const PAGE_SIZE = 10;
 const SORT_OPTIONS = [
   { value: 'newest', label: 'Newest' },
+  { value: 'trending', label: 'Trending' },
   { value: 'oldest', label: 'Oldest' },
   { value: 'votes', label: 'Most voted' },
+  { value: 'activity', label: 'Recently active' },
   { value: 'unanswered', label: 'Unanswered' }
 ];
 
 function voteSum(q) {
-  return (q.votes || []).reduce((s, v) => s + (v?.value ?? 0), 0);
+  return q.voteScore ?? 0;
 }
 
 export default function QuestionSearch({ initialTag = null }) {
@@ -88,12 +90,35 @@ export default function QuestionSearch({ initialTag = null }) {
   const loadPopularTags = async () => {
     try {
       setTagsError(null);
-      setPopularTags(await getAllTags());
+      setPopularTags(await getPopularTags());
     } catch {
       setTagsError('Error loading tags');
     }
   };
 
+  const handleSortChange = async (e) => {
+    const value = e.target.value;
+    const wasTrending = sortBy === 'trending';
+    setSortBy(value);
+    if (value !== 'trending' && !wasTrending) return;
+    setSearchQuery('');
+    setSelectedTag(null);
+    setSelectedUser(null);
+    if (value !== 'trending') {
+      await loadInitialData();
+      return;
+    }
+    try {
+      setIsLoading(true);
+      setError(null);
+      setQuestions(await getTrendingQuestions());
+    } catch {
+      setError('Error loading trending questions');
+    } finally {
+      setIsLoading(false);
+    }
+  };
+
   const handleSearch = async (e) => {
     e.preventDefault();
     if (debounceRef.current) {
@@ -184,12 +209,15 @@ export default function QuestionSearch({ initialTag = null }) {
     if (sortBy === 'unanswered') {
       list = list.filter((q) => !q.acceptedAnswerId);
     }
+    // Trending lists arrive already ranked by the server
     if (sortBy === 'newest') {
       list.sort((a, b) => new Date(b.creationDateTime) - new Date(a.creationDateTime));
     } else if (sortBy === 'oldest') {
       list.sort((a, b) => new Date(a.creationDateTime) - new Date(b.creationDateTime));
     } else if (sortBy === 'votes') {
       list.sort((a, b) => voteSum(b) - voteSum(a));
+    } else if (sortBy === 'activity') {
+      list.sort((a, b) => new Date(b.lastActivityAt || b.creationDateTime) - new Date(a.lastActivityAt || a.creationDateTime));
     }
     return list;
   }, [questions, sortBy]);
@@ -229,7 +257,7 @@ export default function QuestionSearch({ initialTag = null }) {
           </button>
         </form>
         <div className="filter-bar">
-          <select className="sort-filter" value={sortBy} onChange={(e) => setSortBy(e.target.value)} aria-label="Sort">
+          <select className="sort-filter" value={sortBy} onChange={handleSortChange} aria-label="Sort">
             {SORT_OPTIONS.map((opt) => (
               <option key={opt.value} value={opt.value}>{opt.label}</option>
             ))}
@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { getAllTags } from '../../services/tagService';
+import { suggestTags } from '../../services/tagService';
 import './TagSelector.css';
 
 export default function TagSelector({ selectedTags = [], onTagsChange }) {
@@ -8,13 +8,15 @@ export default function TagSelector({ selectedTags = [], onTagsChange }) {
   const [error, setError] = useState(null);
 
   useEffect(() => {
-    loadTags();
-  }, []);
+    const timer = setTimeout(() => loadTags(newTag.trim()), 200);
+    return () => clearTimeout(timer);
+  }, [newTag]);
 
-  const loadTags = async () => {
+  const loadTags = async (prefix) => {
     try {
-      const tags = await getAllTags();
-      setAvailableTags(tags);
+      const tags = await suggestTags(prefix);
+      setAvailableTags(tags || []);
+      setError(null);
     } catch (err) {
       setError('Could not load tags');
     }
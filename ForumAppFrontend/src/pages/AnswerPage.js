@@ -98,8 +98,8 @@ export default function AnswerPage() {
     return [...answers].sort((a, b) => {
       if (a.accepted && !b.accepted) return -1;
       if (!a.accepted && b.accepted) return 1;
-      const scoreA = a.votes?.reduce((sum, vote) => sum + vote.value, 0) || 0;
-      const scoreB = b.votes?.reduce((sum, vote) => sum + vote.value, 0) || 0;
+      const scoreA = a.voteScore || 0;
+      const scoreB = b.voteScore || 0;
       if (scoreA !== scoreB) return scoreB - scoreA;
       return new Date(b.creationDateTime) - new Date(a.creationDateTime);
     });
@@ -239,7 +239,7 @@ export default function AnswerPage() {
     if (!picture) return null;
     if (picture.startsWith('data:') || picture.startsWith('http')) return picture;
     const filename = picture.includes('/') ? picture.split('/').pop() : picture;
-    return `http://localhost:8080/api/upload/image/${encodeURIComponent(filename)}?t=${Date.now()}`;
+    return `http://localhost:8080/api/upload/image/${encodeURIComponent(filename)}?w=640`;
   };
 
   if (isLoading) {
@@ -1,7 +1,7 @@
 import React, { useEffect, useState } from 'react';
 import { useAuth } from '../context/AuthContext';
 import userService from '../services/userService';
-import { getAllQuestions, deleteQuestion, updateQuestion } from '../services/questionService';
+import { getAllQuestions, getQuestionById, deleteQuestion, updateQuestion } from '../services/questionService';
 import { uploadImage } from '../services/uploadService';
 import { getAllAnswers, deleteAnswer, updateAnswer } from '../services/answerService';
 import './ModeratorPage.css';
@@ -115,7 +115,15 @@ export default function ModeratorPage() {
     }
   };
 
-  const handleEditQuestion = (question) => {
+  const handleEditQuestion = async (summary) => {
+    let question;
+    try {
+      question = await getQuestionById(summary.id);
+    } catch (err) {
+      setActionMsg('Error loading question!');
+      setTimeout(() => setActionMsg(null), 3000);
+      return;
+    }
     setEditingQuestion(question);
     setEditForm({
       title: question.title,
@@ -145,12 +153,12 @@ export default function ModeratorPage() {
         }
       }
 
-      const updatedQuestion = await updateQuestion(editingQuestion.id, {
+      await updateQuestion(editingQuestion.id, {
         ...editingQuestion,
         ...editForm,
         picture: imageUrl
       });
-      setQuestions(questions.map(q => q.id === updatedQuestion.id ? updatedQuestion : q));
+      await loadQuestions();
       setEditingQuestion(null);
       setPreviewImage(null);
       setImageFile(null);
@@ -191,7 +199,7 @@ export default function ModeratorPage() {
 
   const filteredQuestions = questions.filter(question =>
     question.title.toLowerCase().includes(searchTerm.toLowerCase()) ||
-    question.text.toLowerCase().includes(searchTerm.toLowerCase())
+    (question.excerpt || '').toLowerCase().includes(searchTerm.toLowerCase())
   );
 
   const filteredAnswers = answers.filter(answer =>
@@ -29,6 +29,14 @@ export default function ProfilePage() {
   const [isSaving, setIsSaving] = useState(false);
   const [editLoaded, setEditLoaded] = useState(false);
   const [isDeleting, setIsDeleting] = useState(false);
+  const [rank, setRank] = useState(null);
+
+  useEffect(() => {
+    if (!user) return;
+    userService.getRank(user.id)
+      .then((entry) => setRank(entry.rank))
+      .catch(() => setRank(null));
+  }, [user]);
 
   const handleDeleteAccount = async () => {
     if (!window.confirm('Are you sure you want to delete your account? This action cannot be undone.')) return;
@@ -123,10 +131,9 @@ export default function ProfilePage() {
         const userAnswers = allAnswers.filter(answer => answer.author.id === user.id);
         setAnswers(userAnswers);
 
-        const totalVotes = [
-          ...userQuestions.map(q => q.votes || []),
-          ...userAnswers.map(a => a.votes || [])
-        ].flat().reduce((sum, vote) => sum + vote.value, 0);
+        const totalVotes =
+          userQuestions.reduce((sum, q) => sum + (q.voteScore || 0), 0) +
+          userAnswers.reduce((sum, a) => sum + (a.voteScore || 0), 0);
 
         const acceptedAnswers = userAnswers.filter(a => a.accepted).length;
 
@@ -220,8 +227,14 @@ export default function ProfilePage() {
               <div className="user-stats">
                 <div className="user-score" title="Your current score">
                   <i className="bi bi-star-fill text-warning"></i>
-                  <span>{(user.score || 0).toFixed(1)} points</span>
+                  <span>{((user.score || 0) + (user.pendingScore || 0)).toFixed(1)} points</span>
                 </div>
+                {rank && (
+                  <div className="user-score" title="Your place on the reputation leaderboard">
+                    <i className="bi bi-trophy-fill text-warning"></i>
+                    <span>Rank #{rank}</span>
+                  </div>
+                )}
               </div>
             </div>
           </div>
@@ -340,26 +353,26 @@ export default function ProfilePage() {
                         </small>
                       </div>
                       <p className="item-content">
-                        {question.text.length > 100
-                          ? `${question.text.substring(0, 100)}...`
-                          : question.text}
+                        {question.excerpt.length > 100
+                          ? `${question.excerpt.substring(0, 100)}...`
+                          : question.excerpt}
                       </p>
                       <div className="item-footer">
                         <div className="tag-list">
-                          {question.questionTags?.map(qt => (
-                            <span key={qt.tag.id} className="tag">
-                              {qt.tag.name}
+                          {question.tagNames?.map(name => (
+                            <span key={name} className="tag">
+                              {name}
                             </span>
                           ))}
                         </div>
                         <div className="item-stats">
                           <span>
                             <i className="bi bi-chat"></i>
-                            {question.answers?.length || 0} answers
+                            {question.answerCount || 0} answers
                           </span>
                           <span>
                             <i className="bi bi-hand-thumbs-up"></i>
-                            {question.votes?.reduce((sum, vote) => sum + vote.value, 0) || 0} votes
+                            {question.voteScore || 0} votes
                           </span>
                         </div>
                       </div>
@@ -509,7 +522,7 @@ export default function ProfilePage() {
                         <div className="item-stats">
                           <span>
                             <i className="bi bi-hand-thumbs-up"></i>
-                            {answer.votes?.reduce((sum, vote) => sum + vote.value, 0) || 0} votes
+                            {answer.voteScore || 0} votes
                           </span>
                         </div>
                       </div>
@@ -1,6 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
-import { getAllTags } from '../services/tagService';
+import { getPopularTags } from '../services/tagService';
 import './TagsPage.css';
 
 export default function TagsPage() {
@@ -9,7 +9,7 @@ export default function TagsPage() {
   const [error, setError] = useState(null);
 
   useEffect(() => {
-    getAllTags()
+    getPopularTags()
       .then(setTags)
       .catch(() => setError('Could not load tags'))
       .finally(() => setIsLoading(false));
@@ -64,6 +64,7 @@ export default function TagsPage() {
               >
                 <i className="bi bi-tag-fill"></i>
                 <span>{tag.name}</span>
+                <span className="tag-card-count">{tag.usageCount}</span>
               </Link>
             ))
           )}
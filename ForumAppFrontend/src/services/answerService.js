@@ -24,6 +24,10 @@ export function getAnswersForQuestion(questionId) {
   return api.get(`/answers/question/${questionId}`).then(res => res.data);
 }
 
+export function getAnswersPage(questionId, { sort = 'score', cursor, limit = 20 } = {}) {
+  return api.get(`/answers/question/${questionId}`, { params: { sort, cursor, limit } }).then(res => res.data);
+}
+
 export function acceptAnswer(questionId, answerId, userId) {
   return api.put(`/questions/${questionId}/accept/${answerId}`, null, {
     params: { userId }
@@ -30,6 +30,10 @@ export function searchQuestions(title) {
   return api.get('/questions/search', { params: { q: title } }).then(res => res.data);
 }
 
+export function getTrendingQuestions(limit = 50) {
+  return api.get('/questions/trending', { params: { limit } }).then(res => res.data);
+}
+
 export function filterQuestionsByTag(tagName) {
   return api.get('/questions/filter', { params: { tag: tagName } }).then(res => res.data);
 }
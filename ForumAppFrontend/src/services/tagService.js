@@ -4,6 +4,10 @@ export function getAllTags() {
   return api.get('/tags').then(res => res.data);
 }
 
+export function suggestTags(prefix, limit = 20) {
+  return api.get('/tags/suggest', { params: { prefix, limit } }).then(res => res.data);
+}
+
 export function createTag(name) {
   return api.post('/tags', null, {
     params: { name }
@@ -26,6 +30,6 @@ export function removeTagFromQuestion(questionId, tagName) {
   });
 }
 
-export function getPopularTags() {
-  return api.get('/tags').then(res => res.data).catch(() => []);
+export function getPopularTags(limit = 50) {
+  return api.get('/tags', { params: { sort: 'popular', limit } }).then(res => res.data);
 }
@@ -3,6 +3,10 @@ import api from './api';
 const userService = {
   getAll: () => api.get('/users').then(r => r.data),
   getById: (id) => api.get(`/users/${id}`).then(r => r.data),
+  getRank: (id) => api.get(`/users/${id}/rank`).then(r => r.data),
+  // Reputation by user id; post bodies show authors without it
+  getScores: (ids) => api.get('/users/scores', { params: { ids: ids.join(',') } }).then(r => r.data),
+  getLeaderboard: (after, limit = 20) => api.get('/users/leaderboard', { params: { after, limit } }).then(r => r.data),
   update: (id, data) => api.put(`/users/${id}`, data).then(r => r.data),
   delete: (id) => api.delete(`/users/${id}`),
   banUser: (id) => api.put(`/users/${id}/ban`).then(r => r.data),